@@ -0,0 +1,189 @@
+package world.landfall.sentinel;
+
+import world.landfall.sentinel.context.GamePlatform;
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.BulkTargets;
+import world.landfall.sentinel.db.DatabaseManager.QuarantinedLink;
+import world.landfall.sentinel.db.IpBanInfo;
+import world.landfall.sentinel.db.LinkInfo;
+import world.landfall.sentinel.db.QuarantineInfo;
+import world.landfall.sentinel.moderation.IpBanManager;
+import org.slf4j.Logger;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory index of accounts that are known to be denied, consulted before
+ * authentication so platforms can reject them without paying for a full login.
+ *
+ * The index is a snapshot of active quarantines joined against linked accounts
+ * for one platform. It is refreshed periodically, bans and unbans are applied to it
+ * as they happen, and it is never authoritative: LoginHandler still runs the full
+ * check for everyone who gets through.
+ */
+public class LoginDenyIndex {
+
+    private final DatabaseManager database;
+    private final GamePlatform platform;
+    private final Logger logger;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile IpBanManager ipBanManager;
+
+    public LoginDenyIndex(DatabaseManager database, GamePlatform platform, Logger logger) {
+        this.database = database;
+        this.platform = platform;
+        this.logger = logger;
+    }
+
+    /**
+     * Sets the IP ban manager so banned addresses are rejected before authentication too.
+     */
+    public void setIpBanManager(IpBanManager ipBanManager) {
+        this.ipBanManager = ipBanManager;
+    }
+
+    /**
+     * Reloads the index from the database.
+     *
+     * Holds the lock across the read as well as the swap, so a refresh that read the
+     * database before an unban committed cannot install its snapshot after the matching
+     * {@link #removeDiscordId}: that removal waits and is applied on top of it instead.
+     */
+    public synchronized void refresh() {
+        try {
+            Map<UUID, QuarantinedLink> byUuid = new HashMap<>();
+            Map<String, QuarantinedLink> byUsername = new HashMap<>();
+
+            for (QuarantinedLink entry : database.getActiveQuarantinedLinks(platform)) {
+                byUuid.put(entry.link().uuid(), entry);
+                if (entry.link().username() != null) {
+                    byUsername.put(entry.link().username().toLowerCase(Locale.ROOT), entry);
+                }
+            }
+
+            snapshot = new Snapshot(byUuid, byUsername);
+            logger.debug("Refreshed login deny index: {} quarantined {} accounts", byUuid.size(), platform.displayName());
+        } catch (Exception e) {
+            logger.error("Failed to refresh login deny index", e);
+        }
+    }
+
+    /**
+     * Adds the links of newly quarantined Discord IDs, e.g. right after a ban, so they are
+     * rejected early without waiting for the next refresh. Reads only those users' links.
+     *
+     * @param expiresAt When the quarantine expires, or null for permanent
+     */
+    public synchronized void addQuarantines(Collection<String> discordIds, String reason, String issuedBy, Instant expiresAt) {
+        BulkTargets targets = database.getBulkTargets(discordIds, false);
+        if (targets == null) {
+            logger.warn("Could not read the links of {} banned users, login deny index catches up on the next refresh", discordIds.size());
+            return;
+        }
+
+        Snapshot current = snapshot;
+        Map<UUID, QuarantinedLink> byUuid = new HashMap<>(current.byUuid());
+        Map<String, QuarantinedLink> byUsername = new HashMap<>(current.byUsername());
+        Instant now = Instant.now();
+        for (List<LinkInfo> links : targets.links().values()) {
+            for (LinkInfo link : links) {
+                if (link.platform() != platform) {
+                    continue;
+                }
+                QuarantinedLink entry = new QuarantinedLink(link,
+                        new QuarantineInfo(link.discordId(), reason, expiresAt, now, issuedBy));
+                byUuid.put(link.uuid(), entry);
+                if (link.username() != null) {
+                    byUsername.put(link.username().toLowerCase(Locale.ROOT), entry);
+                }
+            }
+        }
+        snapshot = new Snapshot(byUuid, byUsername);
+    }
+
+    /**
+     * Drops every entry for a Discord ID, e.g. right after an unban,
+     * so the index never rejects someone the database already allows.
+     */
+    public synchronized void removeDiscordId(String discordId) {
+        Snapshot current = snapshot;
+        Map<UUID, QuarantinedLink> byUuid = new HashMap<>(current.byUuid());
+        Map<String, QuarantinedLink> byUsername = new HashMap<>(current.byUsername());
+        byUuid.values().removeIf(e -> e.link().discordId().equals(discordId));
+        byUsername.values().removeIf(e -> e.link().discordId().equals(discordId));
+        snapshot = new Snapshot(byUuid, byUsername);
+    }
+
+    /**
+     * Checks a connecting player against the index.
+     *
+     * When the platform supplies a UUID it is trusted over the username, so a cached
+     * username that has since changed hands never blocks its new owner.
+     *
+     * @param uuid The UUID presented by the client, or null if not known yet
+     * @param username The username presented by the client
+     * @return The matching entry if the player should be rejected early
+     */
+    public Optional<QuarantinedLink> find(UUID uuid, String username) {
+        Snapshot current = snapshot;
+
+        QuarantinedLink entry;
+        if (uuid != null) {
+            entry = current.byUuid().get(uuid);
+        } else if (username != null) {
+            entry = current.byUsername().get(username.toLowerCase(Locale.ROOT));
+        } else {
+            entry = null;
+        }
+
+        if (entry == null || !entry.quarantine().isActive()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * Checks a connecting address against the IP and subnet bans.
+     *
+     * @param ipAddress The remote address literal
+     * @return The matching ban if the connection should be rejected early
+     */
+    public Optional<IpBanInfo> findIpBan(String ipAddress) {
+        IpBanManager manager = ipBanManager;
+        if (manager == null || ipAddress == null) {
+            return Optional.empty();
+        }
+        return manager.findBan(ipAddress);
+    }
+
+    /**
+     * Builds the denial reason for an IP ban hit, matching what LoginHandler would render.
+     */
+    public static DenialReason toDenialReason(IpBanInfo ban) {
+        return new DenialReason.IpBanned(ban.reason(), ban.getFormattedTimeRemaining(), ban.isPermanent());
+    }
+
+    /**
+     * Builds the denial reason for an index hit, matching what LoginHandler would render.
+     */
+    public static DenialReason toDenialReason(QuarantinedLink entry) {
+        QuarantineInfo q = entry.quarantine();
+        return new DenialReason.Quarantined(q.reason(), q.getFormattedTimeRemaining(), q.isPermanent());
+    }
+
+    public int size() {
+        return snapshot.byUuid().size();
+    }
+
+    private record Snapshot(Map<UUID, QuarantinedLink> byUuid, Map<String, QuarantinedLink> byUsername) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+}
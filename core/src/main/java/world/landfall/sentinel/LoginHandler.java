@@ -5,15 +5,33 @@ import world.landfall.sentinel.context.GamePlatform;
 import world.landfall.sentinel.context.LoginContext;
 import world.landfall.sentinel.context.LoginGatekeeper;
 import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.IpBanInfo;
 import world.landfall.sentinel.db.QuarantineInfo;
 import world.landfall.sentinel.discord.DiscordManager;
+import world.landfall.sentinel.discord.QuarantineChecker;
 import world.landfall.sentinel.impersonation.ImpersonationManager;
 import world.landfall.sentinel.tos.TosManager;
+import world.landfall.sentinel.util.CircuitBreaker;
 import world.landfall.sentinel.util.IpLogger;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Platform-independent login business logic.
@@ -21,6 +39,9 @@ import java.util.UUID;
  */
 public class LoginHandler {
 
+    private static final long DECISION_GRACE_MILLIS = 250;
+    private static final int RECORD_QUEUE_CAPACITY = 1000;
+
     private final DatabaseManager database;
     private final Logger logger;
     private final SentinelConfig config;
@@ -28,6 +49,9 @@ public class LoginHandler {
     private final ImpersonationManager impersonationManager;
     private final TosManager tosManager;
     private final IpLogger ipLogger;
+    private final ExecutorService checkExecutor;
+    private final ExecutorService recordExecutor;
+    private final CircuitBreaker databaseBreaker;
 
     public LoginHandler(DatabaseManager database, SentinelConfig config, DiscordManager discordManager,
                         ImpersonationManager impersonationManager, TosManager tosManager,
@@ -39,6 +63,24 @@ public class LoginHandler {
         this.tosManager = tosManager;
         this.ipLogger = ipLogger;
         this.logger = logger;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.checkExecutor = Executors.newFixedThreadPool(Math.max(1, config.login.checkThreads), r -> {
+            Thread t = new Thread(r, "Sentinel-LoginCheck-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        // IP log and username writes never hold up a decision; under a slow database the overflow is dropped
+        this.recordExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(RECORD_QUEUE_CAPACITY), r -> {
+            Thread t = new Thread(r, "Sentinel-LoginRecord");
+            t.setDaemon(true);
+            return t;
+        }, (task, executor) -> logger.debug("Login record queue is full, dropping a record"));
+
+        long breakerOpenMillis = TimeUnit.SECONDS.toMillis(config.login.breakerOpenSeconds);
+        this.databaseBreaker = new CircuitBreaker("database", config.login.breakerFailureThreshold, breakerOpenMillis, logger);
     }
 
     /**
@@ -52,14 +94,28 @@ public class LoginHandler {
         GamePlatform platform = ctx.getPlatform();
 
         // Check if this is an impersonated UUID and get the original if so
-        UUID originalUuid = uuid;
-        boolean isImpersonating = false;
-        if (impersonationManager != null && impersonationManager.isImpersonating(uuid)) {
-            originalUuid = impersonationManager.getOriginalUuid(uuid);
-            isImpersonating = true;
+        boolean isImpersonating = impersonationManager != null && impersonationManager.isImpersonating(uuid);
+        UUID originalUuid = isImpersonating ? impersonationManager.getOriginalUuid(uuid) : uuid;
+        if (isImpersonating) {
             logger.info("Player {} is impersonating, checking link status for original UUID {}", username, originalUuid);
         }
 
+        // IP and subnet bans apply to everyone, including bypass hosts and unlinked players
+        if (discordManager != null && discordManager.getIpBanManager() != null && ipAddress != null) {
+            Optional<IpBanInfo> ipBan = discordManager.getIpBanManager().findBan(ipAddress);
+            if (ipBan.isPresent()) {
+                IpBanInfo ban = ipBan.get();
+                logger.info("Player {} ({}) connecting from {} matches IP ban {}. Denying login.",
+                        username, originalUuid, ipAddress, ban.cidr());
+
+                logLogin(originalUuid, null, ipAddress, false, "IP banned (" + ban.cidr() + ")");
+
+                gatekeeper.denyLogin(ctx, new DenialReason.IpBanned(
+                        ban.reason(), ban.getFormattedTimeRemaining(), ban.isPermanent()));
+                return;
+            }
+        }
+
         // Get the virtual host they're connecting through
         String virtualHost = ctx.getVirtualHost().orElse("");
 
@@ -70,9 +126,7 @@ public class LoginHandler {
                     logger.info("Player {} ({}) connecting through bypass virtual host {}. Allowing login.",
                             username, uuid, virtualHost);
 
-                    if (ipLogger != null) {
-                        ipLogger.logLogin(originalUuid, null, ipAddress, true, null);
-                    }
+                    logLogin(originalUuid, null, ipAddress, true, null);
 
                     gatekeeper.allowLogin(ctx);
                     return;
@@ -80,87 +134,58 @@ public class LoginHandler {
             }
         }
 
-        try {
-            if (database.isLinked(originalUuid, platform)) {
-                String discordId = database.getDiscordId(originalUuid, platform);
-
-                // Check if Discord user is still in the server
-                if (discordManager != null && discordManager.getQuarantineChecker() != null) {
-                    boolean isStillInDiscord = isDiscordUserStillInServer(discordId);
+        // Every stage below shares one deadline for the whole login
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.login.deadlineMillis);
 
-                    if (!isStillInDiscord) {
+        try {
+            if (callDatabase(() -> database.isLinked(originalUuid, platform), deadline)) {
+                String discordId = callDatabase(() -> database.getDiscordId(originalUuid, platform), deadline);
+
+                // Membership, quarantine and ToS are independent once the Discord ID is known,
+                // so run them concurrently and act on the first deny
+                Denial denial = runLinkedChecks(discordId, username, originalUuid, deadline);
+                if (denial != null) {
+                    if (denial.reason() instanceof DenialReason.DiscordLeft) {
                         logger.info("Player {} ({}) was linked but Discord user {} is no longer in server. Generating new link code.",
                                 username, originalUuid, discordId);
 
                         String code = generateCode();
-                        database.savePendingCode(originalUuid, code, platform);
+                        savePendingCode(originalUuid, code, platform, isImpersonating ? null : username, deadline);
 
-                        if (ipLogger != null) {
-                            ipLogger.logLogin(originalUuid, discordId, ipAddress, false, "Discord account no longer in server");
-                        }
+                        logLogin(originalUuid, discordId, ipAddress, false, denial.logReason());
 
                         gatekeeper.denyLogin(ctx, new DenialReason.DiscordLeft(code));
                         return;
                     }
 
-                    // Check and clean up any expired quarantine immediately on login
-                    boolean cleanedUp = discordManager.getQuarantineChecker().checkAndCleanupExpiredQuarantine(discordId);
-                    if (cleanedUp) {
-                        logger.info("Player {} ({}) had an expired quarantine that was cleaned up on login", username, uuid);
-                    }
-
-                    // Check for active quarantine (after cleanup)
-                    Optional<QuarantineInfo> quarantine = discordManager.getQuarantineChecker().getQuarantineInfo(discordId);
-                    if (quarantine.isPresent()) {
-                        logger.debug("Player {} ({}) is quarantined. Denying login.", username, uuid);
-                        QuarantineInfo q = quarantine.get();
-
-                        if (ipLogger != null) {
-                            ipLogger.logLogin(originalUuid, discordId, ipAddress, false, "Quarantined");
-                        }
-
-                        gatekeeper.denyLogin(ctx, new DenialReason.Quarantined(
-                                q.reason(), q.getFormattedTimeRemaining(), q.isPermanent()));
-                        return;
-                    }
-                }
-
-                // Check ToS acceptance
-                if (tosManager != null && tosManager.isEnforced()) {
-                    if (!tosManager.hasAgreedToCurrentVersion(discordId)) {
-                        logger.info("Player {} ({}) has not accepted ToS v{}. Denying login.",
-                                username, originalUuid, tosManager.getCurrentVersion());
-
-                        if (ipLogger != null) {
-                            ipLogger.logLogin(originalUuid, discordId, ipAddress, false, "ToS not accepted");
-                        }
+                    logLogin(originalUuid, discordId, ipAddress, false, denial.logReason());
 
-                        gatekeeper.denyLogin(ctx, new DenialReason.TosNotAccepted(tosManager.getCurrentVersion()));
-                        return;
-                    }
+                    gatekeeper.denyLogin(ctx, denial.reason());
+                    return;
                 }
 
                 // Save the current username each login for quick lookup
                 if (!isImpersonating) {
-                    database.updateUsername(originalUuid, username, platform);
+                    recordExecutor.execute(() -> database.updateUsername(originalUuid, username, platform));
                 }
 
                 logger.debug("Player {} ({}) is linked. Allowing login.", username, originalUuid);
 
-                if (ipLogger != null) {
-                    ipLogger.logLogin(originalUuid, discordId, ipAddress, true, null);
-                }
+                logLogin(originalUuid, discordId, ipAddress, true, null);
 
                 gatekeeper.allowLogin(ctx);
+
+                // Warnings whose DM could not be delivered are shown once the player is in
+                if (discordManager != null) {
+                    discordManager.getDirectMessageQueue().deliverInGame(uuid, discordId);
+                }
             } else {
                 // Check if they were linked but removed due to leaving Discord
-                String discordId = database.getDiscordId(originalUuid, platform);
+                String discordId = callDatabase(() -> database.getDiscordId(originalUuid, platform), deadline);
                 if (discordId != null) {
                     logger.warn("Player {} ({}) was linked but needs to relink.", username, originalUuid);
 
-                    if (ipLogger != null) {
-                        ipLogger.logLogin(originalUuid, discordId, ipAddress, false, "Account needs relinking");
-                    }
+                    logLogin(originalUuid, discordId, ipAddress, false, "Account needs relinking");
 
                     gatekeeper.denyLogin(ctx, new DenialReason.NeedsRelink());
                     return;
@@ -168,38 +193,236 @@ public class LoginHandler {
 
                 // Generate & rotate the code
                 String code = generateCode();
-                database.savePendingCode(originalUuid, code, platform);
+                savePendingCode(originalUuid, code, platform, isImpersonating ? null : username, deadline);
 
                 logger.info("Player {} ({}) is not linked. Generated code: {}", username, originalUuid, code);
 
-                if (ipLogger != null) {
-                    ipLogger.logLogin(originalUuid, null, ipAddress, false, "Not linked");
-                }
+                logLogin(originalUuid, null, ipAddress, false, "Not linked");
 
                 gatekeeper.denyLogin(ctx, new DenialReason.NotLinked(code));
             }
+        } catch (TimeoutException e) {
+            logger.warn("Login checks for {} ({}) did not finish within {}ms ({}). Denying login.",
+                    username, originalUuid, config.login.deadlineMillis, e.getMessage());
+
+            logLogin(originalUuid, null, ipAddress, false, "Login checks timed out");
+
+            gatekeeper.denyLogin(ctx, new DenialReason.ServerError());
         } catch (Exception e) {
             logger.error("Error during login check for {} ({})", username, originalUuid, e);
 
-            if (ipLogger != null) {
-                ipLogger.logLogin(originalUuid, null, ipAddress, false, "Server error");
-            }
+            logLogin(originalUuid, null, ipAddress, false, "Server error");
 
             gatekeeper.denyLogin(ctx, new DenialReason.ServerError());
         }
     }
 
-    private boolean isDiscordUserStillInServer(String discordId) {
-        if (discordId == null) return false;
+    /**
+     * Runs the membership, quarantine and ToS checks for a linked player in parallel.
+     *
+     * The result is taken as soon as any check denies, or once all of them pass,
+     * so login latency is the slowest check rather than the sum of all three.
+     * Each check is bounded by the login deadline and guarded by a circuit breaker;
+     * when a check times out or its breaker is open, the configured fallback decides.
+     *
+     * @return The first denial to resolve, or null if every check passed
+     * @throws TimeoutException if no decision was reached within the login deadline
+     */
+    private Denial runLinkedChecks(String discordId, String username, UUID uuid, long deadline) throws Exception {
+        List<CompletableFuture<Denial>> checks = new ArrayList<>();
+
+        if (discordManager != null && discordManager.getQuarantineChecker() != null) {
+            QuarantineChecker checker = discordManager.getQuarantineChecker();
+
+            // Departures are recorded by the bot when they happen, so this is a database read
+            checks.add(runStage("discord-membership", databaseBreaker, deadline, () -> {
+                if (checker.hasLeftDiscord(discordId)) {
+                    // The fresh link code is generated by the caller once this denial wins
+                    return new Denial(new DenialReason.DiscordLeft(null), "Discord account no longer in server");
+                }
+                return null;
+            }, () -> config.login.assumeInDiscordOnFailure
+                    ? null
+                    : new Denial(new DenialReason.ServerError(), "Discord unavailable")));
+
+            checks.add(runStage("quarantine", databaseBreaker, deadline, () -> {
+                // Check and clean up any expired quarantine immediately on login
+                if (checker.checkAndCleanupExpiredQuarantine(discordId)) {
+                    logger.info("Player {} ({}) had an expired quarantine that was cleaned up on login", username, uuid);
+                }
+
+                // Check for active quarantine (after cleanup)
+                Optional<QuarantineInfo> quarantine = checker.getQuarantineInfo(discordId);
+                if (quarantine.isPresent()) {
+                    logger.debug("Player {} ({}) is quarantined. Denying login.", username, uuid);
+                    return quarantineDenial(quarantine.get());
+                }
+                return null;
+            }, () -> {
+                if (!config.login.useCachedQuarantineOnFailure) {
+                    return new Denial(new DenialReason.ServerError(), "Database unavailable");
+                }
+                Optional<QuarantineInfo> cached = checker.getCachedQuarantineInfo(discordId);
+                if (cached == null) {
+                    // Nothing loaded since startup, so an unknown state must not let a quarantined player in
+                    return new Denial(new DenialReason.ServerError(), "Database unavailable and quarantine state unknown");
+                }
+                return cached.map(this::quarantineDenial).orElse(null);
+            }));
+        }
+
+        if (tosManager != null && tosManager.isEnforced()) {
+            checks.add(runStage("tos", databaseBreaker, deadline, () -> {
+                if (!tosManager.hasAgreedToCurrentVersion(discordId)) {
+                    logger.info("Player {} ({}) has not accepted ToS v{}. Denying login.",
+                            username, uuid, tosManager.getCurrentVersion());
+                    return new Denial(new DenialReason.TosNotAccepted(tosManager.getCurrentVersion()), "ToS not accepted");
+                }
+                return null;
+            }, () -> config.login.assumeTosAcceptedOnFailure
+                    ? null
+                    : new Denial(new DenialReason.ServerError(), "Database unavailable")));
+        }
+
+        if (checks.isEmpty()) {
+            return null;
+        }
+
+        CompletableFuture<Denial> decision = new CompletableFuture<>();
+        for (CompletableFuture<Denial> check : checks) {
+            check.whenComplete((denial, error) -> {
+                if (error != null) {
+                    decision.completeExceptionally(error);
+                } else if (denial != null) {
+                    decision.complete(denial);
+                }
+            });
+        }
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, error) -> decision.complete(null));
+
         try {
-            return discordManager.getQuarantineChecker().isUserStillInDiscord(discordId);
-        } catch (Exception e) {
-            logger.error("Error checking if Discord user {} is still in server", discordId, e);
-            return true; // Default to assuming they're still there on error
+            // Stages fall back on their own at the deadline; the grace only covers that hand-off
+            return decision.get(remainingMillis(deadline) + DECISION_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            // Nothing is waiting on the remaining checks once a decision is made
+            checks.forEach(check -> check.cancel(false));
+        }
+    }
+
+    /**
+     * Runs one login check on the check pool, bounded by the login deadline and guarded by a breaker.
+     * If the breaker is open the check is skipped; if it fails or times out the failure is recorded.
+     * In both cases the fallback decides the stage's outcome.
+     */
+    private CompletableFuture<Denial> runStage(String stage, CircuitBreaker breaker, long deadline,
+                                               Callable<Denial> check, Supplier<Denial> fallback) {
+        if (!breaker.allowRequest()) {
+            logger.debug("Login stage {} skipped: {} circuit breaker is open", stage, breaker.getName());
+            return CompletableFuture.completedFuture(fallback.get());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return check.call();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, checkExecutor)
+                .orTimeout(remainingMillis(deadline), TimeUnit.MILLISECONDS)
+                .handle((denial, error) -> {
+                    if (error == null) {
+                        breaker.recordSuccess();
+                        return denial;
+                    }
+                    breaker.recordFailure();
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    logger.warn("Login stage {} failed ({}), using fallback", stage, cause.toString());
+                    return fallback.get();
+                });
+    }
+
+    /**
+     * Runs a database call on the check pool, bounded by the login deadline and the database breaker.
+     * Used for the lookups every later stage depends on, so there is no fallback: failure denies the login.
+     */
+    private <T> T callDatabase(Callable<T> call, long deadline) throws Exception {
+        if (!databaseBreaker.allowRequest()) {
+            throw new TimeoutException("database circuit breaker is open");
+        }
+
+        Future<T> future = checkExecutor.submit(call);
+        try {
+            T result = future.get(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+            databaseBreaker.recordSuccess();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            databaseBreaker.recordFailure();
+            throw new TimeoutException("database lookup timed out");
+        } catch (ExecutionException e) {
+            databaseBreaker.recordFailure();
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Stores the link code the player is about to be shown. Bounded like the lookups, since a
+     * code that was never saved cannot be redeemed and the login is denied either way.
+     */
+    private void savePendingCode(UUID uuid, String code, GamePlatform platform, String username, long deadline) throws Exception {
+        callDatabase(() -> {
+            database.savePendingCode(uuid, code, platform, username);
+            return null;
+        }, deadline);
+    }
+
+    /**
+     * Records a login attempt in the IP log on the record thread, so the decision never waits on it.
+     */
+    private void logLogin(UUID uuid, String discordId, String ipAddress, boolean allowed, String denyReason) {
+        if (ipLogger != null) {
+            recordExecutor.execute(() -> ipLogger.logLogin(uuid, discordId, ipAddress, allowed, denyReason));
         }
     }
 
+    private Denial quarantineDenial(QuarantineInfo q) {
+        return new Denial(new DenialReason.Quarantined(
+                q.reason(), q.getFormattedTimeRemaining(), q.isPermanent()), "Quarantined");
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
     private String generateCode() {
         return UUID.randomUUID().toString().substring(0, 6).toUpperCase();
     }
+
+    /**
+     * Stops the login check pool and flushes queued login records. Called on plugin shutdown.
+     */
+    public void shutdown() {
+        checkExecutor.shutdown();
+        recordExecutor.shutdown();
+        try {
+            if (!checkExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                checkExecutor.shutdownNow();
+            }
+            if (!recordExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                recordExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            checkExecutor.shutdownNow();
+            recordExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A deny decision from one of the concurrent checks, with the reason recorded in the IP log.
+     */
+    private record Denial(DenialReason reason, String logReason) {}
 }
@@ -6,6 +6,8 @@ public class SentinelConfig {
     public Tos tos = new Tos();
     public BypassServers bypassServers = new BypassServers();
     public Impersonation impersonation = new Impersonation();
+    public Login login = new Login();
+    public Escalation escalation = new Escalation();
 
     public static class MySQL {
         public String host = "localhost";
@@ -22,8 +24,21 @@ public class SentinelConfig {
         public String quarantineRole = ""; // Role ID that prevents login (optional)
         public String quarantineMessage = "Your account has been quarantined. Contact an administrator."; // Message shown to quarantined users
         public String[] staffRoles = new String[0]; // Role IDs that can use staff cmds (optional)
+        public String[] noteRoles = new String[0]; // Role IDs limited to /note and /history (optional)
         public String tosAuditChannel = ""; // Channel ID to send ToS agreement confirmations (optional)
         public String moderationAuditChannel = ""; // Channel ID for moderation action logs (optional)
+        public String commandGuild = ""; // Register slash commands to this guild only, for instant updates (optional)
+        public int roleSyncFreshnessHours = 24; // Role sync skips links whose role was verified within this many hours
+        public int quarantineReconcileMinutes = 60; // How often the quarantine role is checked against the database (0 disables)
+        public String membershipReconcileMode = "REPORT"; // OFF, REPORT, DRY_RUN or APPLY for departed linked users
+        public int membershipReconcileHours = 24; // How often linked accounts are checked against guild membership (0 disables)
+        public int commandThreads = 16; // Slash command bodies that may run at once (virtual threads on Java 21+)
+        public int commandQueueSize = 100; // Commands allowed to wait for a free worker before users get a "busy" reply
+        public int requestsPerSecond = 40; // Global budget for Discord REST requests, kept below Discord's limit of 50
+        public int directMessageConcurrency = 4; // Warning DMs that may be in flight at once
+        public String memberCachePolicy = "NONE"; // Members JDA keeps in memory: NONE, DEFAULT, ALL, OWNER, ONLINE, VOICE, BOOSTER or PENDING
+        public String chunkingFilter = "NONE"; // Guilds whose full member list JDA downloads at startup: NONE or ALL
+        public String[] disabledCacheFlags = {"ACTIVITY", "CLIENT_STATUS", "ONLINE_STATUS", "VOICE_STATE", "EMOJI", "STICKER", "SCHEDULED_EVENTS"}; // JDA cache flags to turn off
     }
 
     public static class Tos {
@@ -43,4 +58,25 @@ public class SentinelConfig {
         public String[] allowedUsers = new String[0];
     }
 
+    public static class Login {
+        public long deadlineMillis = 5000; // Total time budget for all database and Discord calls of one login
+        public int checkThreads = 8; // Threads shared by concurrent login checks
+        public int breakerFailureThreshold = 3; // Consecutive timeouts/failures before a dependency's circuit breaker opens
+        public int breakerOpenSeconds = 30; // How long an open breaker skips calls before letting a trial call through
+        public boolean assumeInDiscordOnFailure = true; // Allow login if the Discord membership check fails or its breaker is open
+        public boolean useCachedQuarantineOnFailure = true; // Use the in-memory list of active quarantines if the database is slow or down
+        public boolean assumeTosAcceptedOnFailure = true; // Allow login if the ToS lookup fails or its breaker is open
+    }
+
+    public static class Escalation {
+        public boolean enabled = false; // Ban automatically when warnings reach a policy's threshold (needs a quarantine role)
+        public Policy[] policies = { new Policy() }; // The most severe policy wins when several are reached by the same warning
+
+        public static class Policy {
+            public int warnings = 3; // Warnings within the window that trigger the ban
+            public int days = 30; // Window length in days, counted back from today (UTC)
+            public String duration = "7d"; // Ban duration (e.g., 30m, 2h, 3d, 1w) - empty for permanent
+        }
+    }
+
 }
@@ -4,6 +4,7 @@ import java.util.concurrent.TimeUnit;
 
 public interface PlatformScheduler {
     void runAsync(Runnable task);
+    void runLater(Runnable task, long delay, TimeUnit unit);
     void runRepeating(Runnable task, long delay, long period, TimeUnit unit);
     void shutdown();
 }
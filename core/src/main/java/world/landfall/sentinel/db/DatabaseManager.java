@@ -8,10 +8,17 @@ import org.slf4j.Logger;
 
 import java.sql.*;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.UUID;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 import world.landfall.sentinel.db.QuarantineInfo;
 import java.sql.Types;
 
@@ -19,6 +26,22 @@ public class DatabaseManager {
 
     private final HikariDataSource dataSource;
     private final Logger logger;
+    private final UsernameIndex usernameIndex = new UsernameIndex();
+
+    private static final String COUNTERS_SEEDED_KEY = "moderation_counters.seeded";
+    private static final String STATS_BACKFILL_CUTOFF_KEY = "moderation_daily_stats.backfill_cutoff";
+    private static final String STATS_BACKFILL_CURSOR_KEY = "moderation_daily_stats.backfill_cursor";
+    private static final int STATS_CUTOFF_ATTEMPTS = 3;
+    private static final String INCREMENT_DAILY_STATS_SQL = """
+        INSERT INTO moderation_daily_stats (issued_by, action_type, day, count)
+        VALUES (?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE count = count + VALUES(count)
+        """;
+    private static final String INCREMENT_COUNTER_SQL = """
+        INSERT INTO moderation_counters (discord_id, action_type, day, count)
+        VALUES (?, ?, ?, 1)
+        ON DUPLICATE KEY UPDATE count = count + 1
+        """;
 
     public DatabaseManager(SentinelConfig.MySQL config, Logger logger) {
         this.logger = logger;
@@ -36,6 +59,8 @@ public class DatabaseManager {
         hikari.addDataSourceProperty("cachePrepStmts", "true");
         hikari.addDataSourceProperty("prepStmtCacheSize", "250");
         hikari.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        // Sends JDBC batches as multi-row statements instead of one round trip per row
+        hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
 
         try {
             this.dataSource = new HikariDataSource(hikari);
@@ -51,6 +76,29 @@ public class DatabaseManager {
         }
 
         initTables();
+        loadUsernameIndex();
+    }
+
+    /**
+     * Gets the in-memory index of linked usernames, kept current by this class.
+     */
+    public UsernameIndex getUsernameIndex() {
+        return usernameIndex;
+    }
+
+    private void loadUsernameIndex() {
+        String sql = "SELECT uuid, username, platform FROM linked_accounts WHERE username IS NOT NULL";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                usernameIndex.put(UUID.fromString(rs.getString("uuid")), GamePlatform.valueOf(rs.getString("platform")),
+                        rs.getString("username"));
+            }
+            logger.info("🔎 Indexed {} linked usernames for autocomplete", usernameIndex.size());
+        } catch (SQLException | IllegalArgumentException e) {
+            logger.error("Failed to load linked usernames for autocomplete", e);
+        }
     }
 
     private void initTables() {
@@ -137,6 +185,63 @@ public class DatabaseManager {
             );
             """;
 
+        // ip_bans: IPv4/IPv6 address and subnet bans, stored in canonical CIDR form
+        String createIpBans = """
+            CREATE TABLE IF NOT EXISTS ip_bans (
+              cidr        VARCHAR(64)  PRIMARY KEY,
+              reason      TEXT         NOT NULL,
+              expires_at  TIMESTAMP    NULL,
+              created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+              created_by  VARCHAR(32)  NOT NULL,
+              INDEX idx_expires_at (expires_at)
+            );
+            """;
+
+        // sentinel_state: small key/value store for job checkpoints and bookkeeping
+        String createSentinelState = """
+            CREATE TABLE IF NOT EXISTS sentinel_state (
+              state_key   VARCHAR(64)  PRIMARY KEY,
+              state_value TEXT         NOT NULL,
+              updated_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+            );
+            """;
+
+        // audit_outbox: audit embeds waiting to be delivered to Discord, so none are lost across restarts
+        String createAuditOutbox = """
+            CREATE TABLE IF NOT EXISTS audit_outbox (
+              id          BIGINT       AUTO_INCREMENT PRIMARY KEY,
+              channel     VARCHAR(16)  NOT NULL,
+              embed_json  MEDIUMTEXT   NOT NULL,
+              created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+              INDEX idx_channel_id (channel, id)
+            );
+            """;
+
+        // moderation_counters: moderation actions per user, type and UTC day, kept current by every
+        // insert so escalation windows can be counted without scanning moderation_actions
+        String createModerationCounters = """
+            CREATE TABLE IF NOT EXISTS moderation_counters (
+              discord_id   VARCHAR(32)  NOT NULL,
+              action_type  VARCHAR(16)  NOT NULL,
+              day          DATE         NOT NULL,
+              count        INT          NOT NULL,
+              PRIMARY KEY (discord_id, action_type, day)
+            );
+            """;
+
+        // moderation_daily_stats: moderation actions per staff member, type and UTC day, kept current
+        // by every insert so /modstats never scans moderation_actions
+        String createModerationDailyStats = """
+            CREATE TABLE IF NOT EXISTS moderation_daily_stats (
+              issued_by    VARCHAR(32)  NOT NULL,
+              action_type  VARCHAR(16)  NOT NULL,
+              day          DATE         NOT NULL,
+              count        INT          NOT NULL,
+              PRIMARY KEY (issued_by, action_type, day),
+              INDEX idx_day (day)
+            );
+            """;
+
         try (Connection conn = dataSource.getConnection();
              Statement st = conn.createStatement()) {
             st.executeUpdate(createLinked);
@@ -146,6 +251,11 @@ public class DatabaseManager {
             st.executeUpdate(createTosVersions);
             st.executeUpdate(createLoginIps);
             st.executeUpdate(createModerationActions);
+            st.executeUpdate(createIpBans);
+            st.executeUpdate(createSentinelState);
+            st.executeUpdate(createAuditOutbox);
+            st.executeUpdate(createModerationCounters);
+            st.executeUpdate(createModerationDailyStats);
 
             // Update existing moderation_actions table to support NOTE and UNBAN
             try {
@@ -199,6 +309,14 @@ public class DatabaseManager {
                 logger.debug("Could not add platform column to pending_links (may already exist): {}", e.getMessage());
             }
 
+            // Username seen when the code was issued, carried onto the link when it is claimed
+            try {
+                st.executeUpdate("ALTER TABLE pending_links ADD COLUMN IF NOT EXISTS username VARCHAR(16) NULL");
+                logger.info("Added username column to pending_links table.");
+            } catch (SQLException e) {
+                logger.debug("Could not add username column to pending_links (may already exist): {}", e.getMessage());
+            }
+
             // Migrate pending_links PK to composite (uuid, platform)
             try {
                 st.executeUpdate("ALTER TABLE pending_links DROP PRIMARY KEY, ADD PRIMARY KEY (uuid, platform)");
@@ -206,9 +324,110 @@ public class DatabaseManager {
             } catch (SQLException e) {
                 logger.debug("Could not migrate pending_links PK (may already be composite): {}", e.getMessage());
             }
+
+            // Track when each link's Discord role was last confirmed, so role sync can skip fresh accounts
+            try {
+                st.executeUpdate("ALTER TABLE linked_accounts ADD COLUMN IF NOT EXISTS role_verified_at TIMESTAMP NULL");
+                logger.info("Added role_verified_at column to linked_accounts table.");
+            } catch (SQLException e) {
+                logger.debug("Could not add role_verified_at column to linked_accounts (may already exist): {}", e.getMessage());
+            }
+
+            // Set when the linked Discord user leaves or is banned from the server, cleared if they rejoin
+            try {
+                st.executeUpdate("ALTER TABLE linked_accounts ADD COLUMN IF NOT EXISTS left_guild_at TIMESTAMP NULL");
+                logger.info("Added left_guild_at column to linked_accounts table.");
+            } catch (SQLException e) {
+                logger.debug("Could not add left_guild_at column to linked_accounts (may already exist): {}", e.getMessage());
+            }
+
+            // Delivery state of the DM sent for a moderation action (PENDING, SENT, UNDELIVERED, IN_GAME)
+            try {
+                st.executeUpdate("ALTER TABLE moderation_actions ADD COLUMN IF NOT EXISTS dm_status VARCHAR(16) NULL");
+                st.executeUpdate("ALTER TABLE moderation_actions ADD INDEX IF NOT EXISTS idx_dm_status (dm_status)");
+                logger.info("Added dm_status column to moderation_actions table.");
+            } catch (SQLException e) {
+                logger.debug("Could not add dm_status column to moderation_actions (may already exist): {}", e.getMessage());
+            }
         } catch (SQLException e) {
             logger.error("Failed to init DB tables", e);
         }
+
+        if (getState(COUNTERS_SEEDED_KEY).isEmpty()) {
+            seedModerationCounters();
+        }
+        markDailyStatsCutoff();
+    }
+
+    /**
+     * Records the last action ID that predates moderation_daily_stats, once. Actions after it are
+     * counted as they are inserted, and those up to it by {@link #backfillDailyStats}.
+     *
+     * Runs on every start before anything can record actions, and keeps an existing cutoff, so it
+     * does not depend on reading one first. Without a cutoff the backfill would later count this
+     * run's actions a second time, so if it cannot be recorded startup fails instead.
+     */
+    private void markDailyStatsCutoff() {
+        String sql = """
+            INSERT IGNORE INTO sentinel_state (state_key, state_value)
+            SELECT ?, COALESCE(MAX(id), 0) FROM moderation_actions
+            """;
+
+        SQLException failure = null;
+        for (int attempt = 1; attempt <= STATS_CUTOFF_ATTEMPTS; attempt++) {
+            try (Connection c = dataSource.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setString(1, STATS_BACKFILL_CUTOFF_KEY);
+                ps.executeUpdate();
+                return;
+            } catch (SQLException e) {
+                failure = e;
+                logger.warn("Failed to mark the moderation stats backfill cutoff (attempt {} of {}): {}",
+                        attempt, STATS_CUTOFF_ATTEMPTS, e.getMessage());
+            }
+            if (attempt == STATS_CUTOFF_ATTEMPTS) {
+                break;
+            }
+            try {
+                Thread.sleep(1000L * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        logger.error("❌ Could not mark the moderation stats backfill cutoff — shutting down Sentinel", failure);
+        dataSource.close();
+        throw new RuntimeException("Could not mark the moderation stats backfill cutoff", failure);
+    }
+
+    /**
+     * Fills moderation_counters from the existing history, once. Runs before anything else can
+     * record actions; counts are overwritten rather than added, so a repeat run is harmless.
+     */
+    private void seedModerationCounters() {
+        String sql = """
+            INSERT INTO moderation_counters (discord_id, action_type, day, count)
+            SELECT discord_id, action_type, DATE(issued_at), COUNT(*)
+            FROM moderation_actions
+            GROUP BY discord_id, action_type, DATE(issued_at)
+            ON DUPLICATE KEY UPDATE count = VALUES(count)
+            """;
+
+        try (Connection c = dataSource.getConnection();
+             Statement st = c.createStatement()) {
+            // Counter days are UTC; TIMESTAMP columns are read in the session time zone
+            st.execute("SET time_zone = '+00:00'");
+            try {
+                int rows = st.executeUpdate(sql);
+                setState(COUNTERS_SEEDED_KEY, Instant.now().toString());
+                logger.info("Seeded moderation counters from existing history ({} rows).", rows);
+            } finally {
+                st.execute("SET time_zone = DEFAULT");
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to seed moderation counters, will retry on next startup", e);
+        }
     }
 
     public boolean isLinked(UUID uuid, GamePlatform platform) {
@@ -236,7 +455,9 @@ public class DatabaseManager {
             ps.setString(1, username);
             ps.setString(2, uuid.toString());
             ps.setString(3, platform.name());
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                usernameIndex.put(uuid, platform, username);
+            }
         } catch (SQLException e) {
             logger.warn("Could not update username for {} on {}", uuid, platform, e);
         }
@@ -244,14 +465,17 @@ public class DatabaseManager {
 
     /**
      * Inserts or rotates the pending link code for this UUID and platform.
+     *
+     * @param username The player's current username, or null if not known
      */
-    public void savePendingCode(UUID uuid, String code, GamePlatform platform) {
+    public void savePendingCode(UUID uuid, String code, GamePlatform platform, String username) {
         String sql = """
-            INSERT INTO pending_links (uuid, code, created_at, platform)
-            VALUES (?, ?, ?, ?)
+            INSERT INTO pending_links (uuid, code, created_at, platform, username)
+            VALUES (?, ?, ?, ?, ?)
             ON DUPLICATE KEY UPDATE
               code = VALUES(code),
-              created_at = VALUES(created_at)
+              created_at = VALUES(created_at),
+              username = VALUES(username)
             """;
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -259,6 +483,7 @@ public class DatabaseManager {
             ps.setString(2, code);
             ps.setTimestamp(3, Timestamp.from(Instant.now()));
             ps.setString(4, platform.name());
+            ps.setString(5, username);
             ps.executeUpdate();
         } catch (SQLException e) {
             logger.error("Failed to store pending link for {} on {}", uuid, platform, e);
@@ -275,13 +500,14 @@ public class DatabaseManager {
      * /link calls from both claiming the same code.
      */
     public PendingClaim claimPending(String code) {
-        String select = "SELECT uuid, platform FROM pending_links WHERE code = ? FOR UPDATE";
+        String select = "SELECT uuid, platform, username FROM pending_links WHERE code = ? FOR UPDATE";
         String delete = "DELETE FROM pending_links WHERE code = ?";
         try (Connection conn = dataSource.getConnection()) {
             conn.setAutoCommit(false);
             try {
                 UUID uuid;
                 GamePlatform platform;
+                String username;
                 try (PreparedStatement ps = conn.prepareStatement(select)) {
                     ps.setString(1, code);
                     try (ResultSet rs = ps.executeQuery()) {
@@ -291,6 +517,7 @@ public class DatabaseManager {
                         }
                         uuid = UUID.fromString(rs.getString("uuid"));
                         platform = GamePlatform.valueOf(rs.getString("platform"));
+                        username = rs.getString("username");
                     }
                 }
                 try (PreparedStatement del = conn.prepareStatement(delete)) {
@@ -298,7 +525,7 @@ public class DatabaseManager {
                     del.executeUpdate();
                 }
                 conn.commit();
-                return new PendingClaim(uuid, platform);
+                return new PendingClaim(uuid, platform, username);
             } catch (SQLException e) {
                 conn.rollback();
                 throw e;
@@ -318,9 +545,9 @@ public class DatabaseManager {
      * Uses a transaction to prevent two concurrent calls from both passing
      * the duplicate check and inserting.
      */
-    public boolean addLink(UUID uuid, String discordId, GamePlatform platform) {
+    public boolean addLink(UUID uuid, String discordId, GamePlatform platform, String username) {
         String check  = "SELECT 1 FROM linked_accounts WHERE discord_id = ? AND platform = ? FOR UPDATE";
-        String insert = "INSERT INTO linked_accounts (uuid, discord_id, platform) VALUES (?, ?, ?)";
+        String insert = "INSERT INTO linked_accounts (uuid, discord_id, platform, username) VALUES (?, ?, ?, ?)";
         try (Connection conn = dataSource.getConnection()) {
             conn.setAutoCommit(false);
             try {
@@ -340,9 +567,11 @@ public class DatabaseManager {
                     ps2.setString(1, uuid.toString());
                     ps2.setString(2, discordId);
                     ps2.setString(3, platform.name());
+                    ps2.setString(4, username);
                     ps2.executeUpdate();
                 }
                 conn.commit();
+                usernameIndex.put(uuid, platform, username);
                 return true;
             } catch (SQLException e) {
                 conn.rollback();
@@ -438,6 +667,97 @@ public class DatabaseManager {
         return discordIds;
     }
 
+    /**
+     * Gets one page of linked Discord IDs in discord_id order, for checkpointed role synchronization.
+     * Accounts whose role was verified at or after {@code verifiedBefore} are skipped.
+     *
+     * @param afterDiscordId Cursor: only IDs sorting after this one are returned ("" for the start)
+     * @param verifiedBefore Only return accounts not verified since this instant
+     * @param limit Maximum number of IDs to return
+     * @return Discord IDs in ascending discord_id order
+     */
+    public List<String> getLinkedDiscordIdsPage(String afterDiscordId, Instant verifiedBefore, int limit) {
+        String sql = """
+            SELECT discord_id
+            FROM linked_accounts
+            WHERE discord_id > ?
+            GROUP BY discord_id
+            HAVING MAX(role_verified_at) IS NULL OR MAX(role_verified_at) < ?
+            ORDER BY discord_id
+            LIMIT ?
+            """;
+        List<String> discordIds = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, afterDiscordId);
+            ps.setTimestamp(2, Timestamp.from(verifiedBefore));
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    discordIds.add(rs.getString("discord_id"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting linked Discord IDs after {}", afterDiscordId, e);
+        }
+        return discordIds;
+    }
+
+    /**
+     * Gets one page of linked Discord IDs not marked as having left, in discord_id order,
+     * for checkpointed membership reconciliation.
+     *
+     * @param afterDiscordId Cursor: only IDs sorting after this one are returned ("" for the start)
+     * @param limit Maximum number of IDs to return
+     * @return Discord IDs in ascending discord_id order, or null if the query failed
+     */
+    public List<String> getPresentLinkedDiscordIdsPage(String afterDiscordId, int limit) {
+        String sql = """
+            SELECT DISTINCT discord_id
+            FROM linked_accounts
+            WHERE discord_id > ? AND left_guild_at IS NULL
+            ORDER BY discord_id
+            LIMIT ?
+            """;
+        List<String> discordIds = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, afterDiscordId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    discordIds.add(rs.getString("discord_id"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting present linked Discord IDs after {}", afterDiscordId, e);
+            return null;
+        }
+        return discordIds;
+    }
+
+    /**
+     * Records that the linked role was confirmed for these Discord IDs.
+     */
+    public void markRoleVerified(Collection<String> discordIds, Instant verifiedAt) {
+        if (discordIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(discordIds.size(), "?"));
+        String sql = "UPDATE linked_accounts SET role_verified_at = ? WHERE discord_id IN (" + placeholders + ")";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(verifiedAt));
+            int index = 2;
+            for (String discordId : discordIds) {
+                ps.setString(index++, discordId);
+            }
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error marking role verified for {} Discord IDs", discordIds.size(), e);
+        }
+    }
+
     /**
      * Removes a linked account by Discord ID.
      * Used when a user leaves the Discord server.
@@ -453,11 +773,15 @@ public class DatabaseManager {
             return false;
         }
 
+        List<LinkInfo> links = findByDiscordId(discordId);
         String sql = "DELETE FROM linked_accounts WHERE discord_id = ?";
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setString(1, discordId);
             int rowsAffected = ps.executeUpdate();
+            for (LinkInfo link : links) {
+                usernameIndex.remove(link.uuid(), link.platform());
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error removing link for Discord ID {}", discordId, e);
@@ -465,6 +789,162 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Marks every link of a Discord user as having left the Discord server.
+     *
+     * @return The number of links newly marked; 0 if the user has no links or was already marked
+     */
+    public int markLeftGuild(String discordId, Instant leftAt) {
+        String sql = "UPDATE linked_accounts SET left_guild_at = ? WHERE discord_id = ? AND left_guild_at IS NULL";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(leftAt));
+            ps.setString(2, discordId);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error marking Discord ID {} as left", discordId, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Marks every link of many Discord users as having left the Discord server, in one statement.
+     *
+     * @return The number of links newly marked
+     */
+    public int markLeftGuild(Collection<String> discordIds, Instant leftAt) {
+        if (discordIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(",", Collections.nCopies(discordIds.size(), "?"));
+        String sql = "UPDATE linked_accounts SET left_guild_at = ? WHERE discord_id IN (" + placeholders + ") AND left_guild_at IS NULL";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(leftAt));
+            int index = 2;
+            for (String discordId : discordIds) {
+                ps.setString(index++, discordId);
+            }
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error marking {} Discord IDs as left", discordIds.size(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Removes the links of many departed Discord users in one DELETE. Like
+     * {@link #removeLinkByDiscordId}, links of users with any moderation history are kept.
+     *
+     * @return The links that were removed
+     */
+    public List<LinkInfo> removeLinksByDiscordIds(Collection<String> discordIds) {
+        if (discordIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(discordIds.size(), "?"));
+        String condition = "la.discord_id IN (" + placeholders + ")"
+                + " AND NOT EXISTS (SELECT 1 FROM moderation_actions ma WHERE ma.discord_id = la.discord_id)";
+        String select = "SELECT la.uuid, la.discord_id, la.username, la.platform FROM linked_accounts la WHERE " + condition + " FOR UPDATE";
+        String delete = "DELETE la FROM linked_accounts la WHERE " + condition;
+
+        List<LinkInfo> removed = new ArrayList<>();
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(select)) {
+                    int index = 1;
+                    for (String discordId : discordIds) {
+                        ps.setString(index++, discordId);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            removed.add(new LinkInfo(
+                                    UUID.fromString(rs.getString("uuid")),
+                                    rs.getString("discord_id"),
+                                    rs.getString("username"),
+                                    GamePlatform.valueOf(rs.getString("platform"))
+                            ));
+                        }
+                    }
+                }
+                try (PreparedStatement ps = c.prepareStatement(delete)) {
+                    int index = 1;
+                    for (String discordId : discordIds) {
+                        ps.setString(index++, discordId);
+                    }
+                    ps.executeUpdate();
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error removing links of {} departed Discord IDs", discordIds.size(), e);
+            return List.of();
+        }
+
+        for (LinkInfo link : removed) {
+            usernameIndex.remove(link.uuid(), link.platform());
+        }
+        return removed;
+    }
+
+    /**
+     * Clears the left mark on a Discord user's links after they rejoin the server.
+     *
+     * @return true if any link was marked
+     */
+    public boolean clearLeftGuild(String discordId) {
+        String sql = "UPDATE linked_accounts SET left_guild_at = NULL WHERE discord_id = ? AND left_guild_at IS NOT NULL";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, discordId);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.error("Error clearing left mark for Discord ID {}", discordId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a Discord user's links are marked as having left the server.
+     */
+    public boolean hasLeftGuild(String discordId) {
+        String sql = "SELECT 1 FROM linked_accounts WHERE discord_id = ? AND left_guild_at IS NOT NULL LIMIT 1";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, discordId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            logger.error("Error checking left mark for Discord ID {}", discordId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the Discord IDs whose links are marked as having left the server.
+     */
+    public List<String> getLeftGuildDiscordIds() {
+        String sql = "SELECT DISTINCT discord_id FROM linked_accounts WHERE left_guild_at IS NOT NULL";
+        List<String> ids = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getString("discord_id"));
+            }
+        } catch (SQLException e) {
+            logger.error("Error loading Discord IDs marked as left", e);
+        }
+        return ids;
+    }
+
     /**
      * Gets the Discord ID for a linked UUID on a specific platform.
      * Returns null if the UUID is not linked on that platform.
@@ -555,6 +1035,19 @@ public class DatabaseManager {
         return getRawQuarantine(discordId).filter(QuarantineInfo::isActive);
     }
 
+    /**
+     * Gets an active quarantine record for a Discord ID, throwing if the query fails.
+     * Used at login, where a failed read must fall back to the cached state rather than
+     * being mistaken for no quarantine.
+     *
+     * @param discordId The Discord ID to check
+     * @return QuarantineInfo if quarantined and active, empty otherwise
+     * @throws SQLException If the quarantine could not be read
+     */
+    public Optional<QuarantineInfo> findActiveQuarantine(String discordId) throws SQLException {
+        return readQuarantine(discordId).filter(QuarantineInfo::isActive);
+    }
+
     /**
      * Gets the quarantine record for a Discord ID regardless of expiry status.
      * Used by cleanup routines that need to find and remove expired quarantines.
@@ -563,6 +1056,15 @@ public class DatabaseManager {
      * @return QuarantineInfo if any quarantine row exists, empty otherwise
      */
     public Optional<QuarantineInfo> getRawQuarantine(String discordId) {
+        try {
+            return readQuarantine(discordId);
+        } catch (SQLException e) {
+            logger.error("Error getting quarantine for Discord ID {}", discordId, e);
+            return Optional.empty();
+        }
+    }
+
+    private Optional<QuarantineInfo> readQuarantine(String discordId) throws SQLException {
         String sql = "SELECT discord_id, reason, expires_at, created_at, created_by FROM quarantines WHERE discord_id = ?";
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
@@ -583,17 +1085,14 @@ public class DatabaseManager {
                     rs.getString("created_by")
                 ));
             }
-        } catch (SQLException e) {
-            logger.error("Error getting quarantine for Discord ID {}", discordId, e);
-            return Optional.empty();
         }
     }
 
     /**
      * Gets all active quarantine records.
-     * Used for administrative purposes.
+     * Used to seed the quarantine fallback used at login when the database is unavailable.
      *
-     * @return List of active quarantine records
+     * @return List of active quarantine records, or null if the query failed
      */
     public List<QuarantineInfo> getAllActiveQuarantines() {
         String sql = "SELECT discord_id, reason, expires_at, created_at, created_by FROM quarantines";
@@ -622,37 +1121,115 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             logger.error("Error getting all active quarantines", e);
+            return null;
         }
 
         return quarantines;
     }
 
     /**
-     * Gets all expired quarantines.
+     * Gets the Discord IDs of all active quarantines.
+     * Used to reconcile the Discord quarantine role against the database.
      *
-     * @return List of expired quarantines
+     * @return The Discord IDs, or null if the query failed, so a failed read is never
+     *         mistaken for nobody being quarantined
      */
-    public List<QuarantineInfo> getExpiredQuarantines() {
-        String sql = """
-            SELECT discord_id, reason, expires_at, created_at, created_by
-            FROM quarantines
-            WHERE expires_at IS NOT NULL AND expires_at <= ?
-            """;
-
-        List<QuarantineInfo> expired = new ArrayList<>();
-
+    public List<String> getActiveQuarantineIds() {
+        String sql = "SELECT discord_id FROM quarantines WHERE expires_at IS NULL OR expires_at > ?";
+        List<String> ids = new ArrayList<>();
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setTimestamp(1, Timestamp.from(Instant.now()));
-
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    expired.add(new QuarantineInfo(
-                        rs.getString("discord_id"),
-                        rs.getString("reason"),
-                        rs.getTimestamp("expires_at").toInstant(),
-                        rs.getTimestamp("created_at").toInstant(),
-                        rs.getString("created_by")
+                    ids.add(rs.getString("discord_id"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting active quarantine IDs", e);
+            return null;
+        }
+        return ids;
+    }
+
+    /**
+     * Gets every linked account on a platform whose Discord ID has an active quarantine.
+     * Used to build the in-memory pre-login deny index.
+     *
+     * @param platform The platform whose links should be returned
+     * @return List of linked accounts paired with their active quarantine
+     */
+    public List<QuarantinedLink> getActiveQuarantinedLinks(GamePlatform platform) {
+        String sql = """
+            SELECT la.uuid, la.discord_id, la.username, la.platform,
+                   q.reason, q.expires_at, q.created_at, q.created_by
+            FROM quarantines q
+            JOIN linked_accounts la ON la.discord_id = q.discord_id
+            WHERE la.platform = ? AND (q.expires_at IS NULL OR q.expires_at > ?)
+            """;
+
+        List<QuarantinedLink> links = new ArrayList<>();
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, platform.name());
+            ps.setTimestamp(2, Timestamp.from(Instant.now()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp expiresAtTs = rs.getTimestamp("expires_at");
+                    Instant expiresAt = expiresAtTs != null ? expiresAtTs.toInstant() : null;
+
+                    links.add(new QuarantinedLink(
+                        new LinkInfo(
+                            UUID.fromString(rs.getString("uuid")),
+                            rs.getString("discord_id"),
+                            rs.getString("username"),
+                            GamePlatform.valueOf(rs.getString("platform"))
+                        ),
+                        new QuarantineInfo(
+                            rs.getString("discord_id"),
+                            rs.getString("reason"),
+                            expiresAt,
+                            rs.getTimestamp("created_at").toInstant(),
+                            rs.getString("created_by")
+                        )
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting quarantined links for {}", platform, e);
+        }
+
+        return links;
+    }
+
+    /**
+     * Gets all expired quarantines.
+     *
+     * @return List of expired quarantines
+     */
+    public List<QuarantineInfo> getExpiredQuarantines() {
+        String sql = """
+            SELECT discord_id, reason, expires_at, created_at, created_by
+            FROM quarantines
+            WHERE expires_at IS NOT NULL AND expires_at <= ?
+            """;
+
+        List<QuarantineInfo> expired = new ArrayList<>();
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(Instant.now()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    expired.add(new QuarantineInfo(
+                        rs.getString("discord_id"),
+                        rs.getString("reason"),
+                        rs.getTimestamp("expires_at").toInstant(),
+                        rs.getTimestamp("created_at").toInstant(),
+                        rs.getString("created_by")
                     ));
                 }
             }
@@ -680,6 +1257,143 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Adds or updates an IP ban.
+     *
+     * @param cidr Canonical CIDR string of the banned range
+     * @param reason The reason for the ban
+     * @param expiresAt When the ban expires (null for permanent)
+     * @param createdBy Discord ID of who created the ban
+     * @return true if successful
+     */
+    public boolean addIpBan(String cidr, String reason, Instant expiresAt, String createdBy) {
+        String sql = """
+            INSERT INTO ip_bans (cidr, reason, expires_at, created_at, created_by)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+              reason = VALUES(reason),
+              expires_at = VALUES(expires_at),
+              created_at = VALUES(created_at),
+              created_by = VALUES(created_by)
+            """;
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, cidr);
+            ps.setString(2, reason);
+            if (expiresAt != null) {
+                ps.setTimestamp(3, Timestamp.from(expiresAt));
+            } else {
+                ps.setNull(3, Types.TIMESTAMP);
+            }
+            ps.setTimestamp(4, Timestamp.from(Instant.now()));
+            ps.setString(5, createdBy);
+
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.error("Error adding IP ban for {}", cidr, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes an IP ban, reading the row it deletes in the same transaction.
+     *
+     * @param cidr Canonical CIDR string of the banned range
+     * @return The removed ban, or empty if the range was not banned
+     * @throws SQLException If the delete failed, so it is not mistaken for a range that was not banned
+     */
+    public Optional<IpBanInfo> removeIpBan(String cidr) throws SQLException {
+        String selectSql = "SELECT cidr, reason, expires_at, created_at, created_by FROM ip_bans WHERE cidr = ? FOR UPDATE";
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                IpBanInfo ban = null;
+                try (PreparedStatement ps = c.prepareStatement(selectSql)) {
+                    ps.setString(1, cidr);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            Timestamp expiresAtTs = rs.getTimestamp("expires_at");
+                            ban = new IpBanInfo(
+                                rs.getString("cidr"),
+                                rs.getString("reason"),
+                                expiresAtTs != null ? expiresAtTs.toInstant() : null,
+                                rs.getTimestamp("created_at").toInstant(),
+                                rs.getString("created_by")
+                            );
+                        }
+                    }
+                }
+                if (ban != null) {
+                    try (PreparedStatement ps = c.prepareStatement("DELETE FROM ip_bans WHERE cidr = ?")) {
+                        ps.setString(1, cidr);
+                        ps.executeUpdate();
+                    }
+                }
+                c.commit();
+                return Optional.ofNullable(ban);
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Gets all IP bans that have not expired.
+     *
+     * @return List of active IP bans, or null if the lookup failed
+     */
+    public List<IpBanInfo> getActiveIpBans() {
+        String sql = """
+            SELECT cidr, reason, expires_at, created_at, created_by
+            FROM ip_bans
+            WHERE expires_at IS NULL OR expires_at > ?
+            """;
+        List<IpBanInfo> bans = new ArrayList<>();
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(Instant.now()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp expiresAtTs = rs.getTimestamp("expires_at");
+                    bans.add(new IpBanInfo(
+                        rs.getString("cidr"),
+                        rs.getString("reason"),
+                        expiresAtTs != null ? expiresAtTs.toInstant() : null,
+                        rs.getTimestamp("created_at").toInstant(),
+                        rs.getString("created_by")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting active IP bans", e);
+            return null;
+        }
+
+        return bans;
+    }
+
+    /**
+     * Removes expired IP ban records from the database.
+     */
+    public void cleanupExpiredIpBans() {
+        String sql = "DELETE FROM ip_bans WHERE expires_at IS NOT NULL AND expires_at <= ?";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(Instant.now()));
+            int deleted = ps.executeUpdate();
+            if (deleted > 0) {
+                logger.debug("Cleaned up {} expired IP ban records", deleted);
+            }
+        } catch (SQLException e) {
+            logger.error("Error cleaning up expired IP bans", e);
+        }
+    }
+
     /**
      * Adds or updates a ToS attestation.
      *
@@ -899,126 +1613,773 @@ public class DatabaseManager {
         return ips;
     }
 
-    public void close() {
-        dataSource.close();
-    }
-
     /**
-     * Adds a moderation action to the database.
+     * Reads a value from the sentinel_state key/value table.
      *
-     * @param discordId The Discord ID of the user being moderated
-     * @param minecraftUuid The Minecraft UUID if linked (nullable)
-     * @param actionType The type of action (WARN or BAN)
-     * @param reason The reason for the action
-     * @param issuedBy The Discord ID of the staff member
-     * @return The ID of the inserted record, or -1 if failed
+     * @param key The state key
+     * @return The stored value, or empty if unset or on error
      */
-    public long addModerationAction(String discordId, String minecraftUuid, String actionType, String reason, String issuedBy) {
-        return addModerationAction(discordId, minecraftUuid, actionType, reason, issuedBy, null);
+    public Optional<String> getState(String key) {
+        String sql = "SELECT state_value FROM sentinel_state WHERE state_key = ?";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(rs.getString("state_value"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading state {}", key, e);
+        }
+        return Optional.empty();
     }
 
     /**
-     * Adds a moderation action to the database with optional duration.
+     * Writes a value to the sentinel_state key/value table.
      *
-     * @param discordId The Discord ID of the user being moderated
-     * @param minecraftUuid The Minecraft UUID if linked (nullable)
-     * @param actionType The type of action (WARN, BAN, or UNBAN)
-     * @param reason The reason for the action
-     * @param issuedBy The Discord ID of the staff member
-     * @param duration The duration of the action (for bans, e.g. "30m", "2h", "Permanent") (nullable)
-     * @return The ID of the inserted record, or -1 if failed
+     * @param key The state key
+     * @param value The value to store
+     * @return true if successful
      */
-    public long addModerationAction(String discordId, String minecraftUuid, String actionType, String reason, String issuedBy, String duration) {
+    public boolean setState(String key, String value) {
         String sql = """
-            INSERT INTO moderation_actions (discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
+            INSERT INTO sentinel_state (state_key, state_value)
+            VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE state_value = VALUES(state_value)
             """;
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.error("Error writing state {}", key, e);
+            return false;
+        }
+    }
 
+    /**
+     * Removes a key from the sentinel_state table.
+     */
+    public void clearState(String key) {
+        String sql = "DELETE FROM sentinel_state WHERE state_key = ?";
         try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, discordId);
-            if (minecraftUuid != null) {
-                ps.setString(2, minecraftUuid);
-            } else {
-                ps.setNull(2, Types.VARCHAR);
-            }
-            ps.setString(3, actionType);
-            ps.setString(4, reason);
-            ps.setString(5, issuedBy);
-            ps.setTimestamp(6, Timestamp.from(Instant.now()));
-            if (duration != null) {
-                ps.setString(7, duration);
-            } else {
-                ps.setNull(7, Types.VARCHAR);
-            }
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, key);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error clearing state {}", key, e);
+        }
+    }
 
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected > 0) {
-                try (ResultSet rs = ps.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        return rs.getLong(1);
-                    }
+    /**
+     * Stores an audit embed until it has been delivered.
+     *
+     * @param channel The audit channel key
+     * @param embedJson The serialized embed
+     * @return The outbox entry ID, or -1 if failed
+     */
+    public long addAuditOutboxEntry(String channel, String embedJson) {
+        String sql = "INSERT INTO audit_outbox (channel, embed_json) VALUES (?, ?)";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, channel);
+            ps.setString(2, embedJson);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error adding moderation action for Discord ID {}", discordId, e);
+            logger.error("Error storing audit outbox entry for channel {}", channel, e);
         }
         return -1;
     }
 
     /**
-     * Gets moderation history for a user.
-     *
-     * @param discordId The Discord ID to look up
-     * @return List of moderation actions
+     * Writes the audit outbox entry of newly inserted moderation actions on the given connection,
+     * so it commits or rolls back with them. An embed that cannot be rendered is logged and
+     * skipped rather than failing the action.
      */
-    public List<ModerationAction> getModerationHistory(String discordId) {
-        String sql = """
-            SELECT id, discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration
-            FROM moderation_actions
-            WHERE discord_id = ?
-            ORDER BY issued_at DESC
-            """;
+    private void insertAuditOutboxEntry(Connection c, ActionOutbox outbox, List<Long> actionIds) throws SQLException {
+        if (outbox.auditChannel() == null || actionIds.isEmpty()) {
+            return;
+        }
 
-        List<ModerationAction> actions = new ArrayList<>();
+        String embedJson;
+        try {
+            embedJson = outbox.auditEmbed().apply(actionIds);
+        } catch (RuntimeException e) {
+            logger.error("Could not render the audit embed for moderation action #{}", actionIds.get(0), e);
+            return;
+        }
+
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO audit_outbox (channel, embed_json) VALUES (?, ?)")) {
+            ps.setString(1, outbox.auditChannel());
+            ps.setString(2, embedJson);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Gets the oldest undelivered audit embeds for a channel.
+     *
+     * @param channel The audit channel key
+     * @param limit Maximum number of entries to return
+     * @return Entries in the order they were stored
+     */
+    public List<AuditOutboxEntry> getAuditOutbox(String channel, int limit) {
+        String sql = "SELECT id, embed_json FROM audit_outbox WHERE channel = ? ORDER BY id LIMIT ?";
+        List<AuditOutboxEntry> entries = new ArrayList<>();
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, discordId);
-
+            ps.setString(1, channel);
+            ps.setInt(2, limit);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    actions.add(new ModerationAction(
-                        rs.getLong("id"),
-                        rs.getString("discord_id"),
-                        rs.getString("minecraft_uuid"),
-                        rs.getString("action_type"),
-                        rs.getString("reason"),
-                        rs.getString("issued_by"),
-                        rs.getTimestamp("issued_at").toInstant(),
-                        rs.getString("duration")
-                    ));
+                    entries.add(new AuditOutboxEntry(rs.getLong("id"), rs.getString("embed_json")));
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error getting moderation history for Discord ID {}", discordId, e);
+            logger.error("Error reading audit outbox for channel {}", channel, e);
         }
-
-        return actions;
+        return entries;
     }
 
     /**
-     * Gets recent moderation actions (for audit purposes).
-     *
-     * @param limit Maximum number of records to return
-     * @return List of recent moderation actions
+     * Removes delivered audit embeds from the outbox.
      */
-    public List<ModerationAction> getRecentModerationActions(int limit) {
-        String sql = """
-            SELECT id, discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration
-            FROM moderation_actions
-            ORDER BY issued_at DESC
-            LIMIT ?
-            """;
+    public void removeAuditOutboxEntries(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String sql = "DELETE FROM audit_outbox WHERE id IN (" + placeholders + ")";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int index = 1;
+            for (long id : ids) {
+                ps.setLong(index++, id);
+            }
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error removing {} delivered audit outbox entries", ids.size(), e);
+        }
+    }
+
+    public void close() {
+        dataSource.close();
+    }
+
+    /**
+     * Adds a moderation action to the database.
+     *
+     * @param discordId The Discord ID of the user being moderated
+     * @param actionType The type of action (WARN or BAN)
+     * @param reason The reason for the action
+     * @param issuedBy The Discord ID of the staff member
+     * @return The ID of the inserted record, or -1 if failed
+     */
+    public long addModerationAction(String discordId, String actionType, String reason, String issuedBy) {
+        return addModerationAction(discordId, actionType, reason, issuedBy, null, ActionOutbox.NONE);
+    }
+
+    /**
+     * Adds a moderation action to the database with optional duration.
+     * The user's linked Minecraft UUID, if any, is filled in by the same statement.
+     *
+     * @param discordId The Discord ID of the user being moderated
+     * @param actionType The type of action (WARN, BAN, or UNBAN)
+     * @param reason The reason for the action
+     * @param issuedBy The Discord ID of the staff member
+     * @param duration The duration of the action (for bans, e.g. "30m", "2h", "Permanent") (nullable)
+     * @return The ID of the inserted record, or -1 if failed
+     */
+    public long addModerationAction(String discordId, String actionType, String reason, String issuedBy, String duration) {
+        return addModerationAction(discordId, actionType, reason, issuedBy, duration, ActionOutbox.NONE);
+    }
+
+    /**
+     * Adds a moderation action to the database together with its audit outbox entry and
+     * initial DM status, in one transaction.
+     *
+     * @param duration The duration of the action (nullable)
+     * @param outbox The side effects to store with the action
+     * @return The ID of the inserted record, or -1 if failed
+     */
+    public long addModerationAction(String discordId, String actionType, String reason, String issuedBy, String duration,
+                                    ActionOutbox outbox) {
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                long actionId = insertModerationAction(c, discordId, actionType, reason, issuedBy, duration, outbox);
+                if (actionId <= 0) {
+                    c.rollback();
+                    return -1;
+                }
+                c.commit();
+                return actionId;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error adding moderation action for Discord ID {}", discordId, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Records a ban and, if {@code quarantine} is set, the quarantine that enforces it, in one
+     * transaction, so neither is ever written without the other.
+     *
+     * @param discordId The Discord ID of the user being banned
+     * @param reason The reason for the ban
+     * @param issuedBy The Discord ID of the staff member
+     * @param duration The display duration of the ban (nullable)
+     * @param quarantine Whether to write the quarantine as well
+     * @param expiresAt When the quarantine expires, or null for permanent
+     * @param outbox The audit entry to store with the ban
+     * @return The ID of the inserted action, or -1 if nothing was written
+     */
+    public long addBan(String discordId, String reason, String issuedBy, String duration, boolean quarantine, Instant expiresAt,
+                       ActionOutbox outbox) {
+        String quarantineSql = """
+            INSERT INTO quarantines (discord_id, reason, expires_at, created_at, created_by)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+              reason = VALUES(reason),
+              expires_at = VALUES(expires_at),
+              created_at = VALUES(created_at),
+              created_by = VALUES(created_by)
+            """;
+
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                long actionId = insertModerationAction(c, discordId, "BAN", reason, issuedBy, duration, outbox);
+                if (actionId <= 0) {
+                    c.rollback();
+                    return -1;
+                }
+                if (quarantine) {
+                    try (PreparedStatement ps = c.prepareStatement(quarantineSql)) {
+                        ps.setString(1, discordId);
+                        ps.setString(2, reason);
+                        if (expiresAt != null) {
+                            ps.setTimestamp(3, Timestamp.from(expiresAt));
+                        } else {
+                            ps.setNull(3, Types.TIMESTAMP);
+                        }
+                        ps.setTimestamp(4, Timestamp.from(Instant.now()));
+                        ps.setString(5, issuedBy);
+                        ps.executeUpdate();
+                    }
+                }
+                c.commit();
+                return actionId;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error recording ban for Discord ID {}", discordId, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Removes a user's quarantine and records the unban in one transaction.
+     *
+     * @param discordId The Discord ID of the user being unbanned
+     * @param reason The reason for the unban
+     * @param issuedBy The Discord ID of the staff member
+     * @param outbox The audit entry to store with the unban
+     * @return The ID of the inserted action, or -1 if there was no quarantine to remove or nothing was written
+     */
+    public long addUnban(String discordId, String reason, String issuedBy, ActionOutbox outbox) {
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement("DELETE FROM quarantines WHERE discord_id = ?")) {
+                    ps.setString(1, discordId);
+                    if (ps.executeUpdate() == 0) {
+                        c.rollback();
+                        return -1; // Already unbanned, or it expired and was cleaned up
+                    }
+                }
+                long actionId = insertModerationAction(c, discordId, "UNBAN", reason, issuedBy, null, outbox);
+                if (actionId <= 0) {
+                    c.rollback();
+                    return -1;
+                }
+                c.commit();
+                return actionId;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error recording unban for Discord ID {}", discordId, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Inserts one moderation action on the given connection and counts it in
+     * moderation_counters and moderation_daily_stats. The user's linked Minecraft UUID, if any, is filled in by the
+     * same statement, and the action's audit outbox entry is written after it. Callers run this inside a transaction.
+     *
+     * @return The ID of the inserted record, or -1 if no row was inserted
+     */
+    private long insertModerationAction(Connection c, String discordId, String actionType, String reason,
+                                        String issuedBy, String duration, ActionOutbox outbox) throws SQLException {
+        // At most one Minecraft link per Discord ID (uq_discord_platform)
+        String sql = """
+            INSERT INTO moderation_actions (discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration, dm_status)
+            SELECT ?, (SELECT uuid FROM linked_accounts WHERE discord_id = ? AND platform = ?), ?, ?, ?, ?, ?, ?
+            """;
+        Instant now = Instant.now();
+
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, discordId);
+            ps.setString(2, discordId);
+            ps.setString(3, GamePlatform.MINECRAFT.name());
+            ps.setString(4, actionType);
+            ps.setString(5, reason);
+            ps.setString(6, issuedBy);
+            ps.setTimestamp(7, Timestamp.from(now));
+            if (duration != null) {
+                ps.setString(8, duration);
+            } else {
+                ps.setNull(8, Types.VARCHAR);
+            }
+            if (outbox.dmStatus() != null) {
+                ps.setString(9, outbox.dmStatus());
+            } else {
+                ps.setNull(9, Types.VARCHAR);
+            }
+
+            if (ps.executeUpdate() > 0) {
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        long actionId = rs.getLong(1);
+                        try (PreparedStatement counter = c.prepareStatement(INCREMENT_COUNTER_SQL)) {
+                            counter.setString(1, discordId);
+                            counter.setString(2, actionType);
+                            counter.setObject(3, LocalDate.ofInstant(now, ZoneOffset.UTC));
+                            counter.executeUpdate();
+                        }
+                        try (PreparedStatement stats = c.prepareStatement(INCREMENT_DAILY_STATS_SQL)) {
+                            stats.setString(1, issuedBy);
+                            stats.setString(2, actionType);
+                            stats.setObject(3, LocalDate.ofInstant(now, ZoneOffset.UTC));
+                            stats.setInt(4, 1);
+                            stats.executeUpdate();
+                        }
+                        insertAuditOutboxEntry(c, outbox, List.of(actionId));
+                        return actionId;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up the linked accounts and, optionally, the active quarantines of many Discord IDs
+     * at once, with one IN query per table.
+     *
+     * @param discordIds The Discord IDs to look up
+     * @param includeQuarantines Whether to look up active quarantines as well
+     * @return Links and active quarantines keyed by Discord ID, where IDs without any are
+     *         absent, or null if the lookup failed
+     */
+    public BulkTargets getBulkTargets(Collection<String> discordIds, boolean includeQuarantines) {
+        Map<String, List<LinkInfo>> links = new HashMap<>();
+        Map<String, QuarantineInfo> quarantines = new HashMap<>();
+        if (discordIds.isEmpty()) {
+            return new BulkTargets(links, quarantines);
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(discordIds.size(), "?"));
+        String linkSql = "SELECT uuid, discord_id, username, platform FROM linked_accounts WHERE discord_id IN (" + placeholders + ")";
+        String quarantineSql = """
+            SELECT discord_id, reason, expires_at, created_at, created_by
+            FROM quarantines
+            WHERE discord_id IN (%s) AND (expires_at IS NULL OR expires_at > ?)
+            """.formatted(placeholders);
+
+        try (Connection c = dataSource.getConnection()) {
+            try (PreparedStatement ps = c.prepareStatement(linkSql)) {
+                int index = 1;
+                for (String discordId : discordIds) {
+                    ps.setString(index++, discordId);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        LinkInfo link = new LinkInfo(
+                                UUID.fromString(rs.getString("uuid")),
+                                rs.getString("discord_id"),
+                                rs.getString("username"),
+                                GamePlatform.valueOf(rs.getString("platform"))
+                        );
+                        links.computeIfAbsent(link.discordId(), k -> new ArrayList<>()).add(link);
+                    }
+                }
+            }
+
+            if (includeQuarantines) {
+                try (PreparedStatement ps = c.prepareStatement(quarantineSql)) {
+                    int index = 1;
+                    for (String discordId : discordIds) {
+                        ps.setString(index++, discordId);
+                    }
+                    ps.setTimestamp(index, Timestamp.from(Instant.now()));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Timestamp expiresAtTs = rs.getTimestamp("expires_at");
+                            quarantines.put(rs.getString("discord_id"), new QuarantineInfo(
+                                rs.getString("discord_id"),
+                                rs.getString("reason"),
+                                expiresAtTs != null ? expiresAtTs.toInstant() : null,
+                                rs.getTimestamp("created_at").toInstant(),
+                                rs.getString("created_by")
+                            ));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error looking up {} bulk moderation targets", discordIds.size(), e);
+            return null;
+        }
+        return new BulkTargets(links, quarantines);
+    }
+
+    /**
+     * Records the same moderation action against many users in one transaction, using JDBC
+     * batches, and counts them in moderation_counters and moderation_daily_stats. For bans, a quarantine is written for
+     * each user in the same transaction.
+     *
+     * @param targets The users, each with their linked Minecraft UUID if any
+     * @param actionType The type of action (WARN or BAN)
+     * @param reason The reason for the action
+     * @param issuedBy The Discord ID of the staff member
+     * @param duration The display duration for bans (nullable)
+     * @param quarantine Whether to write quarantines as well
+     * @param expiresAt When the quarantines expire, or null for permanent
+     * @param outbox The audit entry and DM status to store with the actions
+     * @return The IDs of the inserted actions in target order, or an empty list if nothing was written
+     */
+    public List<Long> addBulkModerationActions(List<BulkModerationTarget> targets, String actionType, String reason,
+                                               String issuedBy, String duration, boolean quarantine, Instant expiresAt,
+                                               ActionOutbox outbox) {
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+
+        String actionSql = """
+            INSERT INTO moderation_actions (discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration, dm_status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        String quarantineSql = """
+            INSERT INTO quarantines (discord_id, reason, expires_at, created_at, created_by)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+              reason = VALUES(reason),
+              expires_at = VALUES(expires_at),
+              created_at = VALUES(created_at),
+              created_by = VALUES(created_by)
+            """;
+
+        Timestamp now = Timestamp.from(Instant.now());
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                List<Long> actionIds = new ArrayList<>(targets.size());
+                try (PreparedStatement ps = c.prepareStatement(actionSql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (BulkModerationTarget target : targets) {
+                        ps.setString(1, target.discordId());
+                        if (target.minecraftUuid() != null) {
+                            ps.setString(2, target.minecraftUuid());
+                        } else {
+                            ps.setNull(2, Types.VARCHAR);
+                        }
+                        ps.setString(3, actionType);
+                        ps.setString(4, reason);
+                        ps.setString(5, issuedBy);
+                        ps.setTimestamp(6, now);
+                        if (duration != null) {
+                            ps.setString(7, duration);
+                        } else {
+                            ps.setNull(7, Types.VARCHAR);
+                        }
+                        if (outbox.dmStatus() != null) {
+                            ps.setString(8, outbox.dmStatus());
+                        } else {
+                            ps.setNull(8, Types.VARCHAR);
+                        }
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            actionIds.add(rs.getLong(1));
+                        }
+                    }
+                }
+
+                try (PreparedStatement ps = c.prepareStatement(INCREMENT_COUNTER_SQL)) {
+                    LocalDate day = LocalDate.ofInstant(now.toInstant(), ZoneOffset.UTC);
+                    for (BulkModerationTarget target : targets) {
+                        ps.setString(1, target.discordId());
+                        ps.setString(2, actionType);
+                        ps.setObject(3, day);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                try (PreparedStatement ps = c.prepareStatement(INCREMENT_DAILY_STATS_SQL)) {
+                    ps.setString(1, issuedBy);
+                    ps.setString(2, actionType);
+                    ps.setObject(3, LocalDate.ofInstant(now.toInstant(), ZoneOffset.UTC));
+                    ps.setInt(4, targets.size());
+                    ps.executeUpdate();
+                }
+
+                if (quarantine) {
+                    try (PreparedStatement ps = c.prepareStatement(quarantineSql)) {
+                        for (BulkModerationTarget target : targets) {
+                            ps.setString(1, target.discordId());
+                            ps.setString(2, reason);
+                            if (expiresAt != null) {
+                                ps.setTimestamp(3, Timestamp.from(expiresAt));
+                            } else {
+                                ps.setNull(3, Types.TIMESTAMP);
+                            }
+                            ps.setTimestamp(4, now);
+                            ps.setString(5, issuedBy);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                insertAuditOutboxEntry(c, outbox, actionIds);
+
+                c.commit();
+                return actionIds;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error recording {} bulk {} actions", targets.size(), actionType, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Gets how many actions of one type a user received on each UTC day since {@code since},
+     * from moderation_counters rather than the history itself.
+     *
+     * @param since The first day to include
+     * @return Counts keyed by day, where days without actions are absent, or null if the lookup failed
+     */
+    public Map<LocalDate, Integer> getModerationCounts(String discordId, String actionType, LocalDate since) {
+        String sql = """
+            SELECT day, count
+            FROM moderation_counters
+            WHERE discord_id = ? AND action_type = ? AND day >= ?
+            """;
+
+        Map<LocalDate, Integer> counts = new HashMap<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, discordId);
+            ps.setString(2, actionType);
+            ps.setObject(3, since);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getObject("day", LocalDate.class), rs.getInt("count"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading {} counts for Discord ID {}", actionType, discordId, e);
+            return null;
+        }
+        return counts;
+    }
+
+    /**
+     * Adds the next batch of the moderation history that predates moderation_daily_stats to it,
+     * and advances the backfill cursor in the same transaction, so each action is counted
+     * exactly once however often the backfill is interrupted.
+     *
+     * @param batchSize How many action IDs to cover
+     * @return How many action IDs were left before this batch, 0 if the backfill was already
+     *         done, or -1 if the batch failed
+     */
+    public long backfillDailyStats(int batchSize) {
+        Optional<String> cutoffState = getState(STATS_BACKFILL_CUTOFF_KEY);
+        if (cutoffState.isEmpty()) {
+            logger.error("No moderation stats backfill cutoff recorded, cannot backfill");
+            return -1;
+        }
+        long cutoff = Long.parseLong(cutoffState.get());
+        long cursor = getState(STATS_BACKFILL_CURSOR_KEY).map(Long::parseLong).orElse(0L);
+        if (cursor >= cutoff) {
+            return 0;
+        }
+        long through = Math.min(cutoff, cursor + batchSize);
+
+        String statsSql = """
+            INSERT INTO moderation_daily_stats (issued_by, action_type, day, count)
+            SELECT issued_by, action_type, DATE(issued_at), COUNT(*)
+            FROM moderation_actions
+            WHERE id > ? AND id <= ?
+            GROUP BY issued_by, action_type, DATE(issued_at)
+            ON DUPLICATE KEY UPDATE count = count + VALUES(count)
+            """;
+        String cursorSql = """
+            INSERT INTO sentinel_state (state_key, state_value)
+            VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE state_value = VALUES(state_value)
+            """;
+
+        try (Connection c = dataSource.getConnection();
+             Statement st = c.createStatement()) {
+            // Stats days are UTC; TIMESTAMP columns are read in the session time zone
+            st.execute("SET time_zone = '+00:00'");
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(statsSql)) {
+                    ps.setLong(1, cursor);
+                    ps.setLong(2, through);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = c.prepareStatement(cursorSql)) {
+                    ps.setString(1, STATS_BACKFILL_CURSOR_KEY);
+                    ps.setString(2, String.valueOf(through));
+                    ps.executeUpdate();
+                }
+                c.commit();
+                return cutoff - cursor;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+                st.execute("SET time_zone = DEFAULT");
+            }
+        } catch (SQLException e) {
+            logger.error("Error backfilling moderation stats after action #{}", cursor, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the per-day action counts of every staff member, or of one, since {@code since}.
+     * Reads only moderation_daily_stats, so the cost depends on the period, not the history.
+     *
+     * @param since The first day to include
+     * @param issuedBy The staff member's Discord ID, or null for everyone
+     * @return The counts, or null if the lookup failed
+     */
+    public List<DailyStat> getDailyStats(LocalDate since, String issuedBy) {
+        String sql = """
+            SELECT issued_by, action_type, day, count
+            FROM moderation_daily_stats
+            WHERE day >= ?
+            """ + (issuedBy != null ? " AND issued_by = ?" : "");
+
+        List<DailyStat> stats = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setObject(1, since);
+            if (issuedBy != null) {
+                ps.setString(2, issuedBy);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(new DailyStat(
+                            rs.getString("issued_by"),
+                            rs.getString("action_type"),
+                            rs.getObject("day", LocalDate.class),
+                            rs.getInt("count")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading moderation stats since {}", since, e);
+            return null;
+        }
+        return stats;
+    }
+
+    /**
+     * Gets moderation history for a user.
+     *
+     * @param discordId The Discord ID to look up
+     * @return List of moderation actions
+     */
+    public List<ModerationAction> getModerationHistory(String discordId) {
+        String sql = """
+            SELECT id, discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration
+            FROM moderation_actions
+            WHERE discord_id = ?
+            ORDER BY issued_at DESC
+            """;
+
+        List<ModerationAction> actions = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, discordId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    actions.add(new ModerationAction(
+                        rs.getLong("id"),
+                        rs.getString("discord_id"),
+                        rs.getString("minecraft_uuid"),
+                        rs.getString("action_type"),
+                        rs.getString("reason"),
+                        rs.getString("issued_by"),
+                        rs.getTimestamp("issued_at").toInstant(),
+                        rs.getString("duration")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting moderation history for Discord ID {}", discordId, e);
+        }
+
+        return actions;
+    }
+
+    /**
+     * Gets recent moderation actions (for audit purposes).
+     *
+     * @param limit Maximum number of records to return
+     * @return List of recent moderation actions
+     */
+    public List<ModerationAction> getRecentModerationActions(int limit) {
+        String sql = """
+            SELECT id, discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration
+            FROM moderation_actions
+            ORDER BY issued_at DESC
+            LIMIT ?
+            """;
 
         List<ModerationAction> actions = new ArrayList<>();
         try (Connection c = dataSource.getConnection();
@@ -1047,9 +2408,126 @@ public class DatabaseManager {
     }
 
     /**
-     * Record for a claimed pending link, including the platform it was created from.
+     * Moves a moderation action's DM delivery state from one status to another.
+     * Passing a null {@code from} matches actions with no DM status yet.
+     *
+     * @return true if the action was in the expected state and was updated
+     */
+    public boolean transitionDmStatus(long actionId, String from, String to) {
+        String sql = from == null
+            ? "UPDATE moderation_actions SET dm_status = ? WHERE id = ? AND dm_status IS NULL"
+            : "UPDATE moderation_actions SET dm_status = ? WHERE id = ? AND dm_status = ?";
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, to);
+            ps.setLong(2, actionId);
+            if (from != null) {
+                ps.setString(3, from);
+            }
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.error("Error updating DM status of moderation action #{} to {}", actionId, to, e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets moderation actions whose DM is in the given delivery state, oldest first.
+     *
+     * @param discordId Only actions against this Discord ID, or null for all
+     * @param dmStatus The delivery state to match
+     * @param limit Maximum number of records to return
+     */
+    public List<ModerationAction> getModerationActionsByDmStatus(String discordId, String dmStatus, int limit) {
+        String sql = discordId == null
+            ? """
+              SELECT id, discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration
+              FROM moderation_actions
+              WHERE dm_status = ?
+              ORDER BY id
+              LIMIT ?
+              """
+            : """
+              SELECT id, discord_id, minecraft_uuid, action_type, reason, issued_by, issued_at, duration
+              FROM moderation_actions
+              WHERE dm_status = ? AND discord_id = ?
+              ORDER BY id
+              LIMIT ?
+              """;
+
+        List<ModerationAction> actions = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int index = 1;
+            ps.setString(index++, dmStatus);
+            if (discordId != null) {
+                ps.setString(index++, discordId);
+            }
+            ps.setInt(index, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    actions.add(new ModerationAction(
+                        rs.getLong("id"),
+                        rs.getString("discord_id"),
+                        rs.getString("minecraft_uuid"),
+                        rs.getString("action_type"),
+                        rs.getString("reason"),
+                        rs.getString("issued_by"),
+                        rs.getTimestamp("issued_at").toInstant(),
+                        rs.getString("duration")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting moderation actions with DM status {}", dmStatus, e);
+        }
+
+        return actions;
+    }
+
+    /**
+     * Record for a claimed pending link, including the platform it was created from
+     * and the username seen when the code was issued (null if unknown).
+     */
+    public record PendingClaim(UUID uuid, GamePlatform platform, String username) {}
+
+    /**
+     * Record pairing a linked account with the active quarantine on its Discord ID.
+     */
+    public record QuarantinedLink(LinkInfo link, QuarantineInfo quarantine) {}
+
+    /**
+     * Links and active quarantines of the targets of a bulk moderation command, keyed by Discord ID.
+     */
+    public record BulkTargets(Map<String, List<LinkInfo>> links, Map<String, QuarantineInfo> activeQuarantines) {}
+
+    /**
+     * A user targeted by a bulk moderation action, with their linked Minecraft UUID if any.
+     */
+    public record BulkModerationTarget(String discordId, String minecraftUuid) {}
+
+    /**
+     * Record for an undelivered audit embed.
+     */
+    public record AuditOutboxEntry(long id, String embedJson) {}
+
+    /**
+     * Side effects stored in the same transaction as a moderation action, so they survive a
+     * crash or a full event queue after the commit.
+     *
+     * @param auditChannel The audit outbox channel key, or null for no audit entry
+     * @param auditEmbed Serializes the audit embed for the inserted action IDs, in insertion order
+     * @param dmStatus The initial dm_status of the inserted actions, or null for no DM
+     */
+    public record ActionOutbox(String auditChannel, Function<List<Long>, String> auditEmbed, String dmStatus) {
+        public static final ActionOutbox NONE = new ActionOutbox(null, null, null);
+    }
+
+    /**
+     * Number of actions of one type a staff member issued on one UTC day.
      */
-    public record PendingClaim(UUID uuid, GamePlatform platform) {}
+    public record DailyStat(String issuedBy, String actionType, LocalDate day, int count) {}
 
     /**
      * Record class for login IP information.
@@ -0,0 +1,41 @@
+package world.landfall.sentinel.db;
+
+import world.landfall.sentinel.util.DurationParser;
+
+import java.time.Instant;
+
+/**
+ * Record representing an IP or subnet ban.
+ */
+public record IpBanInfo(
+    String cidr,          // Canonical CIDR, e.g. "203.0.113.0/24"
+    String reason,
+    Instant expiresAt,    // null for permanent
+    Instant createdAt,
+    String createdBy      // Discord ID of staff who issued it
+) {
+    /**
+     * Returns true if this ban is still active (not expired).
+     */
+    public boolean isActive() {
+        return expiresAt == null || Instant.now().isBefore(expiresAt);
+    }
+
+    /**
+     * Returns true if this is a permanent ban.
+     */
+    public boolean isPermanent() {
+        return expiresAt == null;
+    }
+
+    /**
+     * Formats the remaining time in a human-readable format.
+     */
+    public String getFormattedTimeRemaining() {
+        if (isPermanent()) {
+            return "Permanent";
+        }
+        long seconds = expiresAt.getEpochSecond() - Instant.now().getEpochSecond();
+        return seconds > 0 ? DurationParser.formatDuration(seconds) : "Expired";
+    }
+}
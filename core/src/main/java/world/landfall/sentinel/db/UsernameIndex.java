@@ -0,0 +1,98 @@
+package world.landfall.sentinel.db;
+
+import world.landfall.sentinel.context.GamePlatform;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of linked usernames per platform, for slash command autocomplete.
+ *
+ * Names are case-folded and kept in a sorted map, so a prefix lookup is a range scan
+ * that returns in microseconds without touching MySQL on every keystroke. Keys carry the
+ * account UUID after the folded name, so two accounts with the same cached name are
+ * both kept. The index is loaded once by {@link DatabaseManager} and kept current as
+ * usernames are updated and links are added or removed.
+ */
+public class UsernameIndex {
+    // Separates the folded name from the UUID; sorts before any character allowed in a username
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final Map<GamePlatform, ConcurrentSkipListMap<String, String>> byPlatform = new EnumMap<>(GamePlatform.class);
+
+    // platform:uuid -> index key, so a renamed account's old entry can be dropped
+    private final Map<String, String> keysByAccount = new ConcurrentHashMap<>();
+
+    public UsernameIndex() {
+        for (GamePlatform platform : GamePlatform.values()) {
+            byPlatform.put(platform, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Records the current username of an account, replacing any previous one.
+     * A null or blank username removes the account from the index.
+     */
+    public void put(UUID uuid, GamePlatform platform, String username) {
+        if (username == null || username.isBlank()) {
+            remove(uuid, platform);
+            return;
+        }
+
+        String account = platform.name() + ":" + uuid;
+        String key = fold(username) + KEY_SEPARATOR + uuid;
+        String previous = keysByAccount.put(account, key);
+        ConcurrentSkipListMap<String, String> names = byPlatform.get(platform);
+        if (previous != null && !previous.equals(key)) {
+            names.remove(previous);
+        }
+        names.put(key, username);
+    }
+
+    public void remove(UUID uuid, GamePlatform platform) {
+        String previous = keysByAccount.remove(platform.name() + ":" + uuid);
+        if (previous != null) {
+            byPlatform.get(platform).remove(previous);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} usernames on the platform starting with the prefix,
+     * ignoring case, in alphabetical order.
+     */
+    public List<String> complete(GamePlatform platform, String prefix, int limit) {
+        String folded = fold(prefix == null ? "" : prefix.trim());
+        ConcurrentNavigableMap<String, String> range = folded.isEmpty()
+                ? byPlatform.get(platform)
+                : byPlatform.get(platform).subMap(folded, true, folded + Character.MAX_VALUE, false);
+
+        List<String> matches = new ArrayList<>(limit);
+        String last = null;
+        for (String username : range.values()) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            // Accounts sharing a cached name are adjacent; suggest the name once
+            if (!username.equalsIgnoreCase(last)) {
+                matches.add(username);
+                last = username;
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return keysByAccount.size();
+    }
+
+    private static String fold(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,48 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.moderation.ModerationEvent;
+import world.landfall.sentinel.moderation.ModerationManager;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.util.function.Consumer;
+
+/**
+ * Event bus subscriber that hands audit embeds to the {@link AuditPublisher}.
+ *
+ * Moderation actions already stored their embed in the audit outbox when they were recorded,
+ * so for those the publisher is only told to read it. IP bans and ToS acceptances are turned
+ * into embeds here, which the publisher stores in its outbox before sending.
+ */
+public class AuditEventSubscriber implements Consumer<ModerationEvent> {
+    private final ModerationManager moderationManager;
+    private final AuditPublisher auditPublisher;
+
+    public AuditEventSubscriber(ModerationManager moderationManager, AuditPublisher auditPublisher) {
+        this.moderationManager = moderationManager;
+        this.auditPublisher = auditPublisher;
+    }
+
+    @Override
+    public void accept(ModerationEvent event) {
+        if (event instanceof ModerationEvent.Noted
+                || event instanceof ModerationEvent.Warned
+                || event instanceof ModerationEvent.Banned
+                || event instanceof ModerationEvent.Unbanned
+                || event instanceof ModerationEvent.MassActioned) {
+            auditPublisher.outboxUpdated(AuditPublisher.AuditChannel.MODERATION);
+        } else if (event instanceof ModerationEvent.IpBanned ipBanned) {
+            moderation(moderationManager.createIpBanEmbed(ipBanned.ban(), ipBanned.duration()));
+        } else if (event instanceof ModerationEvent.IpUnbanned ipUnbanned) {
+            moderation(moderationManager.createIpUnbanEmbed(ipUnbanned.previousBan(), ipUnbanned.issuedBy()));
+        } else if (event instanceof ModerationEvent.TosAccepted accepted) {
+            // Does nothing if no ToS audit channel is configured
+            auditPublisher.publish(AuditPublisher.AuditChannel.TOS,
+                    TosCommandListener.createAuditEmbed(accepted.discordId(), accepted.username(), accepted.version()));
+        }
+    }
+
+    private void moderation(MessageEmbed embed) {
+        // Does nothing if no moderation audit channel is configured
+        auditPublisher.publish(AuditPublisher.AuditChannel.MODERATION, embed);
+    }
+}
@@ -0,0 +1,294 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.AuditOutboxEntry;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.exceptions.RateLimitedException;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Delivers audit embeds to the moderation and ToS audit channels.
+ *
+ * Embeds are written to the audit_outbox table before they are queued, and removed only
+ * once Discord has accepted them, so nothing is lost across restarts or outages. Every
+ * flush window the queued embeds are packed up to 10 per message (within Discord's total
+ * embed size limit), which keeps bursts such as a ToS version bump or a mass ban from
+ * spending one request of the channel's shared rate-limit bucket per action.
+ *
+ * Failed sends are retried with exponential backoff. Each channel has a bounded in-memory
+ * queue; once it fills, new entries stay in the outbox only and are read back in order
+ * when the queue drains. Delivery is at-least-once: an embed may repeat if its outbox row
+ * could not be removed after sending.
+ *
+ * Moderation actions write their outbox entry in the same transaction as the action, and
+ * {@link #outboxUpdated} only asks for the outbox to be read. The outbox is also read every
+ * minute, so an entry whose notice never arrived is still sent.
+ */
+public class AuditPublisher {
+
+    public enum AuditChannel { MODERATION, TOS }
+
+    private static final int MAX_EMBEDS_PER_MESSAGE = 10;
+    private static final long FLUSH_WINDOW_MILLIS = 2000;
+    private static final int QUEUE_CAPACITY = 500;
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Covers time queued behind interactive requests as well as the request itself
+    private static final long SEND_TIMEOUT_SECONDS = 120;
+    private static final long OUTBOX_SWEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final DatabaseManager db;
+    private final GuildContext guildContext;
+    private final DiscordRequestScheduler requestScheduler;
+    private final Logger logger;
+    private final Map<AuditChannel, Lane> lanes = new EnumMap<>(AuditChannel.class);
+    private final ScheduledExecutorService scheduler;
+    private long lastSweepAt = System.currentTimeMillis();
+
+    public AuditPublisher(DatabaseManager db, GuildContext guildContext, DiscordRequestScheduler requestScheduler, Logger logger) {
+        this.db = db;
+        this.guildContext = guildContext;
+        this.requestScheduler = requestScheduler;
+        this.logger = logger;
+        for (AuditChannel channel : AuditChannel.values()) {
+            lanes.put(channel, new Lane());
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-AuditPublisher");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, FLUSH_WINDOW_MILLIS, FLUSH_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Whether an audit channel is configured, and so whether its embeds are stored at all.
+     */
+    public boolean isEnabled(AuditChannel channel) {
+        String channelId = channelId(channel);
+        return channelId != null && !channelId.isBlank();
+    }
+
+    /**
+     * Notes that entries were written to a channel's outbox directly, so they are read back
+     * after anything already queued.
+     */
+    public void outboxUpdated(AuditChannel channel) {
+        Lane lane = lanes.get(channel);
+        synchronized (lane) {
+            lane.backlogInOutbox = true;
+        }
+    }
+
+    /**
+     * Queues an embed for the given audit channel. Does nothing if that channel is not configured.
+     */
+    public void publish(AuditChannel channel, MessageEmbed embed) {
+        String channelId = channelId(channel);
+        if (channelId == null || channelId.isBlank()) {
+            return;
+        }
+
+        Lane lane = lanes.get(channel);
+        synchronized (lane) {
+            long outboxId = db.addAuditOutboxEntry(channel.name(), embed.toData().toString());
+            if (outboxId > 0 && (lane.backlogInOutbox || lane.queue.size() >= QUEUE_CAPACITY)) {
+                // Read back from the outbox once the queue drains, keeping delivery in order
+                lane.backlogInOutbox = true;
+                return;
+            }
+            if (lane.queue.size() >= QUEUE_CAPACITY) {
+                logger.error("📣 Dropping {} audit embed: queue is full and it could not be stored", channel);
+                return;
+            }
+            if (outboxId <= 0) {
+                logger.warn("📣 {} audit embed could not be stored and will be lost if Sentinel stops before it is sent", channel);
+            }
+            lane.queue.add(new Pending(outboxId, embed));
+        }
+    }
+
+    private void flush() {
+        boolean sweep = System.currentTimeMillis() - lastSweepAt >= OUTBOX_SWEEP_MILLIS;
+        if (sweep) {
+            lastSweepAt = System.currentTimeMillis();
+        }
+        for (Map.Entry<AuditChannel, Lane> entry : lanes.entrySet()) {
+            if (sweep && isEnabled(entry.getKey())) {
+                outboxUpdated(entry.getKey());
+            }
+            try {
+                flush(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                logger.error("📣 Error flushing {} audit embeds", entry.getKey(), e);
+            }
+        }
+    }
+
+    private void flush(AuditChannel channel, Lane lane) throws InterruptedException {
+        if (System.currentTimeMillis() < lane.nextAttemptAt) {
+            return;
+        }
+
+        TextChannel target = channel == AuditChannel.MODERATION
+                ? guildContext.getModerationAuditChannel()
+                : guildContext.getTosAuditChannel();
+
+        while (true) {
+            List<Pending> batch = nextBatch(channel, lane);
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (target == null) {
+                // Not resolved yet, or deleted; entries wait in the outbox until it is back
+                return;
+            }
+
+            List<MessageEmbed> embeds = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                embeds.add(pending.embed());
+            }
+
+            try {
+                requestScheduler.submit(DiscordRequestScheduler.Priority.AUDIT,
+                        DiscordRequestScheduler.channelMessagesRoute(target.getId()),
+                        target.sendMessageEmbeds(embeds)
+                ).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                backOff(channel, lane, e instanceof ExecutionException ? e.getCause() : e);
+                return;
+            }
+
+            List<Long> delivered = new ArrayList<>(batch.size());
+            synchronized (lane) {
+                for (Pending pending : batch) {
+                    lane.queue.removeFirst();
+                    if (pending.outboxId() > 0) {
+                        delivered.add(pending.outboxId());
+                    }
+                }
+            }
+            db.removeAuditOutboxEntries(delivered);
+
+            if (lane.backoffMillis > 0) {
+                logger.info("📣 {} audit channel reachable again", channel);
+                lane.backoffMillis = 0;
+            }
+            logger.debug("📣 Sent {} {} audit embeds in one message", batch.size(), channel);
+        }
+    }
+
+    /**
+     * Takes the next message's worth of embeds from the head of the queue without removing them,
+     * refilling the queue from the outbox first if it is empty and entries are waiting there.
+     */
+    private List<Pending> nextBatch(AuditChannel channel, Lane lane) {
+        synchronized (lane) {
+            if (lane.queue.isEmpty() && lane.backlogInOutbox) {
+                reloadFromOutbox(channel, lane);
+            }
+
+            List<Pending> batch = new ArrayList<>(MAX_EMBEDS_PER_MESSAGE);
+            int length = 0;
+            Iterator<Pending> it = lane.queue.iterator();
+            while (it.hasNext() && batch.size() < MAX_EMBEDS_PER_MESSAGE) {
+                Pending pending = it.next();
+                int embedLength = pending.embed().getLength();
+                if (!batch.isEmpty() && length + embedLength > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+                    break;
+                }
+                batch.add(pending);
+                length += embedLength;
+            }
+            return batch;
+        }
+    }
+
+    private void reloadFromOutbox(AuditChannel channel, Lane lane) {
+        List<AuditOutboxEntry> entries = db.getAuditOutbox(channel.name(), QUEUE_CAPACITY);
+        List<Long> unreadable = new ArrayList<>();
+        for (AuditOutboxEntry entry : entries) {
+            try {
+                MessageEmbed embed = EmbedBuilder.fromData(DataObject.fromJson(entry.embedJson())).build();
+                lane.queue.add(new Pending(entry.id(), embed));
+            } catch (RuntimeException e) {
+                logger.error("📣 Discarding unreadable audit outbox entry {}", entry.id(), e);
+                unreadable.add(entry.id());
+            }
+        }
+        db.removeAuditOutboxEntries(unreadable);
+
+        lane.backlogInOutbox = entries.size() >= QUEUE_CAPACITY;
+        if (!entries.isEmpty()) {
+            logger.info("📣 Loaded {} undelivered {} audit embeds from the outbox", entries.size(), channel);
+        }
+    }
+
+    private void backOff(AuditChannel channel, Lane lane, Throwable cause) {
+        boolean transientFailure = cause instanceof TimeoutException
+                || cause instanceof RateLimitedException
+                || (cause instanceof ErrorResponseException e && e.isServerError());
+
+        // Errors such as missing permissions will not clear up by themselves soon
+        lane.backoffMillis = transientFailure
+                ? Math.min(MAX_BACKOFF_MILLIS, Math.max(MIN_BACKOFF_MILLIS, lane.backoffMillis * 2))
+                : MAX_BACKOFF_MILLIS;
+        lane.nextAttemptAt = System.currentTimeMillis() + lane.backoffMillis;
+
+        logger.warn("📣 Failed to send {} audit embeds, retrying in {}s: {}",
+                channel, lane.backoffMillis / 1000, cause.toString());
+    }
+
+    private String channelId(AuditChannel channel) {
+        return channel == AuditChannel.MODERATION
+                ? guildContext.getModerationAuditChannelId()
+                : guildContext.getTosAuditChannelId();
+    }
+
+    /**
+     * Per-channel queue and retry state. The queue is guarded by the lane's monitor;
+     * the backoff fields are only touched by the publisher thread.
+     */
+    private static final class Lane {
+        final Deque<Pending> queue = new ArrayDeque<>();
+        // Start by reading back anything left over from the previous run
+        boolean backlogInOutbox = true;
+        long backoffMillis;
+        long nextAttemptAt;
+    }
+
+    private record Pending(long outboxId, MessageEmbed embed) {}
+
+    /**
+     * Stops the publisher. Anything not yet sent stays in the outbox for the next start.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
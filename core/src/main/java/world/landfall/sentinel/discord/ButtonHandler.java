@@ -0,0 +1,13 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+
+/**
+ * Handles button clicks whose component ID starts with the prefix it was registered under
+ * in the {@link SlashCommandRouter}.
+ */
+@FunctionalInterface
+public interface ButtonHandler {
+
+    void handle(ButtonInteractionEvent event);
+}
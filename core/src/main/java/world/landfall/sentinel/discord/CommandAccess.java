@@ -0,0 +1,15 @@
+package world.landfall.sentinel.discord;
+
+/**
+ * Who may run a slash command.
+ */
+public enum CommandAccess {
+    /** Anyone who can see the command. */
+    EVERYONE,
+    /** Staff, or members with one of the note-only roles. */
+    NOTES,
+    /** Members with one of the configured staff roles. */
+    STAFF,
+    /** Staff, or members with Discord's Ban Members permission. */
+    STAFF_OR_BAN_MEMBERS
+}
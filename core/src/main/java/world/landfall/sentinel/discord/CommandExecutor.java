@@ -0,0 +1,200 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.callbacks.IMessageEditCallback;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs slash command and button bodies off the JDA event thread.
+ *
+ * Listeners validate options and permissions on the event thread, then hand the rest of
+ * the command here. The interaction is acknowledged with a deferred reply first, so the
+ * 3 second window is never spent waiting on the database, and the body runs on a bounded
+ * pool. The body returns the RestAction that delivers its response; the time from the
+ * acknowledgement to that response is recorded per command in {@link CommandMetrics}.
+ *
+ * When the runtime supports virtual threads (Java 21+) the pool's workers are virtual
+ * threads, otherwise platform daemon threads. Either way the pool size caps how many
+ * commands hit the database at once, and the bounded queue turns a backlog into an
+ * immediate "busy" reply rather than an interaction that silently times out.
+ */
+public class CommandExecutor {
+    private static final int METRICS_INTERVAL_MINUTES = 10;
+
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService metricsScheduler;
+    private final CommandMetrics metrics = new CommandMetrics();
+    private final DiscordRequestScheduler requestScheduler;
+    private final Logger logger;
+
+    /**
+     * @param threads Maximum number of command bodies running at once
+     * @param queueSize Commands allowed to wait for a free worker before new ones are turned away
+     * @param requestScheduler Sends each command's response ahead of audit and background requests
+     */
+    public CommandExecutor(int threads, int queueSize, DiscordRequestScheduler requestScheduler, Logger logger) {
+        this.requestScheduler = requestScheduler;
+        this.logger = logger;
+
+        int poolSize = Math.max(1, threads);
+        ThreadFactory threadFactory = virtualThreadFactory();
+        if (threadFactory == null) {
+            AtomicInteger counter = new AtomicInteger();
+            threadFactory = r -> {
+                Thread t = new Thread(r, "Sentinel-Command-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), threadFactory);
+        this.pool.allowCoreThreadTimeOut(true);
+
+        this.metricsScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-CommandMetrics");
+            t.setDaemon(true);
+            return t;
+        });
+        this.metricsScheduler.scheduleAtFixedRate(this::logMetrics,
+                METRICS_INTERVAL_MINUTES, METRICS_INTERVAL_MINUTES, TimeUnit.MINUTES);
+
+        logger.info("⚙️ Command executor started with {} {} workers", poolSize,
+                threadFactory instanceof VirtualThreadFactory ? "virtual" : "platform");
+    }
+
+    /**
+     * Defers the reply to an interaction and runs the command body on the pool.
+     *
+     * @param command Command name used for metrics and logs
+     * @param event The interaction to acknowledge
+     * @param ephemeral Whether the deferred reply (and so every follow-up) is ephemeral
+     * @param body Does the work and returns the RestAction that sends the response
+     */
+    public void deferAndRun(String command, IReplyCallback event, boolean ephemeral,
+                            Function<InteractionHook, RestAction<?>> body) {
+        run(command, event.deferReply(ephemeral), body);
+    }
+
+    /**
+     * Defers an edit of the message a component belongs to and runs the body on the pool.
+     * The body typically responds by editing the original message through the hook.
+     */
+    public void deferEditAndRun(String command, IMessageEditCallback event,
+                                Function<InteractionHook, RestAction<?>> body) {
+        run(command, event.deferEdit(), body);
+    }
+
+    private void run(String command, RestAction<InteractionHook> acknowledgement,
+                     Function<InteractionHook, RestAction<?>> body) {
+        acknowledgement.queue(hook -> {
+            long acknowledgedAt = System.nanoTime();
+            try {
+                pool.execute(() -> runBody(command, hook, acknowledgedAt, body));
+            } catch (RejectedExecutionException e) {
+                metrics.recordRejected(command);
+                logger.warn("⏳ Command executor saturated, rejected /{} ({} queued)", command, pool.getQueue().size());
+                hook.sendMessage("⏳ Sentinel is busy right now. Please try again in a moment.")
+                    .setEphemeral(true)
+                    .queue(null, error -> logger.debug("Could not send busy reply for /{}", command, error));
+            }
+        }, error -> {
+            metrics.recordError(command);
+            logger.error("❌ Failed to defer /{} interaction", command, error);
+        });
+    }
+
+    private void runBody(String command, InteractionHook hook, long acknowledgedAt,
+                         Function<InteractionHook, RestAction<?>> body) {
+        RestAction<?> response;
+        try {
+            response = body.apply(hook);
+        } catch (Exception e) {
+            metrics.recordError(command);
+            logger.error("❌ Error in /{} command", command, e);
+            hook.sendMessage("❌ An error occurred while processing the command.")
+                .setEphemeral(true)
+                .queue(null, error -> logger.debug("Could not send error reply for /{}", command, error));
+            return;
+        }
+
+        requestScheduler.submit(DiscordRequestScheduler.Priority.INTERACTIVE,
+                DiscordRequestScheduler.interactionRoute(hook), response)
+            .whenComplete((success, error) -> {
+                if (error == null) {
+                    metrics.recordSuccess(command, System.nanoTime() - acknowledgedAt);
+                } else {
+                    metrics.recordError(command);
+                    logger.error("❌ Failed to send /{} response", command, error);
+                }
+            });
+    }
+
+    private void logMetrics() {
+        String summary = metrics.drainSummary();
+        if (!summary.isEmpty()) {
+            logger.info("⚙️ Command latency (last {}m): {}", METRICS_INTERVAL_MINUTES, summary);
+        }
+    }
+
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns a factory for virtual threads if the runtime has them, or null.
+     * Looked up reflectively because core is compiled for Java 17.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Sentinel-Command-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return new VirtualThreadFactory(factory);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Marker wrapper so the startup log can tell which kind of worker is in use.
+     */
+    private record VirtualThreadFactory(ThreadFactory delegate) implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            return delegate.newThread(r);
+        }
+    }
+
+    /**
+     * Stops accepting commands and waits briefly for running ones to finish.
+     */
+    public void shutdown() {
+        metricsScheduler.shutdownNow();
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logMetrics();
+    }
+}
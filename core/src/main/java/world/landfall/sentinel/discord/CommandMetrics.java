@@ -0,0 +1,91 @@
+package world.landfall.sentinel.discord;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-command counters for Discord interactions: how many were dispatched, how many failed
+ * or were rejected, and how long each took from the deferred acknowledgement to the response.
+ *
+ * Counters accumulate between calls to {@link #drainSummary()}, which resets them.
+ */
+public class CommandMetrics {
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Records a command routed to its handler.
+     */
+    public void recordInvocation(String command) {
+        stats(command).invoked.increment();
+    }
+
+    /**
+     * Records a command whose response was delivered.
+     *
+     * @param command The command name
+     * @param latencyNanos Time from the deferred acknowledgement to the response
+     */
+    public void recordSuccess(String command, long latencyNanos) {
+        Stats s = stats(command);
+        s.completed.increment();
+        s.totalNanos.add(latencyNanos);
+        s.maxNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Records a command whose handler or body threw, or whose response could not be sent.
+     */
+    public void recordError(String command) {
+        stats(command).errors.increment();
+    }
+
+    /**
+     * Records a command that was turned away because the command executor was saturated.
+     */
+    public void recordRejected(String command) {
+        stats(command).rejected.increment();
+    }
+
+    /**
+     * Returns a one-line summary per command since the last drain and resets the counters,
+     * or an empty string if nothing ran.
+     */
+    public String drainSummary() {
+        Map<String, String> lines = new TreeMap<>();
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            long invoked = s.invoked.sumThenReset();
+            long completed = s.completed.sumThenReset();
+            long totalNanos = s.totalNanos.sumThenReset();
+            long errors = s.errors.sumThenReset();
+            long rejected = s.rejected.sumThenReset();
+            long maxNanos = s.maxNanos.getAndSet(0);
+            if (invoked == 0 && completed == 0 && errors == 0 && rejected == 0) {
+                continue;
+            }
+
+            long avgMillis = completed > 0 ? TimeUnit.NANOSECONDS.toMillis(totalNanos / completed) : 0;
+            lines.put(entry.getKey(), String.format("/%s invoked=%d n=%d avg=%dms max=%dms errors=%d rejected=%d",
+                    entry.getKey(), invoked, completed, avgMillis, TimeUnit.NANOSECONDS.toMillis(maxNanos), errors, rejected));
+        }
+        return String.join(", ", lines.values());
+    }
+
+    private Stats stats(String command) {
+        return stats.computeIfAbsent(command, k -> new Stats());
+    }
+
+    private static final class Stats {
+        final LongAdder invoked = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+    }
+}
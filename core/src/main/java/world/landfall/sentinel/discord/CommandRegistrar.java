@@ -0,0 +1,125 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registers slash commands with Discord only when their definitions have changed.
+ *
+ * Updating the command list overwrites every command at once, costs a rate-limited request
+ * and can briefly hide commands from users, so it is skipped when a SHA-256 hash of the
+ * serialized definitions matches the one stored in sentinel_state for this application and
+ * scope. Definitions are canonicalized (keys sorted, commands ordered by name) before hashing,
+ * so the hash does not depend on registration order.
+ *
+ * Commands can be registered to a single guild instead of globally; guild commands update
+ * instantly, which suits development.
+ */
+public class CommandRegistrar {
+    private final DatabaseManager db;
+    private final Logger logger;
+
+    public CommandRegistrar(DatabaseManager db, Logger logger) {
+        this.db = db;
+        this.logger = logger;
+    }
+
+    /**
+     * Registers the commands if they differ from what was last registered.
+     *
+     * @param guildId Guild to register to, or blank to register globally
+     */
+    public void register(JDA jda, List<SlashCommandData> commands, String guildId) {
+        CommandListUpdateAction update;
+        String scope;
+        if (guildId != null && !guildId.isBlank()) {
+            Guild guild;
+            try {
+                guild = jda.getGuildById(guildId);
+            } catch (NumberFormatException e) {
+                guild = null;
+            }
+            if (guild == null) {
+                logger.error("⌨️ Command guild {} not found, slash commands were not registered", guildId);
+                return;
+            }
+            update = guild.updateCommands();
+            scope = "guild." + guild.getId();
+        } else {
+            update = jda.updateCommands();
+            scope = "global";
+        }
+
+        String hash = hash(commands);
+        String stateKey = "commands.hash." + jda.getSelfUser().getApplicationId() + "." + scope;
+        if (db.getState(stateKey).filter(hash::equals).isPresent()) {
+            logger.info("⌨️ Slash commands unchanged ({}), skipping registration", scope);
+            return;
+        }
+
+        update.addCommands(commands).queue(
+            success -> {
+                db.setState(stateKey, hash);
+                logger.info("⌨️ Registered {} slash commands ({})", success.size(), scope);
+            },
+            error -> logger.error("⌨️ Failed to register slash commands ({})", scope, error)
+        );
+    }
+
+    private static String hash(List<SlashCommandData> commands) {
+        Map<String, JsonElement> byName = new TreeMap<>();
+        for (SlashCommandData command : commands) {
+            byName.put(command.getName(), canonicalize(JsonParser.parseString(command.toData().toString())));
+        }
+
+        JsonArray canonical = new JsonArray();
+        byName.values().forEach(canonical::add);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns a copy with object keys in sorted order, so equal definitions serialize identically.
+     */
+    private static JsonElement canonicalize(JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject sorted = new JsonObject();
+            List<String> keys = new ArrayList<>(element.getAsJsonObject().keySet());
+            keys.sort(null);
+            for (String key : keys) {
+                sorted.add(key, canonicalize(element.getAsJsonObject().get(key)));
+            }
+            return sorted;
+        }
+        if (element.isJsonArray()) {
+            JsonArray copy = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                copy.add(canonicalize(item));
+            }
+            return copy;
+        }
+        return element;
+    }
+}
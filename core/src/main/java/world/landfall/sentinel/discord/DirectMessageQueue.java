@@ -0,0 +1,317 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.context.PlatformAdapter;
+import world.landfall.sentinel.context.PlatformPlayer;
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.ModerationAction;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers warning DMs in the background and records the outcome on the moderation action.
+ *
+ * Up to a configured number of DMs are in flight at once. Opening a DM channel goes through
+ * the shared DM route of the {@link DiscordRequestScheduler}, but the message itself is sent
+ * on that user's own channel route, so a burst of warnings does not wait for each send in
+ * turn. Failed sends are retried with exponential backoff. Users who do not accept DMs, or
+ * who could not be reached after every attempt, are marked UNDELIVERED and get the warning
+ * as an in-game message the next time they log in.
+ *
+ * A send that times out is cancelled and not retried, since the request may still reach
+ * Discord and a retry could deliver the DM twice. If it does go through after all, the
+ * warning is marked SENT unless it has already been shown in game.
+ *
+ * The delivery state is kept in moderation_actions.dm_status: PENDING while queued, then SENT,
+ * UNDELIVERED or IN_GAME. Warnings are written as PENDING in the same transaction as the
+ * warning itself, and the queue picks up PENDING warnings it is not already handling on start
+ * and every few minutes after, so a warning whose event was never delivered still gets its DM.
+ */
+public class DirectMessageQueue {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_UNDELIVERED = "UNDELIVERED";
+    public static final String STATUS_IN_GAME = "IN_GAME";
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 5000;
+    // Covers time queued behind interactive requests as well as the requests themselves
+    private static final long SEND_TIMEOUT_SECONDS = 120;
+    // Gives the player time to finish connecting before the message is sent
+    private static final long IN_GAME_DELAY_SECONDS = 5;
+    // Most undelivered warnings shown to a player in one login
+    private static final int IN_GAME_LIMIT = 10;
+    private static final int RECOVERY_LIMIT = 1000;
+    private static final long RECOVERY_INTERVAL_MINUTES = 5;
+
+    private final DatabaseManager db;
+    private final DiscordRequestScheduler requestScheduler;
+    private final PlatformAdapter platformAdapter;
+    private final int maxConcurrent;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private final Deque<Delivery> waiting = new ArrayDeque<>();
+    // Warnings waiting, in flight or waiting to be retried, until their status leaves PENDING
+    private final Set<Long> tracked = new HashSet<>();
+    private int inFlight;
+
+    private volatile JDA jda;
+
+    public DirectMessageQueue(DatabaseManager db, DiscordRequestScheduler requestScheduler, PlatformAdapter platformAdapter,
+                              int maxConcurrent, Logger logger) {
+        this.db = db;
+        this.requestScheduler = requestScheduler;
+        this.platformAdapter = platformAdapter;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-DirectMessages");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts delivering once the bot is ready, beginning with DMs left pending by the last run.
+     */
+    public void start(JDA jda) {
+        if (this.jda != null) {
+            return;
+        }
+        this.jda = jda;
+
+        scheduler.scheduleWithFixedDelay(this::recoverPending, 0, RECOVERY_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Queues the DM for a warning recorded as PENDING. Returns immediately.
+     */
+    public void queueWarning(long actionId, String discordId, String reason) {
+        scheduler.execute(() -> {
+            synchronized (this) {
+                if (!tracked.add(actionId)) {
+                    return; // Already picked up from the table
+                }
+                waiting.add(new Delivery(actionId, discordId, reason, 0));
+            }
+            pump();
+        });
+    }
+
+    /**
+     * Queues every PENDING warning not already being handled: those left by the last run,
+     * and any whose event was missed.
+     */
+    private void recoverPending() {
+        try {
+            List<ModerationAction> pending = db.getModerationActionsByDmStatus(null, STATUS_PENDING, RECOVERY_LIMIT);
+            int recovered = 0;
+            synchronized (this) {
+                for (ModerationAction action : pending) {
+                    if (tracked.add(action.id())) {
+                        waiting.add(new Delivery(action.id(), action.discordId(), action.reason(), 0));
+                        recovered++;
+                    }
+                }
+            }
+            if (recovered > 0) {
+                logger.info("✉️ Picked up {} pending warning DMs", recovered);
+            }
+            pump();
+        } catch (Exception e) {
+            logger.error("✉️ Error picking up pending warning DMs", e);
+        }
+    }
+
+    /**
+     * Shows any warnings that could not be sent by DM to a player who just logged in.
+     */
+    public void deliverInGame(UUID playerUuid, String discordId) {
+        platformAdapter.getScheduler().runLater(() -> {
+            try {
+                List<ModerationAction> undelivered = db.getModerationActionsByDmStatus(discordId, STATUS_UNDELIVERED, IN_GAME_LIMIT);
+                if (undelivered.isEmpty()) {
+                    return;
+                }
+                Optional<PlatformPlayer> player = platformAdapter.getPlayer(playerUuid);
+                if (player.isEmpty()) {
+                    return; // Left again; kept for the next login
+                }
+
+                for (ModerationAction action : undelivered) {
+                    // Claimed first, so a second session of the same user cannot show it twice
+                    if (db.transitionDmStatus(action.id(), STATUS_UNDELIVERED, STATUS_IN_GAME)) {
+                        player.get().sendMessage(
+                            "⚠ You have received a warning\n" +
+                            "Reason: " + action.reason() + "\n" +
+                            "Please follow the server rules to avoid further action."
+                        );
+                        logger.info("✉️ Showed undelivered warning #{} to {} in game", action.id(), player.get().getUsername());
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("✉️ Error showing undelivered warnings to {}", playerUuid, e);
+            }
+        }, IN_GAME_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void pump() {
+        while (true) {
+            Delivery delivery;
+            synchronized (this) {
+                if (jda == null || inFlight >= maxConcurrent || waiting.isEmpty()) {
+                    return;
+                }
+                delivery = waiting.poll();
+                inFlight++;
+            }
+            attempt(delivery);
+        }
+    }
+
+    private void attempt(Delivery delivery) {
+        String message = "⚠ **You have received a warning**\n\n" +
+            "**Reason:** " + delivery.reason() + "\n\n" +
+            "Please follow the server rules to avoid further action.";
+
+        // Set by whichever comes first, the outcome of the send or its timeout
+        AtomicBoolean settled = new AtomicBoolean();
+        AtomicReference<CompletableFuture<?>> send = new AtomicReference<>();
+        try {
+            var open = requestScheduler.submit(DiscordRequestScheduler.Priority.AUDIT, DiscordRequestScheduler.directMessageRoute(),
+                    jda.openPrivateChannelById(delivery.discordId()));
+            open.thenCompose(channel -> {
+                    if (settled.get()) {
+                        throw new CancellationException("timed out before the DM channel opened");
+                    }
+                    var request = requestScheduler.submit(DiscordRequestScheduler.Priority.AUDIT,
+                            DiscordRequestScheduler.channelMessagesRoute(channel.getId()), channel.sendMessage(message));
+                    send.set(request);
+                    return request;
+                })
+                .whenComplete((sent, error) -> scheduler.execute(() -> {
+                    if (settled.compareAndSet(false, true)) {
+                        finish(delivery, error);
+                    } else if (error == null) {
+                        finishLate(delivery);
+                    }
+                }));
+
+            scheduler.schedule(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    // Drops the requests still queued and asks JDA to stop any it holds
+                    open.cancel(false);
+                    CompletableFuture<?> request = send.get();
+                    if (request != null) {
+                        request.cancel(false);
+                    }
+                    finish(delivery, new TimeoutException("no response within " + SEND_TIMEOUT_SECONDS + "s"));
+                }
+            }, SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            if (settled.compareAndSet(false, true)) {
+                scheduler.execute(() -> finish(delivery, e));
+            }
+        }
+    }
+
+    private void finish(Delivery delivery, Throwable error) {
+        synchronized (this) {
+            inFlight--;
+        }
+
+        try {
+            if (error == null) {
+                db.transitionDmStatus(delivery.actionId(), STATUS_PENDING, STATUS_SENT);
+                untrack(delivery);
+                logger.debug("✉️ Warning #{} sent to {} by DM", delivery.actionId(), delivery.discordId());
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException || error instanceof ExecutionException
+                    ? error.getCause() : error;
+            int attempts = delivery.attempts() + 1;
+            // A timed out send may still be delivered, so retrying it risks a duplicate DM
+            if (isUnreachable(cause) || cause instanceof TimeoutException || attempts >= MAX_ATTEMPTS) {
+                db.transitionDmStatus(delivery.actionId(), STATUS_PENDING, STATUS_UNDELIVERED);
+                untrack(delivery);
+                logger.info("✉️ Could not DM warning #{} to {} ({}), it will be shown in game on their next login",
+                        delivery.actionId(), delivery.discordId(), cause.toString());
+                return;
+            }
+
+            long backoffMillis = BASE_BACKOFF_MILLIS << (attempts - 1);
+            logger.debug("✉️ DM of warning #{} to {} failed, retrying in {}s: {}",
+                    delivery.actionId(), delivery.discordId(), backoffMillis / 1000, cause.toString());
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    waiting.add(new Delivery(delivery.actionId(), delivery.discordId(), delivery.reason(), attempts));
+                }
+                pump();
+            }, backoffMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            pump();
+        }
+    }
+
+    private synchronized void untrack(Delivery delivery) {
+        tracked.remove(delivery.actionId());
+    }
+
+    /**
+     * Records a DM that went through after its timeout had already marked it UNDELIVERED.
+     */
+    private void finishLate(Delivery delivery) {
+        if (db.transitionDmStatus(delivery.actionId(), STATUS_UNDELIVERED, STATUS_SENT)) {
+            logger.info("✉️ Warning #{} reached {} by DM after timing out, marked as sent",
+                    delivery.actionId(), delivery.discordId());
+        }
+    }
+
+    /**
+     * True for failures that retrying will not fix: the user blocks DMs or does not exist.
+     */
+    private static boolean isUnreachable(Throwable cause) {
+        return cause instanceof ErrorResponseException e
+                && (e.getErrorResponse() == ErrorResponse.CANNOT_SEND_TO_USER
+                    || e.getErrorResponse() == ErrorResponse.UNKNOWN_USER);
+    }
+
+    private record Delivery(long actionId, String discordId, String reason, int attempts) {}
+
+    /**
+     * Stops delivery. DMs not yet sent stay PENDING and are resumed on the next start.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
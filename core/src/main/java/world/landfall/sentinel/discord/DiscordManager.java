@@ -1,27 +1,59 @@
 package world.landfall.sentinel.discord;
 
+import world.landfall.sentinel.LoginDenyIndex;
 import world.landfall.sentinel.db.DatabaseManager;
 import world.landfall.sentinel.config.SentinelConfig;
 import world.landfall.sentinel.tos.TosManager;
+import world.landfall.sentinel.moderation.EscalationManager;
+import world.landfall.sentinel.moderation.IpBanManager;
+import world.landfall.sentinel.moderation.KickEventSubscriber;
+import world.landfall.sentinel.moderation.ModerationEvent;
+import world.landfall.sentinel.moderation.ModerationEventBus;
 import world.landfall.sentinel.moderation.ModerationManager;
+import world.landfall.sentinel.moderation.ModerationMetrics;
+import world.landfall.sentinel.moderation.ModerationStatsBackfill;
 import world.landfall.sentinel.context.PlatformAdapter;
+import world.landfall.sentinel.db.LinkInfo;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.guild.GuildBanEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.requests.ErrorResponse;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.security.auth.login.LoginException;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class DiscordManager extends ListenerAdapter {
+    // Events that may wait for each event bus subscriber before new ones are dropped, or publishers wait
+    private static final int EVENT_QUEUE_CAPACITY = 1000;
+
     private final DatabaseManager db;
     private final Logger logger;
     private final String token;
     private final String linkedRoleId;
     private final String quarantineRoleId;
     private final SentinelConfig config;
+    private final PlatformAdapter platformAdapter;
 
     private final LinkCommandListener linkListener;
     private final WhoIsCommandListener whoisListener;
@@ -29,12 +61,38 @@ public class DiscordManager extends ListenerAdapter {
     private NoteCommandListener noteListener;
     private WarnCommandListener warnListener;
     private BanCommandListener banListener;
+    private MassBanCommandListener massBanListener;
+    private MassWarnCommandListener massWarnListener;
     private UnbanCommandListener unbanListener;
     private HistoryCommandListener historyListener;
+    private ModStatsCommandListener modStatsListener;
+    private IpBanCommandListener ipBanListener;
     private RoleManager roleManager;
     private QuarantineChecker quarantineChecker;
+    private QuarantineRoleReconciler quarantineRoleReconciler;
+    private MembershipReconciler membershipReconciler;
     private TosManager tosManager;
     private ModerationManager moderationManager;
+    private IpBanManager ipBanManager;
+    private final DiscordRequestScheduler requestScheduler;
+    private final CommandExecutor commandExecutor;
+    private final SlashCommandRouter commandRouter;
+    private final GuildContext guildContext;
+    private final AuditPublisher auditPublisher;
+    private final PermissionService permissionService;
+    private final MemberDirectory memberDirectory;
+    private final DirectMessageQueue directMessageQueue;
+    private final ModerationEventBus eventBus;
+    private final ModerationMetrics moderationMetrics;
+    private final ModerationStatsBackfill statsBackfill;
+    private final RoleEventSubscriber roleSubscriber;
+
+    // Database work and kicks for members leaving, rejoining or being banned, off the JDA event thread
+    private final ExecutorService memberEvents = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Sentinel-MemberEvents");
+        t.setDaemon(true);
+        return t;
+    });
 
     private JDA jda;
 
@@ -44,89 +102,354 @@ public class DiscordManager extends ListenerAdapter {
         this.linkedRoleId = linkedRoleId;
         this.quarantineRoleId = quarantineRoleId;
         this.config = config;
+        this.platformAdapter = platformAdapter;
         this.logger = logger;
 
-        this.linkListener = new LinkCommandListener(db, logger);
-        this.whoisListener = new WhoIsCommandListener(db, logger);
+        // Outbound REST requests are released by priority: interactions, then audit, then background work
+        this.requestScheduler = new DiscordRequestScheduler(config.discord.requestsPerSecond, logger);
+
+        // Command bodies run here rather than on the JDA event thread
+        this.commandExecutor = new CommandExecutor(config.discord.commandThreads, config.discord.commandQueueSize, requestScheduler, logger);
+
+        // Roles and channels are resolved once the bot is ready and kept current from gateway events
+        this.guildContext = new GuildContext(linkedRoleId, quarantineRoleId, staffRoles,
+                config.discord.moderationAuditChannel, config.discord.tosAuditChannel, logger);
+
+        // Audit embeds go through a persistent outbox and are batched per channel
+        this.auditPublisher = new AuditPublisher(db, guildContext, requestScheduler, logger);
+
+        // Member IDs per guild, so membership checks need neither JDA's member cache nor REST calls
+        this.memberDirectory = new MemberDirectory(logger);
+
+        // Warning DMs are retried in the background and fall back to an in-game message
+        this.directMessageQueue = new DirectMessageQueue(db, requestScheduler, platformAdapter, config.discord.directMessageConcurrency, logger);
+
+        // Side effects of moderation actions run on their own queues, so commands reply as soon as
+        // the database write commits and a slow subscriber only delays itself
+        this.eventBus = new ModerationEventBus(logger);
+
+        this.linkListener = new LinkCommandListener(db, commandExecutor, eventBus, logger);
+        this.whoisListener = new WhoIsCommandListener(db, commandExecutor, logger);
 
         // Initialize ToS components if configured
         if (config.tos.enforcement) {
             this.tosManager = new TosManager(db, config.tos, logger);
-            this.tosListener = new TosCommandListener(db, tosManager, config.discord.tosAuditChannel, logger);
+            this.tosListener = new TosCommandListener(db, tosManager, commandExecutor, eventBus, logger);
             this.linkListener.setTosManager(tosManager);
             this.linkListener.setTosCommandListener(tosListener);
         }
 
-        // Initialize moderation components
-        this.moderationManager = new ModerationManager(db, config.discord.moderationAuditChannel, logger);
-        this.noteListener = new NoteCommandListener(db, moderationManager, staffRoles, logger);
-        this.warnListener = new WarnCommandListener(db, moderationManager, staffRoles, logger);
-        this.banListener = new BanCommandListener(db, moderationManager, staffRoles, quarantineRoleId, platformAdapter, config, logger);
-        this.unbanListener = new UnbanCommandListener(db, moderationManager, staffRoles, quarantineRoleId, logger);
-        this.historyListener = new HistoryCommandListener(db, moderationManager, staffRoles, logger);
-    }
+        // Initialize moderation components; escalation bans are enforced by quarantine
+        EscalationManager escalation = new EscalationManager(db, config.escalation,
+                quarantineRoleId != null && !quarantineRoleId.isBlank(), logger);
+        this.moderationManager = new ModerationManager(db, eventBus, escalation,
+                auditPublisher.isEnabled(AuditPublisher.AuditChannel.MODERATION) ? AuditPublisher.AuditChannel.MODERATION.name() : null,
+                logger);
+        this.noteListener = new NoteCommandListener(db, moderationManager, commandExecutor, logger);
+        this.warnListener = new WarnCommandListener(db, moderationManager, commandExecutor, logger);
+        this.banListener = new BanCommandListener(db, moderationManager, commandExecutor, quarantineRoleId, config, logger);
+        this.unbanListener = new UnbanCommandListener(db, moderationManager, commandExecutor, logger);
+        this.massBanListener = new MassBanCommandListener(db, moderationManager, commandExecutor, quarantineRoleId, logger);
+        this.massWarnListener = new MassWarnCommandListener(db, moderationManager, commandExecutor, logger);
+        this.historyListener = new HistoryCommandListener(db, moderationManager, commandExecutor, logger);
 
-    public void start() throws LoginException {
-        // Build event listeners list
-        var listeners = new java.util.ArrayList<>();
-        listeners.add(linkListener);
-        listeners.add(whoisListener);
+        // Daily stats are counted on every insert; older history is added once in the background
+        this.statsBackfill = new ModerationStatsBackfill(db, logger);
+        this.modStatsListener = new ModStatsCommandListener(db, moderationManager, statsBackfill, commandExecutor, logger);
+
+        // Event bus subscribers, each on its own thread and queue. Audit embeds of IP bans and ToS
+        // acceptances, and kicks, exist nowhere else, so publishers wait for those rather than drop;
+        // moderation audit entries and pending DMs are already stored with the action
+        this.roleSubscriber = new RoleEventSubscriber(guildContext, requestScheduler, quarantineRoleId, logger);
+        this.moderationMetrics = new ModerationMetrics(eventBus, logger);
+        eventBus.subscribeBlocking("audit", EVENT_QUEUE_CAPACITY, new AuditEventSubscriber(moderationManager, auditPublisher));
+        eventBus.subscribe("roles", EVENT_QUEUE_CAPACITY, roleSubscriber);
+        eventBus.subscribeBlocking("kicks", EVENT_QUEUE_CAPACITY, new KickEventSubscriber(db, platformAdapter, logger));
+        eventBus.subscribe("dms", EVENT_QUEUE_CAPACITY, this::queueWarningMessages);
+        eventBus.subscribe("metrics", EVENT_QUEUE_CAPACITY, moderationMetrics);
+
+        // IP bans only need the database, so they are enforced even before the bot is ready
+        this.ipBanManager = new IpBanManager(db, logger);
+        this.ipBanListener = new IpBanCommandListener(ipBanManager, moderationManager, commandExecutor, logger);
+
+        // One listener routes every command and button to its handler
+        this.permissionService = new PermissionService(guildContext.getStaffRoleIds().toArray(new String[0]),
+                config.discord.noteRoles, logger);
+        this.commandRouter = new SlashCommandRouter(permissionService, commandExecutor.getMetrics(), logger);
+        commandRouter.register(linkListener);
+        commandRouter.register(whoisListener);
         if (tosListener != null) {
-            listeners.add(tosListener);
+            commandRouter.register(tosListener);
+            commandRouter.registerButton(TosCommandListener.AGREE_BUTTON_PREFIX, tosListener::handleAgreeButton);
         }
-        listeners.add(noteListener);
-        listeners.add(warnListener);
-        listeners.add(banListener);
-        listeners.add(unbanListener);
-        listeners.add(historyListener);
-        listeners.add(this);
+        commandRouter.register(noteListener);
+        commandRouter.register(warnListener);
+        commandRouter.register(banListener);
+        commandRouter.register(massBanListener);
+        commandRouter.register(massWarnListener);
+        commandRouter.register(unbanListener);
+        commandRouter.register(historyListener);
+        commandRouter.register(modStatsListener);
+        commandRouter.register(ipBanListener);
+    }
+
+    /**
+     * Sets the pre-login deny index so ban and unban events keep it current between refreshes.
+     */
+    public void setLoginDenyIndex(LoginDenyIndex loginDenyIndex) {
+        loginDenyIndex.setIpBanManager(ipBanManager);
+        // A missed unban would keep denying the user until the next full refresh, so this one never drops
+        eventBus.subscribeBlocking("login-deny-index", EVENT_QUEUE_CAPACITY, event -> {
+            // Only the banned users' links are read; the periodic refresh picks up anything else
+            if (event instanceof ModerationEvent.Banned banned && banned.quarantined()) {
+                loginDenyIndex.addQuarantines(List.of(banned.discordId()), banned.reason(), banned.issuedBy(), banned.expiresAt());
+            } else if (event instanceof ModerationEvent.MassActioned mass && mass.quarantined()) {
+                loginDenyIndex.addQuarantines(mass.discordIds(), mass.reason(), mass.issuedBy(), mass.expiresAt());
+            } else if (event instanceof ModerationEvent.Unbanned unbanned) {
+                loginDenyIndex.removeDiscordId(unbanned.discordId());
+            }
+        });
+    }
 
+    /**
+     * Event bus subscriber that hands each new warning to the DM queue. The warnings are already
+     * PENDING in the database, so a missed event only delays the DM until the queue next looks.
+     */
+    private void queueWarningMessages(ModerationEvent event) {
+        if (event instanceof ModerationEvent.Warned warned) {
+            directMessageQueue.queueWarning(warned.actionId(), warned.discordId(), warned.reason());
+        } else if (event instanceof ModerationEvent.MassActioned mass && "WARN".equals(mass.actionType())) {
+            for (int i = 0; i < mass.actionIds().size(); i++) {
+                directMessageQueue.queueWarning(mass.actionIds().get(i), mass.discordIds().get(i), mass.reason());
+            }
+        }
+    }
+
+    public void start() throws LoginException {
         jda = JDABuilder.createDefault(token)
                 .enableIntents(GatewayIntent.GUILD_MEMBERS)
-                .addEventListeners(listeners.toArray())
+                .setMemberCachePolicy(memberCachePolicy(config.discord.memberCachePolicy))
+                .setChunkingFilter(chunkingFilter(config.discord.chunkingFilter))
+                .disableCache(cacheFlags(config.discord.disabledCacheFlags))
+                .setHttpClientBuilder(new OkHttpClient.Builder()
+                        .addInterceptor(requestScheduler.rateLimitInterceptor()))
+                .addEventListeners(guildContext, memberDirectory, permissionService, commandRouter, this)
                 .build();
 
-        // Build commands list
-        var commands = new java.util.ArrayList<net.dv8tion.jda.api.interactions.commands.build.SlashCommandData>();
-        commands.add(linkListener.getCommandData());
-        commands.add(whoisListener.getCommandData());
-        if (tosListener != null) {
-            commands.add(tosListener.getCommandData());
-        }
-        commands.add(noteListener.getCommandData());
-        commands.add(warnListener.getCommandData());
-        commands.add(banListener.getCommandData());
-        commands.add(unbanListener.getCommandData());
-        commands.add(historyListener.getCommandData());
+        // Slash commands are registered once the bot is ready, and only if they changed
+        String commandList = commandRouter.getCommandData().stream()
+            .map(command -> "/" + command.getName())
+            .collect(java.util.stream.Collectors.joining(", "));
+        logger.info("[Sentinel] Discord bot started with {}.", commandList);
+    }
 
-        // Register slash commands
-        jda.updateCommands().addCommands(commands).queue();
+    private MemberCachePolicy memberCachePolicy(String name) {
+        return switch (name == null ? "" : name.trim().toUpperCase(Locale.ROOT)) {
+            case "NONE" -> MemberCachePolicy.NONE;
+            case "DEFAULT" -> MemberCachePolicy.DEFAULT;
+            case "ALL" -> MemberCachePolicy.ALL;
+            case "OWNER" -> MemberCachePolicy.OWNER;
+            case "ONLINE" -> MemberCachePolicy.ONLINE;
+            case "VOICE" -> MemberCachePolicy.VOICE;
+            case "BOOSTER" -> MemberCachePolicy.BOOSTER;
+            case "PENDING" -> MemberCachePolicy.PENDING;
+            default -> {
+                logger.warn("⚠️ Unknown memberCachePolicy '{}', caching no members", name);
+                yield MemberCachePolicy.NONE;
+            }
+        };
+    }
 
-        String commandList = tosListener != null ?
-            "/link, /whois, /tos, /note, /warn, /ban, /unban, and /history" :
-            "/link, /whois, /note, /warn, /ban, /unban, and /history";
-        logger.info("[Sentinel] Discord bot started with {}.", commandList);
+    private ChunkingFilter chunkingFilter(String name) {
+        return switch (name == null ? "" : name.trim().toUpperCase(Locale.ROOT)) {
+            case "NONE" -> ChunkingFilter.NONE;
+            case "ALL" -> ChunkingFilter.ALL;
+            default -> {
+                logger.warn("⚠️ Unknown chunkingFilter '{}', chunking no guilds", name);
+                yield ChunkingFilter.NONE;
+            }
+        };
+    }
+
+    private EnumSet<CacheFlag> cacheFlags(String[] names) {
+        EnumSet<CacheFlag> flags = EnumSet.noneOf(CacheFlag.class);
+        if (names == null) {
+            return flags;
+        }
+        for (String name : names) {
+            try {
+                flags.add(CacheFlag.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                logger.warn("⚠️ Unknown cache flag '{}' in disabledCacheFlags, ignoring it", name);
+            }
+        }
+        return flags;
     }
 
     @Override
     public void onReady(@Nonnull ReadyEvent event) {
+        guildContext.resolve(jda);
+
+        new CommandRegistrar(db, logger).register(jda, commandRouter.getCommandData(), config.discord.commandGuild);
+
         // Initialize role manager once JDA is ready
         if (linkedRoleId != null && !linkedRoleId.isBlank()) {
-            roleManager = new RoleManager(db, jda, linkedRoleId, logger);
+            roleManager = new RoleManager(db, guildContext, requestScheduler, memberDirectory, linkedRoleId, config.discord.roleSyncFreshnessHours, logger);
             roleManager.startRoleSynchronization();
 
-            // Set the role manager in the link listener so it can assign roles to new links
-            linkListener.setRoleManager(roleManager);
+            // Lets the role subscriber assign the linked role to new links
+            roleSubscriber.setRoleManager(roleManager);
         }
 
+        directMessageQueue.start(jda);
+
         // Initialize quarantine checker
-        quarantineChecker = new QuarantineChecker(db, jda, quarantineRoleId, logger);
+        quarantineChecker = new QuarantineChecker(db, guildContext, requestScheduler, quarantineRoleId, logger);
+
+        // Keep the quarantine role in line with the quarantines table
+        if (quarantineRoleId != null && !quarantineRoleId.isBlank()) {
+            quarantineRoleReconciler = new QuarantineRoleReconciler(db, guildContext, memberDirectory, requestScheduler, logger);
+            quarantineRoleReconciler.start(config.discord.quarantineReconcileMinutes);
+        }
+
+        // Catch departures missed while the bot was offline
+        membershipReconciler = new MembershipReconciler(db, memberDirectory, platformAdapter, eventBus, logger);
+        membershipReconciler.start(MembershipReconciler.parseMode(config.discord.membershipReconcileMode, logger),
+                config.discord.membershipReconcileHours);
 
-        // Set JDA for moderation manager
-        if (moderationManager != null) {
-            moderationManager.setJDA(jda);
+        // Anyone marked as left who rejoined while the bot was offline is restored, from the
+        // member directory alone, so it waits until every guild's members are loaded
+        memberDirectory.whenAllLoaded(() -> memberEvents.execute(this::restoreRejoinedMembers));
+    }
+
+    @Override
+    public void onGuildMemberRemove(@Nonnull GuildMemberRemoveEvent event) {
+        String discordId = event.getUser().getId();
+        Guild guild = event.getGuild();
+        memberEvents.execute(() -> handleDeparture(guild, discordId,
+                "DISCORD MEMBERSHIP REQUIRED\n\nYou are no longer in the Discord server. Rejoin it to keep playing."));
+    }
+
+    @Override
+    public void onGuildBan(@Nonnull GuildBanEvent event) {
+        // Discord also sends a member remove for bans; whichever arrives first does the work
+        String discordId = event.getUser().getId();
+        Guild guild = event.getGuild();
+        memberEvents.execute(() -> handleDeparture(guild, discordId,
+                "BANNED FROM DISCORD\n\nYou have been banned from the Discord server."));
+    }
+
+    @Override
+    public void onGuildMemberJoin(@Nonnull GuildMemberJoinEvent event) {
+        String discordId = event.getUser().getId();
+        memberEvents.execute(() -> {
+            if (db.clearLeftGuild(discordId)) {
+                logger.info("🔗 Discord user {} rejoined the server, links restored", discordId);
+            }
+        });
+    }
+
+    /**
+     * Records that a linked Discord user left or was banned, so logins never have to ask Discord.
+     * Their online sessions are kicked and their links removed, except links kept for moderation
+     * history, which stay marked as left until the user rejoins.
+     */
+    private void handleDeparture(Guild guild, String discordId, String kickMessage) {
+        try {
+            if (isMemberOfOtherGuild(guild, discordId)) {
+                return;
+            }
+
+            List<LinkInfo> links = db.findByDiscordId(discordId);
+            if (links.isEmpty() || db.markLeftGuild(discordId, Instant.now()) == 0) {
+                return; // Not linked, or already handled
+            }
+
+            for (LinkInfo link : links) {
+                platformAdapter.kickPlayer(link.uuid(), kickMessage);
+            }
+
+            boolean unlinked = db.removeLinkByDiscordId(discordId);
+            if (unlinked) {
+                eventBus.publish(new ModerationEvent.Unlinked(discordId));
+            }
+            logger.info("🔗 Linked Discord user {} left {}: {} account(s) {}", discordId, guild.getName(),
+                    links.size(), unlinked ? "unlinked" : "kept and marked as left");
+        } catch (Exception e) {
+            logger.error("🔗 Error handling departure of Discord user {}", discordId, e);
         }
+    }
 
+    /**
+     * Checks the other guilds the bot is in, if any, since membership of any one is enough.
+     * Lookup failures count as still being a member, so nobody is marked on a Discord hiccup.
+     */
+    private boolean isMemberOfOtherGuild(Guild except, String discordId) throws InterruptedException {
+        for (Guild guild : jda.getGuilds()) {
+            if (guild.getIdLong() == except.getIdLong()) {
+                continue;
+            }
+            if (!Boolean.FALSE.equals(isMember(guild, discordId))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void restoreRejoinedMembers() {
+        try {
+            int restored = 0;
+            for (String discordId : db.getLeftGuildDiscordIds()) {
+                Boolean member;
+                try {
+                    member = memberDirectory.isMemberOfAnyGuild(Long.parseLong(discordId));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (Boolean.TRUE.equals(member)) {
+                    db.clearLeftGuild(discordId);
+                    restored++;
+                }
+            }
+            if (restored > 0) {
+                logger.info("🔗 Restored links of {} Discord users who rejoined while Sentinel was offline", restored);
+            }
+        } catch (Exception e) {
+            logger.error("🔗 Error restoring links of rejoined Discord users", e);
+        }
+    }
+
+    /**
+     * Looks a user up in a guild, from the member directory once the guild is loaded and
+     * from Discord before that. Returns null if Discord could not say either way.
+     */
+    private Boolean isMember(Guild guild, String discordId) throws InterruptedException {
+        try {
+            Boolean known = memberDirectory.isMember(guild, Long.parseLong(discordId));
+            if (known != null) {
+                return known;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        try {
+            requestScheduler.submit(DiscordRequestScheduler.Priority.BACKGROUND,
+                    DiscordRequestScheduler.memberLookupRoute(guild),
+                    guild.retrieveMemberById(discordId)
+            ).get(10, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ErrorResponseException ere
+                    && (ere.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER || ere.getErrorResponse() == ErrorResponse.UNKNOWN_USER)) {
+                return false;
+            }
+            logger.warn("🔗 Could not check membership of {} in {}: {}", discordId, guild.getName(), e.getCause().getMessage());
+            return null;
+        } catch (TimeoutException e) {
+            logger.warn("🔗 Membership lookup for {} in {} timed out", discordId, guild.getName());
+            return null;
+        }
     }
 
     /**
@@ -143,13 +466,46 @@ public class DiscordManager extends ListenerAdapter {
         return tosManager;
     }
 
+    /**
+     * Gets the DM queue, for showing undelivered warnings on login.
+     */
+    public DirectMessageQueue getDirectMessageQueue() {
+        return directMessageQueue;
+    }
+
+    /**
+     * Gets the IP ban manager for login validation.
+     */
+    public IpBanManager getIpBanManager() {
+        return ipBanManager;
+    }
+
     public void shutdown() {
+        commandExecutor.shutdown();
+        // Works off queued side effects while the audit publisher and request scheduler still run
+        eventBus.shutdown();
+        moderationMetrics.shutdown();
+        statsBackfill.shutdown();
+        auditPublisher.shutdown();
+        directMessageQueue.shutdown();
+        memberEvents.shutdownNow();
+        if (ipBanManager != null) {
+            ipBanManager.shutdown();
+        }
         if (roleManager != null) {
             roleManager.shutdown();
         }
         if (quarantineChecker != null) {
             quarantineChecker.shutdown();
         }
+        if (quarantineRoleReconciler != null) {
+            quarantineRoleReconciler.shutdown();
+        }
+        if (membershipReconciler != null) {
+            membershipReconciler.shutdown();
+        }
+        // Hands anything still queued to JDA, which sends it before shutting down
+        requestScheduler.shutdown();
         if (jda != null) {
             jda.shutdown();
             logger.info("[Sentinel] Discord bot shut down.");
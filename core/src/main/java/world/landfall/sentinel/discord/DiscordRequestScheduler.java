@@ -0,0 +1,444 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.RestAction;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Orders Sentinel's outbound Discord REST requests by priority before they reach JDA.
+ *
+ * JDA sends requests for the same rate-limit bucket strictly in the order they were queued,
+ * so a background role sync that has queued work for the guild's member-role route would
+ * delay a staff member's /ban role change behind it. Here every request names its route,
+ * and at most one request per route is handed to JDA at a time; the rest wait in a queue
+ * per {@link Priority}, and the next request released is always the most urgent one whose
+ * route is free. JDA still paces each route from Discord's rate-limit headers.
+ *
+ * A global budget of requests per second caps Sentinel's total rate below Discord's global
+ * limit, again spent in priority order. Queue depth, wait time before dispatch and 429
+ * responses (counted from the HTTP client) are tracked per priority and logged periodically.
+ */
+public class DiscordRequestScheduler {
+    private static final int METRICS_INTERVAL_MINUTES = 10;
+
+    // How far into a class's queue to look for a request whose route is free
+    private static final int SCAN_LIMIT = 64;
+
+    private static final Pattern MEMBER_ROLES_PATH = Pattern.compile("/guilds/(\\d+)/members/\\d+/roles/\\d+$");
+    private static final Pattern CHANNEL_MESSAGES_PATH = Pattern.compile("/channels/(\\d+)/messages$");
+    private static final Pattern DM_PATH = Pattern.compile("/users/@me/channels$");
+    private static final Pattern INTERACTION_PATH = Pattern.compile("/(webhooks|interactions)/");
+
+    public enum Priority {
+        /** Interaction responses and the enforcement of staff actions. */
+        INTERACTIVE,
+        /** Audit embeds and user notifications. */
+        AUDIT,
+        /** Periodic synchronization and cleanup. */
+        BACKGROUND
+    }
+
+    private final Logger logger;
+    private final double requestsPerSecond;
+    private final Map<Priority, Deque<Task<?>>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, ClassMetrics> metrics = new EnumMap<>(Priority.class);
+    private final LongAdder unattributedRateLimits = new LongAdder();
+
+    // Route -> priority of the request currently handed to JDA for it
+    private final Map<String, Priority> inFlight = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread dispatcher;
+    private final ScheduledExecutorService metricsScheduler;
+    private volatile boolean running = true;
+
+    // Global budget, as a token bucket refilled continuously; only touched by the dispatcher
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param requestsPerSecond Global budget for requests handed to JDA
+     */
+    public DiscordRequestScheduler(int requestsPerSecond, Logger logger) {
+        this.logger = logger;
+        this.requestsPerSecond = Math.max(1, requestsPerSecond);
+        this.tokens = this.requestsPerSecond;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            metrics.put(priority, new ClassMetrics());
+        }
+
+        this.dispatcher = new Thread(this::dispatchLoop, "Sentinel-DiscordRequests");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+
+        this.metricsScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-DiscordRequestMetrics");
+            t.setDaemon(true);
+            return t;
+        });
+        this.metricsScheduler.scheduleAtFixedRate(this::logMetrics,
+                METRICS_INTERVAL_MINUTES, METRICS_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Queues a request. The future completes with the request's result once JDA has executed it.
+     * Cancelling the future drops the request if it has not been dispatched yet, and otherwise
+     * passes the cancellation on to JDA, which stops it unless it has already been sent.
+     *
+     * @param route Key of the rate-limit bucket the request belongs to, from the route helpers below
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, String route, RestAction<T> action) {
+        Task<T> task = new Task<>(priority, route, action, System.nanoTime());
+        lock.lock();
+        try {
+            if (running) {
+                queues.get(priority).addLast(task);
+                metrics.get(priority).queued.incrementAndGet();
+                changed.signal();
+                return task.result;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Shutting down: JDA finishes whatever it has been handed
+        execute(task, false);
+        return task.result;
+    }
+
+    /**
+     * Route for adding or removing member roles, which Discord limits per guild.
+     */
+    public static String memberRolesRoute(Guild guild) {
+        return "member-roles:" + guild.getId();
+    }
+
+    /**
+     * Route for fetching a single guild member.
+     */
+    public static String memberLookupRoute(Guild guild) {
+        return "member-lookup:" + guild.getId();
+    }
+
+    /**
+     * Route for sending messages to a channel.
+     */
+    public static String channelMessagesRoute(String channelId) {
+        return "channel-messages:" + channelId;
+    }
+
+    /**
+     * Route for opening DM channels, which is shared by all users.
+     */
+    public static String directMessageRoute() {
+        return "dm";
+    }
+
+    /**
+     * Route for follow-ups to one interaction, which only compete with each other.
+     */
+    public static String interactionRoute(InteractionHook hook) {
+        return "interaction:" + hook.getInteraction().getId();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                lock.lock();
+                try {
+                    while (running && !hasEligible()) {
+                        changed.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!running) {
+                    return;
+                }
+
+                awaitToken();
+
+                // Picked only after the token is available, so a request that arrived
+                // while waiting for budget can still go first
+                Task<?> task;
+                lock.lock();
+                try {
+                    task = takeEligible();
+                } finally {
+                    lock.unlock();
+                }
+                if (task != null) {
+                    execute(task, true);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (Exception e) {
+                logger.error("📡 Error dispatching Discord request", e);
+            }
+        }
+    }
+
+    private boolean hasEligible() {
+        for (Deque<Task<?>> queue : queues.values()) {
+            int scanned = 0;
+            for (Task<?> task : queue) {
+                if (!inFlight.containsKey(task.route)) {
+                    return true;
+                }
+                if (++scanned >= SCAN_LIMIT) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Task<?> takeEligible() {
+        for (Map.Entry<Priority, Deque<Task<?>>> entry : queues.entrySet()) {
+            int scanned = 0;
+            Iterator<Task<?>> it = entry.getValue().iterator();
+            while (it.hasNext() && scanned++ < SCAN_LIMIT) {
+                Task<?> task = it.next();
+                if (task.result.isCancelled()) {
+                    // The caller gave up on it while it was queued
+                    it.remove();
+                    metrics.get(entry.getKey()).queued.decrementAndGet();
+                    continue;
+                }
+                if (inFlight.putIfAbsent(task.route, task.priority) == null) {
+                    it.remove();
+                    metrics.get(entry.getKey()).queued.decrementAndGet();
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void awaitToken() throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            tokens = Math.min(requestsPerSecond, tokens + (now - refilledAt) * requestsPerSecond / 1_000_000_000.0);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
+            LockSupport.parkNanos((long) ((1 - tokens) * 1_000_000_000.0 / requestsPerSecond));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private <T> void execute(Task<T> task, boolean holdsRoute) {
+        metrics.get(task.priority).recordDispatch(System.nanoTime() - task.enqueuedAt);
+        try {
+            CompletableFuture<T> submitted = task.action.submit();
+            submitted.whenComplete((value, error) -> {
+                if (holdsRoute) {
+                    releaseRoute(task.route);
+                }
+                if (error != null) {
+                    task.result.completeExceptionally(error);
+                } else {
+                    task.result.complete(value);
+                }
+            });
+            task.result.whenComplete((value, error) -> {
+                if (task.result.isCancelled()) {
+                    submitted.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (holdsRoute) {
+                releaseRoute(task.route);
+            }
+            task.result.completeExceptionally(e);
+        }
+    }
+
+    private void releaseRoute(String route) {
+        inFlight.remove(route);
+        lock.lock();
+        try {
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * HTTP interceptor for JDA's client that counts 429 responses per priority class.
+     * Responses are matched to the class of the request in flight on the same route.
+     */
+    public Interceptor rateLimitInterceptor() {
+        return chain -> {
+            Response response = chain.proceed(chain.request());
+            if (response.code() == 429) {
+                recordRateLimit(chain.request().url().encodedPath());
+            }
+            return response;
+        };
+    }
+
+    private void recordRateLimit(String path) {
+        String route = null;
+        Matcher matcher;
+        if ((matcher = MEMBER_ROLES_PATH.matcher(path)).find()) {
+            route = "member-roles:" + matcher.group(1);
+        } else if ((matcher = CHANNEL_MESSAGES_PATH.matcher(path)).find()) {
+            route = channelMessagesRoute(matcher.group(1));
+        } else if (DM_PATH.matcher(path).find()) {
+            route = directMessageRoute();
+        } else if (INTERACTION_PATH.matcher(path).find()) {
+            metrics.get(Priority.INTERACTIVE).rateLimited.increment();
+            return;
+        }
+
+        Priority priority = route != null ? inFlight.get(route) : null;
+        if (priority != null) {
+            metrics.get(priority).rateLimited.increment();
+        } else {
+            unattributedRateLimits.increment();
+        }
+    }
+
+    /**
+     * Returns the current queue depth and the counters since the last metrics log, per class.
+     */
+    public List<ClassStats> getStats() {
+        List<ClassStats> stats = new ArrayList<>();
+        for (Map.Entry<Priority, ClassMetrics> entry : metrics.entrySet()) {
+            ClassMetrics m = entry.getValue();
+            long dispatched = m.dispatched.sum();
+            stats.add(new ClassStats(entry.getKey(), m.queued.get(), dispatched,
+                    dispatched == 0 ? 0 : m.totalWaitNanos.sum() / dispatched / 1_000_000,
+                    m.maxWaitNanos.get() / 1_000_000, m.rateLimited.sum()));
+        }
+        return stats;
+    }
+
+    private void logMetrics() {
+        StringBuilder summary = new StringBuilder();
+        boolean active = false;
+        for (Map.Entry<Priority, ClassMetrics> entry : metrics.entrySet()) {
+            ClassMetrics m = entry.getValue();
+            long dispatched = m.dispatched.sumThenReset();
+            long totalWait = m.totalWaitNanos.sumThenReset();
+            long maxWait = m.maxWaitNanos.getAndSet(0);
+            long rateLimited = m.rateLimited.sumThenReset();
+            active |= dispatched > 0 || m.queued.get() > 0;
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            summary.append(entry.getKey().name().toLowerCase())
+                    .append(" queued=").append(m.queued.get())
+                    .append(" sent=").append(dispatched)
+                    .append(" avgWait=").append(dispatched == 0 ? 0 : totalWait / dispatched / 1_000_000).append("ms")
+                    .append(" maxWait=").append(maxWait / 1_000_000).append("ms")
+                    .append(" 429s=").append(rateLimited);
+        }
+        long unattributed = unattributedRateLimits.sumThenReset();
+        if (unattributed > 0) {
+            summary.append(", other 429s=").append(unattributed);
+        }
+        if (!active && unattributed == 0) {
+            return;
+        }
+        logger.info("📡 Discord requests (last {}m): {}", METRICS_INTERVAL_MINUTES, summary);
+    }
+
+    /**
+     * Per-class snapshot exposed by {@link #getStats()}.
+     */
+    public record ClassStats(Priority priority, int queued, long dispatched, long avgWaitMillis,
+                             long maxWaitMillis, long rateLimited) {}
+
+    private static final class ClassMetrics {
+        final AtomicInteger queued = new AtomicInteger();
+        final LongAdder dispatched = new LongAdder();
+        final LongAdder totalWaitNanos = new LongAdder();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+        final LongAdder rateLimited = new LongAdder();
+
+        void recordDispatch(long waitNanos) {
+            dispatched.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    private static final class Task<T> {
+        final Priority priority;
+        final String route;
+        final RestAction<T> action;
+        final long enqueuedAt;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task(Priority priority, String route, RestAction<T> action, long enqueuedAt) {
+            this.priority = priority;
+            this.route = route;
+            this.action = action;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * Stops prioritizing and hands everything still queued straight to JDA, which finishes
+     * queued requests during its own shutdown. Call before shutting JDA down.
+     */
+    public void shutdown() {
+        metricsScheduler.shutdownNow();
+
+        List<Task<?>> remaining = new ArrayList<>();
+        lock.lock();
+        try {
+            running = false;
+            for (Deque<Task<?>> queue : queues.values()) {
+                remaining.addAll(queue);
+                queue.clear();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatcher.interrupt();
+
+        for (Task<?> task : remaining) {
+            metrics.get(task.priority).queued.decrementAndGet();
+            execute(task, false);
+        }
+        if (!remaining.isEmpty()) {
+            logger.info("📡 Flushed {} queued Discord requests on shutdown", remaining.size());
+        }
+    }
+}
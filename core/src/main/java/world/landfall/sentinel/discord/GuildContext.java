@@ -0,0 +1,222 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.role.RoleCreateEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.GenericRoleUpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolved handles for the configured Discord roles and channels, shared by all listeners.
+ *
+ * Looking a role or channel up by ID makes JDA search every guild the bot is in, so the
+ * handles are resolved once when the bot is ready and then kept current from role, channel
+ * and guild gateway events instead of on every command or audit message. Getters return
+ * null for anything not configured or not currently visible to the bot.
+ */
+public class GuildContext extends ListenerAdapter {
+    private final String linkedRoleId;
+    private final String quarantineRoleId;
+    private final Set<String> staffRoleIds;
+    private final String moderationAuditChannelId;
+    private final String tosAuditChannelId;
+    private final Logger logger;
+
+    private JDA jda;
+    private volatile Role linkedRole;
+    private volatile Role quarantineRole;
+    private volatile List<Role> staffRoles = List.of();
+    private volatile TextChannel moderationAuditChannel;
+    private volatile TextChannel tosAuditChannel;
+
+    public GuildContext(String linkedRoleId, String quarantineRoleId, String[] staffRoleIds,
+                        String moderationAuditChannelId, String tosAuditChannelId, Logger logger) {
+        this.linkedRoleId = linkedRoleId;
+        this.quarantineRoleId = quarantineRoleId;
+        this.moderationAuditChannelId = moderationAuditChannelId;
+        this.tosAuditChannelId = tosAuditChannelId;
+        this.logger = logger;
+
+        Set<String> ids = new HashSet<>();
+        if (staffRoleIds != null) {
+            for (String id : staffRoleIds) {
+                if (id != null && !id.isBlank()) {
+                    ids.add(id);
+                }
+            }
+        }
+        this.staffRoleIds = Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Resolves every configured handle. Called once the bot is ready.
+     */
+    public synchronized void resolve(JDA jda) {
+        this.jda = jda;
+        resolveRoles();
+        resolveChannels();
+
+        logger.info("🧭 Guild context resolved: linked role {}, quarantine role {}, {}/{} staff roles, moderation audit {}, ToS audit {}",
+                describe(linkedRoleId, linkedRole), describe(quarantineRoleId, quarantineRole),
+                staffRoles.size(), staffRoleIds.size(),
+                describe(moderationAuditChannelId, moderationAuditChannel), describe(tosAuditChannelId, tosAuditChannel));
+    }
+
+    public Role getLinkedRole() {
+        return linkedRole;
+    }
+
+    public Role getQuarantineRole() {
+        return quarantineRole;
+    }
+
+    /**
+     * Returns the configured staff role IDs, blank entries removed, whether or not the roles currently exist.
+     */
+    public Set<String> getStaffRoleIds() {
+        return staffRoleIds;
+    }
+
+    public TextChannel getModerationAuditChannel() {
+        return moderationAuditChannel;
+    }
+
+    public TextChannel getTosAuditChannel() {
+        return tosAuditChannel;
+    }
+
+    public String getModerationAuditChannelId() {
+        return moderationAuditChannelId;
+    }
+
+    public String getTosAuditChannelId() {
+        return tosAuditChannelId;
+    }
+
+    @Override
+    public void onGuildReady(@Nonnull GuildReadyEvent event) {
+        refreshAll();
+    }
+
+    @Override
+    public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+        refreshAll();
+    }
+
+    @Override
+    public void onRoleCreate(@Nonnull RoleCreateEvent event) {
+        refreshRoleIfTracked(event.getRole().getId());
+    }
+
+    @Override
+    public void onRoleDelete(@Nonnull RoleDeleteEvent event) {
+        refreshRoleIfTracked(event.getRole().getId());
+    }
+
+    @Override
+    public void onGenericRoleUpdate(@Nonnull GenericRoleUpdateEvent event) {
+        refreshRoleIfTracked(event.getRole().getId());
+    }
+
+    @Override
+    public void onChannelCreate(@Nonnull ChannelCreateEvent event) {
+        refreshChannelIfTracked(event.getChannel().getId());
+    }
+
+    @Override
+    public void onChannelDelete(@Nonnull ChannelDeleteEvent event) {
+        refreshChannelIfTracked(event.getChannel().getId());
+    }
+
+    @Override
+    public void onGenericChannelUpdate(@Nonnull GenericChannelUpdateEvent<?> event) {
+        refreshChannelIfTracked(event.getChannel().getId());
+    }
+
+    private synchronized void refreshAll() {
+        if (jda == null) {
+            return;
+        }
+        resolveRoles();
+        resolveChannels();
+    }
+
+    private synchronized void refreshRoleIfTracked(String roleId) {
+        if (jda != null && (roleId.equals(linkedRoleId) || roleId.equals(quarantineRoleId) || staffRoleIds.contains(roleId))) {
+            logger.debug("🧭 Role {} changed, re-resolving roles", roleId);
+            resolveRoles();
+        }
+    }
+
+    private synchronized void refreshChannelIfTracked(String channelId) {
+        if (jda != null && (channelId.equals(moderationAuditChannelId) || channelId.equals(tosAuditChannelId))) {
+            logger.debug("🧭 Channel {} changed, re-resolving channels", channelId);
+            resolveChannels();
+        }
+    }
+
+    private void resolveRoles() {
+        linkedRole = roleById(linkedRoleId);
+        quarantineRole = roleById(quarantineRoleId);
+
+        List<Role> resolved = new ArrayList<>();
+        for (String id : staffRoleIds) {
+            Role role = roleById(id);
+            if (role != null) {
+                resolved.add(role);
+            }
+        }
+        staffRoles = List.copyOf(resolved);
+    }
+
+    private void resolveChannels() {
+        moderationAuditChannel = channelById(moderationAuditChannelId);
+        tosAuditChannel = channelById(tosAuditChannelId);
+    }
+
+    private Role roleById(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return jda.getRoleById(id);
+        } catch (NumberFormatException e) {
+            logger.warn("🧭 Configured role ID {} is not a valid snowflake", id);
+            return null;
+        }
+    }
+
+    private TextChannel channelById(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return jda.getTextChannelById(id);
+        } catch (NumberFormatException e) {
+            logger.warn("🧭 Configured channel ID {} is not a valid snowflake", id);
+            return null;
+        }
+    }
+
+    private static String describe(String configuredId, Object handle) {
+        if (configuredId == null || configuredId.isBlank()) {
+            return "not configured";
+        }
+        return handle != null ? "ok" : "NOT FOUND (" + configuredId + ")";
+    }
+}
@@ -4,13 +4,10 @@ import world.landfall.sentinel.context.GamePlatform;
 import world.landfall.sentinel.db.DatabaseManager;
 import world.landfall.sentinel.db.LinkInfo;
 import world.landfall.sentinel.moderation.ModerationManager;
-import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.OptionData;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
@@ -23,40 +20,36 @@ import java.util.Optional;
 /**
  * Handles the /history command for viewing moderation history.
  */
-public class HistoryCommandListener extends ListenerAdapter {
+public class HistoryCommandListener implements SlashCommandHandler {
     private final DatabaseManager db;
     private final ModerationManager moderationManager;
-    private final String[] staffRoles;
+    private final CommandExecutor commandExecutor;
     private final Logger logger;
 
     private final SlashCommandData commandData = Commands
             .slash("history", "View moderation history for a user")
             .addOption(OptionType.USER, "user", "User to check (Discord mention)", false)
-            .addOption(OptionType.STRING, "minecraft", "Minecraft username", false);
+            .addOption(OptionType.STRING, "minecraft", "Minecraft username", false, true);
 
-    public HistoryCommandListener(DatabaseManager db, ModerationManager moderationManager, String[] staffRoles, Logger logger) {
+    public HistoryCommandListener(DatabaseManager db, ModerationManager moderationManager, CommandExecutor commandExecutor, Logger logger) {
         this.db = db;
+        this.commandExecutor = commandExecutor;
         this.moderationManager = moderationManager;
-        this.staffRoles = staffRoles;
         this.logger = logger;
     }
 
+    @Override
     public SlashCommandData getCommandData() {
         return commandData;
     }
 
     @Override
-    public void onSlashCommandInteraction(@Nonnull SlashCommandInteractionEvent event) {
-        if (!"history".equals(event.getName())) return;
-
-        // Check staff permission
-        if (!hasStaffPermission(event)) {
-            event.reply("❌ You don't have permission to use this command.")
-                .setEphemeral(true)
-                .queue();
-            return;
-        }
+    public CommandAccess getAccess() {
+        return CommandAccess.NOTES;
+    }
 
+    @Override
+    public void handle(@Nonnull SlashCommandInteractionEvent event) {
         // Get options
         var userOpt = event.getOption("user");
         var minecraftOpt = event.getOption("minecraft");
@@ -68,73 +61,46 @@ public class HistoryCommandListener extends ListenerAdapter {
             return;
         }
 
-        // Defer reply (ephemeral - this is sensitive moderation history)
-        InteractionHook hook;
-        try {
-            hook = event.deferReply(true).complete();
-        } catch (Exception ex) {
-            logger.error("❌ Failed to defer /history interaction", ex);
-            return;
-        }
+        User user = userOpt != null ? userOpt.getAsUser() : null;
+        String mcUsername = minecraftOpt != null ? minecraftOpt.getAsString() : null;
+        String issuerTag = event.getUser().getAsTag();
+
+        // Ephemeral - this is sensitive moderation history
+        commandExecutor.deferAndRun("history", event, true, hook -> {
+            // Find the user
+            String discordId;
+            String displayName;
+
+            if (user != null) {
+                discordId = user.getId();
+                displayName = user.getAsTag();
+            } else {
+                // Look up by Minecraft username
+                Optional<LinkInfo> linkInfo = db.findByUsername(mcUsername, GamePlatform.MINECRAFT);
+
+                if (linkInfo.isEmpty()) {
+                    return hook.sendMessage("❌ No linked account found for Minecraft user: " + mcUsername);
+                }
 
-        // Find the user
-        String discordId;
-        String displayName;
-
-        if (userOpt != null) {
-            User user = userOpt.getAsUser();
-            discordId = user.getId();
-            displayName = user.getAsTag();
-        } else {
-            // Look up by Minecraft username
-            String mcUsername = minecraftOpt.getAsString();
-            Optional<LinkInfo> linkInfo = db.findByUsername(mcUsername, GamePlatform.MINECRAFT);
-
-            if (linkInfo.isEmpty()) {
-                hook.sendMessage("❌ No linked account found for Minecraft user: " + mcUsername).queue();
-                return;
+                discordId = linkInfo.get().discordId();
+                displayName = mcUsername + " (MC)";
             }
 
-            discordId = linkInfo.get().discordId();
-            displayName = mcUsername + " (MC)";
-        }
-
-        // Get moderation history
-        List<DatabaseManager.ModerationAction> history = moderationManager.getHistory(discordId);
+            // Get moderation history
+            List<DatabaseManager.ModerationAction> history = moderationManager.getHistory(discordId);
 
-        // Send history embed
-        hook.sendMessageEmbeds(
-            moderationManager.createHistoryEmbed(discordId, history)
-        ).queue();
-
-        logger.info("📋 {} viewed moderation history for {} ({} actions)",
-            event.getUser().getAsTag(), displayName, history.size());
+            logger.info("📋 {} viewed moderation history for {} ({} actions)",
+                issuerTag, displayName, history.size());
+            return hook.sendMessageEmbeds(
+                moderationManager.createHistoryEmbed(discordId, history)
+            );
+        });
     }
 
-    private boolean hasStaffPermission(SlashCommandInteractionEvent event) {
-        if (staffRoles == null || staffRoles.length == 0) {
-            return false;
-        }
-
-        Guild guild = event.getGuild();
-        if (guild == null) {
-            return false;
-        }
-
-        Member member = event.getMember();
-        if (member == null) {
-            return false;
-        }
-
-        for (String staffRoleId : staffRoles) {
-            if (staffRoleId != null && !staffRoleId.isBlank()) {
-                Role staffRole = guild.getRoleById(staffRoleId);
-                if (staffRole != null && member.getRoles().contains(staffRole)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+    @Override
+    public void handleAutoComplete(@Nonnull CommandAutoCompleteInteractionEvent event) {
+        event.replyChoiceStrings(db.getUsernameIndex().complete(GamePlatform.MINECRAFT, event.getFocusedOption().getValue(), OptionData.MAX_CHOICES))
+            .queue();
     }
+
 }
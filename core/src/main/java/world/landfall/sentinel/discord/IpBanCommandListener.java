@@ -0,0 +1,200 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.IpBanInfo;
+import world.landfall.sentinel.moderation.IpBanManager;
+import world.landfall.sentinel.moderation.ModerationManager;
+import world.landfall.sentinel.util.CidrRange;
+import world.landfall.sentinel.util.DurationParser;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Handles the /ipban command for banning IP addresses and subnets.
+ */
+public class IpBanCommandListener implements SlashCommandHandler {
+    private static final int MAX_LISTED = 25;
+    // Wider ranges would lock out large parts of the internet, staff included
+    private static final int MIN_IPV4_PREFIX = 16;
+    private static final int MIN_IPV6_PREFIX = 32;
+
+    private final IpBanManager ipBanManager;
+    private final ModerationManager moderationManager;
+    private final CommandExecutor commandExecutor;
+    private final Logger logger;
+
+    private final SlashCommandData commandData = Commands
+            .slash("ipban", "Manage IP address and subnet bans")
+            .addSubcommands(
+                new SubcommandData("add", "Ban an IP address or CIDR range")
+                    .addOption(OptionType.STRING, "range", "IP or CIDR range (e.g., 203.0.113.7, 203.0.113.0/24, 2001:db8::/32)", true)
+                    .addOption(OptionType.STRING, "duration", "Ban duration (e.g., 30m, 2h, 3d, 1w) - leave empty for permanent", false)
+                    .addOption(OptionType.STRING, "reason", "Reason for ban", false),
+                new SubcommandData("remove", "Remove an IP or CIDR range ban")
+                    .addOption(OptionType.STRING, "range", "The banned IP or CIDR range", true),
+                new SubcommandData("list", "List active IP bans")
+            );
+
+    public IpBanCommandListener(IpBanManager ipBanManager, ModerationManager moderationManager, CommandExecutor commandExecutor, Logger logger) {
+        this.ipBanManager = ipBanManager;
+        this.moderationManager = moderationManager;
+        this.commandExecutor = commandExecutor;
+        this.logger = logger;
+    }
+
+    @Override
+    public SlashCommandData getCommandData() {
+        return commandData;
+    }
+
+    @Override
+    public CommandAccess getAccess() {
+        return CommandAccess.STAFF_OR_BAN_MEMBERS;
+    }
+
+    @Override
+    public void handle(@Nonnull SlashCommandInteractionEvent event) {
+        String subcommand = event.getSubcommandName();
+        if ("add".equals(subcommand)) {
+            handleAdd(event);
+        } else if ("remove".equals(subcommand)) {
+            handleRemove(event);
+        } else if ("list".equals(subcommand)) {
+            handleList(event);
+        }
+    }
+
+    private void handleAdd(SlashCommandInteractionEvent event) {
+        var rangeOpt = event.getOption("range");
+        var durationOpt = event.getOption("duration");
+        var reasonOpt = event.getOption("reason");
+
+        Optional<CidrRange> range = parseRange(event, rangeOpt != null ? rangeOpt.getAsString() : null);
+        if (range.isEmpty()) {
+            return;
+        }
+        int minPrefix = range.get().isIpv4() ? MIN_IPV4_PREFIX : MIN_IPV6_PREFIX;
+        if (range.get().prefixLength() < minPrefix) {
+            event.reply("❌ " + range.get() + " is too broad. " + (range.get().isIpv4() ? "IPv4" : "IPv6")
+                    + " bans must be /" + minPrefix + " or narrower.")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
+        String reason = reasonOpt != null ? reasonOpt.getAsString() : "No reason provided";
+        String durationStr = durationOpt != null ? durationOpt.getAsString() : null;
+
+        Instant expiresAt = null;
+        String durationDisplay = "Permanent";
+        if (durationStr != null && !durationStr.trim().isEmpty()) {
+            if (!DurationParser.isValidDuration(durationStr)) {
+                event.reply("❌ Invalid duration format. Use formats like: 30m, 2h, 3d, 1w")
+                    .setEphemeral(true)
+                    .queue();
+                return;
+            }
+            expiresAt = DurationParser.parseDurationToExpiry(durationStr);
+            durationDisplay = DurationParser.formatDuration(DurationParser.parseDurationToSeconds(durationStr));
+        }
+
+        Instant banExpiresAt = expiresAt;
+        String banDuration = durationDisplay;
+        String issuerId = event.getUser().getId();
+        String issuerTag = event.getUser().getAsTag();
+
+        commandExecutor.deferAndRun("ipban", event, true, hook -> {
+            Optional<IpBanInfo> ban = ipBanManager.addBan(range.get(), reason, banExpiresAt, issuerId);
+            if (ban.isEmpty()) {
+                return hook.sendMessage("❌ Failed to add IP ban. Check logs for details.");
+            }
+
+            moderationManager.recordIpBan(ban.get(), banDuration);
+            logger.info("🔨 {} IP banned {} ({}) for: {}",
+                issuerTag, ban.get().cidr(), banDuration, reason);
+            return hook.sendMessageEmbeds(moderationManager.createIpBanEmbed(ban.get(), banDuration));
+        });
+    }
+
+    private void handleRemove(SlashCommandInteractionEvent event) {
+        var rangeOpt = event.getOption("range");
+
+        Optional<CidrRange> range = parseRange(event, rangeOpt != null ? rangeOpt.getAsString() : null);
+        if (range.isEmpty()) {
+            return;
+        }
+
+        String issuerId = event.getUser().getId();
+        String issuerTag = event.getUser().getAsTag();
+
+        commandExecutor.deferAndRun("ipban", event, true, hook -> {
+            Optional<IpBanInfo> removed;
+            try {
+                removed = ipBanManager.removeBan(range.get());
+            } catch (SQLException e) {
+                logger.error("Error removing IP ban on {}", range.get(), e);
+                return hook.sendMessage("❌ Failed to remove IP ban. Check logs for details.");
+            }
+            if (removed.isEmpty()) {
+                return hook.sendMessage("ℹ️ " + range.get() + " is not currently banned.");
+            }
+
+            moderationManager.recordIpUnban(removed.get(), issuerId);
+            logger.info("✅ {} removed IP ban on {}", issuerTag, removed.get().cidr());
+            return hook.sendMessage("✅ Removed IP ban on **" + removed.get().cidr() + "**");
+        });
+    }
+
+    private void handleList(SlashCommandInteractionEvent event) {
+        // The ban list is served from memory, so this never waits on the database
+        List<IpBanInfo> bans = ipBanManager.getActiveBans();
+        if (bans.isEmpty()) {
+            event.reply("ℹ️ There are no active IP bans.")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append("**Active IP bans (").append(bans.size()).append(")**\n");
+        for (int i = 0; i < bans.size() && i < MAX_LISTED; i++) {
+            IpBanInfo ban = bans.get(i);
+            message.append("`").append(ban.cidr()).append("` - ")
+                .append(ban.getFormattedTimeRemaining()).append(" - ")
+                .append(ban.reason()).append("\n");
+        }
+        if (bans.size() > MAX_LISTED) {
+            message.append("...and ").append(bans.size() - MAX_LISTED).append(" more");
+        }
+
+        // Discord message limit
+        String text = message.length() > 2000 ? message.substring(0, 1997) + "..." : message.toString();
+        event.reply(text)
+            .setEphemeral(true)
+            .queue();
+    }
+
+    /**
+     * Parses a range option, replying with an error if it is invalid.
+     */
+    private Optional<CidrRange> parseRange(SlashCommandInteractionEvent event, String value) {
+        try {
+            return Optional.of(CidrRange.parse(value));
+        } catch (IllegalArgumentException e) {
+            event.reply("❌ Invalid IP or CIDR range: " + e.getMessage())
+                .setEphemeral(true)
+                .queue();
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.BulkTargets;
+import world.landfall.sentinel.moderation.ModerationManager;
+import world.landfall.sentinel.util.DurationParser;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handles the /massban command for banning many users at once, such as during a raid.
+ *
+ * Targets are checked with one query for existing bans and linked accounts, and the bans
+ * and quarantines are written as JDBC batches in one transaction. They are published as one
+ * event, from which the quarantine roles are added, online accounts kicked and a single
+ * summary sent to the audit channel.
+ */
+public class MassBanCommandListener implements SlashCommandHandler {
+    private final DatabaseManager db;
+    private final ModerationManager moderationManager;
+    private final CommandExecutor commandExecutor;
+    private final String quarantineRoleId;
+    private final Logger logger;
+
+    private final SlashCommandData commandData = Commands
+            .slash("massban", "Ban many users from the server at once")
+            .addOption(OptionType.STRING, "users", "Mentions or Discord IDs, separated by spaces or commas", true)
+            .addOption(OptionType.STRING, "duration", "Ban duration (e.g., 30m, 2h, 3d, 1w) - leave empty for permanent", false)
+            .addOption(OptionType.STRING, "reason", "Reason for ban", false);
+
+    public MassBanCommandListener(DatabaseManager db, ModerationManager moderationManager, CommandExecutor commandExecutor, String quarantineRoleId, Logger logger) {
+        this.db = db;
+        this.moderationManager = moderationManager;
+        this.commandExecutor = commandExecutor;
+        this.quarantineRoleId = quarantineRoleId;
+        this.logger = logger;
+    }
+
+    @Override
+    public SlashCommandData getCommandData() {
+        return commandData;
+    }
+
+    @Override
+    public CommandAccess getAccess() {
+        return CommandAccess.STAFF_OR_BAN_MEMBERS;
+    }
+
+    @Override
+    public void handle(@Nonnull SlashCommandInteractionEvent event) {
+        var usersOpt = event.getOption("users");
+        var durationOpt = event.getOption("duration");
+        var reasonOpt = event.getOption("reason");
+
+        MassTargets.Parsed parsed = MassTargets.parse(usersOpt != null ? usersOpt.getAsString() : null);
+        if (parsed.discordIds().isEmpty()) {
+            event.reply("❌ No users found. Give mentions or Discord IDs separated by spaces or commas.")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+        if (parsed.discordIds().size() > MassTargets.MAX_TARGETS) {
+            event.reply("❌ At most " + MassTargets.MAX_TARGETS + " users can be banned at once (got " + parsed.discordIds().size() + ").")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
+        String reason = reasonOpt != null ? reasonOpt.getAsString() : "No reason provided";
+        String durationStr = durationOpt != null ? durationOpt.getAsString() : null;
+
+        Instant expiresAt = null;
+        String durationDisplay = "Permanent";
+        if (durationStr != null && !durationStr.trim().isEmpty()) {
+            if (!DurationParser.isValidDuration(durationStr)) {
+                event.reply("❌ Invalid duration format. Use formats like: 30m, 2h, 3d, 1w")
+                    .setEphemeral(true)
+                    .queue();
+                return;
+            }
+            expiresAt = DurationParser.parseDurationToExpiry(durationStr);
+            durationDisplay = DurationParser.formatDuration(DurationParser.parseDurationToSeconds(durationStr));
+        }
+
+        String issuerId = event.getUser().getId();
+        String issuerTag = event.getUser().getAsTag();
+        Instant banExpiresAt = expiresAt;
+        String banDuration = durationDisplay;
+
+        commandExecutor.deferAndRun("massban", event, true, hook -> {
+            BulkTargets targets = db.getBulkTargets(parsed.discordIds(), true);
+            if (targets == null) {
+                return hook.sendMessage("❌ Failed to look up users. Check logs for details.");
+            }
+
+            List<String> toBan = new ArrayList<>();
+            for (String discordId : parsed.discordIds()) {
+                if (!targets.activeQuarantines().containsKey(discordId)) {
+                    toBan.add(discordId);
+                }
+            }
+            int alreadyBanned = parsed.discordIds().size() - toBan.size();
+            if (toBan.isEmpty()) {
+                return hook.sendMessage("❌ All " + alreadyBanned + " users are already banned." + MassTargets.describeInvalid(parsed.invalid()));
+            }
+
+            boolean quarantine = quarantineRoleId != null && !quarantineRoleId.isBlank();
+            List<Long> actionIds = moderationManager.recordMassAction(toBan, targets.links(), "BAN", reason, issuerId,
+                    banDuration, quarantine, banExpiresAt);
+            if (actionIds.isEmpty()) {
+                return hook.sendMessage("❌ Failed to record bans. Nothing was changed. Check logs for details.");
+            }
+
+            logger.info("🔨 {} mass banned {} users (#{}-#{}) for: {}{}",
+                issuerTag, toBan.size(), actionIds.get(0), actionIds.get(actionIds.size() - 1), reason,
+                quarantine ? "" : " (no quarantine role configured)");
+
+            StringBuilder reply = new StringBuilder()
+                .append("🔨 Banned **").append(toBan.size()).append("** users (").append(banDuration).append(").");
+            if (alreadyBanned > 0) {
+                reply.append("\nSkipped ").append(alreadyBanned).append(" already banned.");
+            }
+            reply.append(MassTargets.describeInvalid(parsed.invalid()));
+            return hook.sendMessage(reply.toString());
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package world.landfall.sentinel.discord;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the user list given to /massban and /masswarn: mentions or raw IDs, separated by
+ * spaces, commas or new lines, as pasted from Discord or a raid report.
+ */
+final class MassTargets {
+    // Most users one command may target, keeping a single transaction and reply reasonable
+    static final int MAX_TARGETS = 100;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,;]+");
+    private static final Pattern SNOWFLAKE = Pattern.compile("[0-9]{17,20}");
+
+    private MassTargets() {}
+
+    /**
+     * Discord IDs in the order first given, without duplicates, and the tokens that were not users.
+     */
+    record Parsed(List<String> discordIds, List<String> invalid) {}
+
+    static Parsed parse(String input) {
+        Set<String> ids = new LinkedHashSet<>();
+        List<String> invalid = new ArrayList<>();
+        if (input == null) {
+            return new Parsed(List.of(), invalid);
+        }
+
+        for (String token : SEPARATORS.split(input.trim())) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String id = token;
+            if (id.startsWith("<@") && id.endsWith(">")) {
+                id = id.substring(id.startsWith("<@!") ? 3 : 2, id.length() - 1);
+            }
+            if (SNOWFLAKE.matcher(id).matches()) {
+                ids.add(id);
+            } else {
+                invalid.add(token);
+            }
+        }
+        return new Parsed(new ArrayList<>(ids), invalid);
+    }
+
+    /**
+     * Describes the tokens that were ignored, for the staff reply.
+     */
+    static String describeInvalid(List<String> invalid) {
+        if (invalid.isEmpty()) {
+            return "";
+        }
+        List<String> shown = invalid.subList(0, Math.min(5, invalid.size())).stream()
+                .map(token -> token.replace("`", ""))
+                .toList();
+        String more = invalid.size() > shown.size() ? " and " + (invalid.size() - shown.size()) + " more" : "";
+        return "\n⚠ Ignored " + invalid.size() + " entries that are not users: `" + String.join("`, `", shown) + "`" + more;
+    }
+}
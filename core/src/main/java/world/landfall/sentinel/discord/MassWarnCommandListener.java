@@ -0,0 +1,98 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.BulkTargets;
+import world.landfall.sentinel.moderation.ModerationManager;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Handles the /masswarn command for warning many users at once.
+ *
+ * The warnings are written as one JDBC batch and published as one event, from which a single
+ * summary goes to the audit channel and each user's DM to the {@link DirectMessageQueue}.
+ */
+public class MassWarnCommandListener implements SlashCommandHandler {
+    private final DatabaseManager db;
+    private final ModerationManager moderationManager;
+    private final CommandExecutor commandExecutor;
+    private final Logger logger;
+
+    private final SlashCommandData commandData = Commands
+            .slash("masswarn", "Issue the same warning to many users at once")
+            .addOption(OptionType.STRING, "users", "Mentions or Discord IDs, separated by spaces or commas", true)
+            .addOption(OptionType.STRING, "reason", "Reason for warning", true);
+
+    public MassWarnCommandListener(DatabaseManager db, ModerationManager moderationManager, CommandExecutor commandExecutor, Logger logger) {
+        this.db = db;
+        this.moderationManager = moderationManager;
+        this.commandExecutor = commandExecutor;
+        this.logger = logger;
+    }
+
+    @Override
+    public SlashCommandData getCommandData() {
+        return commandData;
+    }
+
+    @Override
+    public CommandAccess getAccess() {
+        return CommandAccess.STAFF;
+    }
+
+    @Override
+    public void handle(@Nonnull SlashCommandInteractionEvent event) {
+        var usersOpt = event.getOption("users");
+        var reasonOpt = event.getOption("reason");
+
+        if (usersOpt == null || reasonOpt == null) {
+            event.reply("❌ Users and reason are required.")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
+        MassTargets.Parsed parsed = MassTargets.parse(usersOpt.getAsString());
+        if (parsed.discordIds().isEmpty()) {
+            event.reply("❌ No users found. Give mentions or Discord IDs separated by spaces or commas.")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+        if (parsed.discordIds().size() > MassTargets.MAX_TARGETS) {
+            event.reply("❌ At most " + MassTargets.MAX_TARGETS + " users can be warned at once (got " + parsed.discordIds().size() + ").")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
+        String reason = reasonOpt.getAsString();
+        String issuerId = event.getUser().getId();
+        String issuerTag = event.getUser().getAsTag();
+
+        commandExecutor.deferAndRun("masswarn", event, true, hook -> {
+            BulkTargets targets = db.getBulkTargets(parsed.discordIds(), false);
+            if (targets == null) {
+                return hook.sendMessage("❌ Failed to look up users. Check logs for details.");
+            }
+
+            List<String> discordIds = parsed.discordIds();
+            List<Long> actionIds = moderationManager.recordMassAction(discordIds, targets.links(), "WARN", reason, issuerId,
+                    null, false, null);
+            if (actionIds.isEmpty()) {
+                return hook.sendMessage("❌ Failed to record warnings. Nothing was changed. Check logs for details.");
+            }
+
+            logger.info("⚠ {} mass warned {} users (#{}-#{}) for: {}",
+                issuerTag, discordIds.size(), actionIds.get(0), actionIds.get(actionIds.size() - 1), reason);
+            return hook.sendMessage("⚠ Warned **" + discordIds.size() + "** users. They will be notified by DM, or in game if their DMs are closed."
+                + MassTargets.describeInvalid(parsed.invalid()));
+        });
+    }
+}
@@ -0,0 +1,202 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which users are members of each guild the bot is in, kept as snowflake IDs only.
+ *
+ * This is all Sentinel needs to know about members outside of interactions, which carry
+ * their own member data, so JDA's member cache can be turned off. Each guild's IDs are
+ * loaded once through gateway chunking when the guild is ready, streamed straight into a
+ * {@link SnowflakeSet} without JDA keeping the members, and then kept current from join
+ * and remove events. Departures seen while a guild is still loading are applied again
+ * once it finishes, since the chunk they were in may predate them.
+ */
+public class MemberDirectory extends ListenerAdapter {
+    private final Logger logger;
+    private final Map<Long, Members> guilds = new ConcurrentHashMap<>();
+    // Run once every guild's members are loaded; guarded by itself
+    private final List<Runnable> whenLoaded = new ArrayList<>();
+
+    public MemberDirectory(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Returns whether the user is a member of the guild, or null if the guild's members
+     * are not loaded yet and the caller has to ask Discord.
+     */
+    public Boolean isMember(Guild guild, long userId) {
+        Members members = guilds.get(guild.getIdLong());
+        if (members == null) {
+            return null;
+        }
+        synchronized (members) {
+            return members.loaded ? members.ids.contains(userId) : null;
+        }
+    }
+
+    /**
+     * Returns whether the user is a member of any guild the bot is in, or null unless every
+     * guild's members are loaded.
+     */
+    public Boolean isMemberOfAnyGuild(long userId) {
+        if (guilds.isEmpty()) {
+            return null;
+        }
+        boolean member = false;
+        for (Members members : guilds.values()) {
+            synchronized (members) {
+                if (!members.loaded) {
+                    return null;
+                }
+                member |= members.ids.contains(userId);
+            }
+        }
+        return member;
+    }
+
+    /**
+     * Runs {@code task} once the members of every guild are loaded, right away if they already
+     * are. Runs on the JDA thread that finished the last load, so the task should hand off any
+     * real work. Never runs if a guild's members fail to load.
+     */
+    public void whenAllLoaded(Runnable task) {
+        synchronized (whenLoaded) {
+            if (!allLoaded()) {
+                whenLoaded.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    private boolean allLoaded() {
+        if (guilds.isEmpty()) {
+            return false;
+        }
+        for (Members members : guilds.values()) {
+            synchronized (members) {
+                if (!members.loaded) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of members tracked for the guild, or -1 if not loaded yet.
+     */
+    public int size(Guild guild) {
+        Members members = guilds.get(guild.getIdLong());
+        if (members == null) {
+            return -1;
+        }
+        synchronized (members) {
+            return members.loaded ? members.ids.size() : -1;
+        }
+    }
+
+    @Override
+    public void onGuildReady(@Nonnull GuildReadyEvent event) {
+        Guild guild = event.getGuild();
+        Members members = new Members(guild.getMemberCount());
+        guilds.put(guild.getIdLong(), members);
+
+        long startedAt = System.currentTimeMillis();
+        guild.loadMembers(member -> {
+            synchronized (members) {
+                members.ids.add(member.getIdLong());
+            }
+        }).onSuccess(ignored -> {
+            int count;
+            long bytes;
+            synchronized (members) {
+                for (long departed : members.departedWhileLoading) {
+                    members.ids.remove(departed);
+                }
+                members.departedWhileLoading = null;
+                members.loaded = true;
+                count = members.ids.size();
+                bytes = members.ids.sizeInBytes();
+            }
+            logMemory(guild, count, bytes, System.currentTimeMillis() - startedAt);
+
+            List<Runnable> ready;
+            synchronized (whenLoaded) {
+                if (!allLoaded()) {
+                    return; // Other guilds are still loading
+                }
+                ready = new ArrayList<>(whenLoaded);
+                whenLoaded.clear();
+            }
+            ready.forEach(Runnable::run);
+        }).onError(error -> logger.warn("👥 Could not load members of {}, membership checks will ask Discord: {}",
+                guild.getName(), error.toString()));
+    }
+
+    @Override
+    public void onGuildMemberJoin(@Nonnull GuildMemberJoinEvent event) {
+        Members members = guilds.get(event.getGuild().getIdLong());
+        if (members != null) {
+            synchronized (members) {
+                members.ids.add(event.getUser().getIdLong());
+                if (members.departedWhileLoading != null) {
+                    members.departedWhileLoading.remove(event.getUser().getIdLong());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onGuildMemberRemove(@Nonnull GuildMemberRemoveEvent event) {
+        Members members = guilds.get(event.getGuild().getIdLong());
+        if (members != null) {
+            synchronized (members) {
+                members.ids.remove(event.getUser().getIdLong());
+                if (members.departedWhileLoading != null) {
+                    members.departedWhileLoading.add(event.getUser().getIdLong());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+        guilds.remove(event.getGuild().getIdLong());
+    }
+
+    private void logMemory(Guild guild, int count, long bytes, long millis) {
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        logger.info("👥 Loaded {} members of {} in {}ms: {} KB tracked, {} in JDA's member cache, {} MB heap used",
+                count, guild.getName(), millis, bytes / 1024, guild.getMemberCache().size(), heapUsedMb);
+    }
+
+    /**
+     * One guild's member IDs. Guarded by its own monitor.
+     */
+    private static final class Members {
+        final SnowflakeSet ids;
+        // Non-null until the initial load completes
+        SnowflakeSet departedWhileLoading = new SnowflakeSet(16);
+        boolean loaded;
+
+        Members(int expectedSize) {
+            this.ids = new SnowflakeSet(expectedSize);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.context.PlatformAdapter;
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.BulkTargets;
+import world.landfall.sentinel.db.LinkInfo;
+import world.landfall.sentinel.moderation.ModerationEvent;
+import world.landfall.sentinel.moderation.ModerationEventBus;
+import org.slf4j.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically finds linked accounts whose Discord user is no longer in the server.
+ *
+ * Departures are normally recorded from gateway events, but any missed while the bot was
+ * offline or disconnected used to surface only at login or during role sync, one user at
+ * a time. This job walks linked_accounts in discord_id order, one page at a time, and
+ * checks each ID against the {@link MemberDirectory}, a member snapshot loaded once
+ * through gateway chunking and kept current since. It makes no REST call per user.
+ *
+ * Modes:
+ * <ul>
+ *   <li>REPORT counts departed users and logs a summary.</li>
+ *   <li>DRY_RUN also logs which Discord IDs would be marked and unlinked.</li>
+ *   <li>APPLY marks each page's departed users and removes their links in one batched
+ *       UPDATE and DELETE per page. Links with moderation history are kept and stay
+ *       marked, as with a live departure. Online sessions are kicked.</li>
+ * </ul>
+ * In APPLY mode progress is checkpointed in sentinel_state, so a restart resumes where
+ * the last run stopped. Every run logs its throughput in links checked per second.
+ */
+public class MembershipReconciler {
+
+    public enum Mode { OFF, REPORT, DRY_RUN, APPLY }
+
+    private static final int PAGE_SIZE = 1000;
+    private static final String CURSOR_KEY = "membership_reconcile.cursor";
+    private static final String LAST_RUN_KEY = "membership_reconcile.last_run";
+
+    private final DatabaseManager database;
+    private final MemberDirectory memberDirectory;
+    private final PlatformAdapter platformAdapter;
+    private final ModerationEventBus eventBus;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+
+    private Mode mode = Mode.OFF;
+
+    public MembershipReconciler(DatabaseManager database, MemberDirectory memberDirectory, PlatformAdapter platformAdapter,
+                                ModerationEventBus eventBus, Logger logger) {
+        this.database = database;
+        this.memberDirectory = memberDirectory;
+        this.platformAdapter = platformAdapter;
+        this.eventBus = eventBus;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-MembershipReconciler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Parses the configured mode, treating anything unknown as OFF.
+     */
+    public static Mode parseMode(String name, Logger logger) {
+        try {
+            return Mode.valueOf(name == null ? "OFF" : name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Unknown membershipReconcileMode '{}', membership reconciliation disabled", name);
+            return Mode.OFF;
+        }
+    }
+
+    /**
+     * Starts reconciling every {@code intervalHours}, first after a delay that leaves time
+     * for the member snapshot to load.
+     */
+    public void start(Mode mode, int intervalHours) {
+        this.mode = mode;
+        if (mode == Mode.OFF || intervalHours <= 0) {
+            logger.info("👥 Membership reconciliation disabled");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::reconcile, 10, TimeUnit.HOURS.toMinutes(intervalHours), TimeUnit.MINUTES);
+        logger.info("👥 Membership reconciliation will run every {} hours in {} mode", intervalHours, mode);
+    }
+
+    private void reconcile() {
+        try {
+            boolean apply = mode == Mode.APPLY;
+            String cursor = apply ? database.getState(CURSOR_KEY).orElse("") : "";
+            if (!cursor.isEmpty()) {
+                logger.info("👥 Resuming membership reconciliation after Discord ID {}", cursor);
+            }
+
+            long startedAt = System.nanoTime();
+            int checked = 0;
+            int departed = 0;
+            int marked = 0;
+            int unlinked = 0;
+            int kicked = 0;
+
+            while (true) {
+                List<String> page = database.getPresentLinkedDiscordIdsPage(cursor, PAGE_SIZE);
+                if (page == null) {
+                    logger.warn("👥 Could not read linked accounts, stopping membership reconciliation");
+                    return;
+                }
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<String> gone = new ArrayList<>();
+                for (String discordId : page) {
+                    long id;
+                    try {
+                        id = Long.parseLong(discordId);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    Boolean member = memberDirectory.isMemberOfAnyGuild(id);
+                    if (member == null) {
+                        logger.info("👥 Guild members not loaded, postponing membership reconciliation");
+                        return;
+                    }
+                    if (!member) {
+                        gone.add(discordId);
+                    }
+                }
+                checked += page.size();
+                departed += gone.size();
+
+                if (!gone.isEmpty()) {
+                    if (mode == Mode.DRY_RUN) {
+                        logger.info("👥 [dry run] Would mark and unlink {} departed Discord users: {}", gone.size(), gone);
+                    } else if (apply) {
+                        BulkTargets targets = database.getBulkTargets(gone, false);
+                        marked += database.markLeftGuild(gone, Instant.now());
+                        List<LinkInfo> removed = database.removeLinksByDiscordIds(gone);
+                        unlinked += removed.size();
+                        removed.stream().map(LinkInfo::discordId).distinct()
+                                .forEach(discordId -> eventBus.publish(new ModerationEvent.Unlinked(discordId)));
+                        if (targets != null) {
+                            kicked += kickOnline(targets);
+                        }
+                    }
+                }
+
+                cursor = page.get(page.size() - 1);
+                if (apply) {
+                    database.setState(CURSOR_KEY, cursor);
+                }
+            }
+
+            if (apply) {
+                database.clearState(CURSOR_KEY);
+            }
+
+            double seconds = Math.max(0.001, (System.nanoTime() - startedAt) / 1_000_000_000.0);
+            String summary = String.format(Locale.ROOT,
+                    "%s: %d linked users checked, %d departed, %d links marked, %d unlinked, %d kicked, in %.1fs (%.0f links/s)",
+                    mode, checked, departed, marked, unlinked, kicked, seconds, checked / seconds);
+            logger.info("👥 Membership reconciliation {}", summary);
+            database.setState(LAST_RUN_KEY, Instant.now() + " " + summary);
+        } catch (Exception e) {
+            logger.error("👥 Error during membership reconciliation", e);
+        }
+    }
+
+    private int kickOnline(BulkTargets targets) {
+        int kicked = 0;
+        for (List<LinkInfo> links : targets.links().values()) {
+            for (LinkInfo link : links) {
+                if (platformAdapter.getPlayer(link.uuid()).isPresent()) {
+                    platformAdapter.kickPlayer(link.uuid(),
+                            "DISCORD MEMBERSHIP REQUIRED\n\nYou are no longer in the Discord server. Rejoin it to keep playing.");
+                    kicked++;
+                }
+            }
+        }
+        return kicked;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
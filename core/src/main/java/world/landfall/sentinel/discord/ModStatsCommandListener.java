@@ -0,0 +1,84 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.moderation.ModerationManager;
+import world.landfall.sentinel.moderation.ModerationStatsBackfill;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionData;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Handles the /modstats command for viewing moderation statistics.
+ * Reads the daily rollups only, so it costs the same however long the moderation history is.
+ */
+public class ModStatsCommandListener implements SlashCommandHandler {
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 90;
+
+    private final DatabaseManager db;
+    private final ModerationManager moderationManager;
+    private final ModerationStatsBackfill statsBackfill;
+    private final CommandExecutor commandExecutor;
+    private final Logger logger;
+
+    private final SlashCommandData commandData = Commands
+            .slash("modstats", "View moderation statistics by staff member and week")
+            .addOptions(new OptionData(OptionType.INTEGER, "days", "Days to cover, ending today (default " + DEFAULT_DAYS + ")", false)
+                    .setRequiredRange(1, MAX_DAYS))
+            .addOption(OptionType.USER, "staff", "Only count actions issued by this staff member", false);
+
+    public ModStatsCommandListener(DatabaseManager db, ModerationManager moderationManager, ModerationStatsBackfill statsBackfill,
+                                   CommandExecutor commandExecutor, Logger logger) {
+        this.db = db;
+        this.moderationManager = moderationManager;
+        this.statsBackfill = statsBackfill;
+        this.commandExecutor = commandExecutor;
+        this.logger = logger;
+    }
+
+    @Override
+    public SlashCommandData getCommandData() {
+        return commandData;
+    }
+
+    @Override
+    public CommandAccess getAccess() {
+        return CommandAccess.STAFF;
+    }
+
+    @Override
+    public void handle(@Nonnull SlashCommandInteractionEvent event) {
+        // Get options
+        var daysOpt = event.getOption("days");
+        var staffOpt = event.getOption("staff");
+
+        int days = daysOpt != null ? daysOpt.getAsInt() : DEFAULT_DAYS;
+        User staff = staffOpt != null ? staffOpt.getAsUser() : null;
+        String staffId = staff != null ? staff.getId() : null;
+        String issuerTag = event.getUser().getAsTag();
+
+        // Ephemeral - staff activity is internal
+        commandExecutor.deferAndRun("modstats", event, true, hook -> {
+            LocalDate since = LocalDate.now(ZoneOffset.UTC).minusDays(days - 1);
+            List<DatabaseManager.DailyStat> stats = db.getDailyStats(since, staffId);
+            if (stats == null) {
+                return hook.sendMessage("❌ Failed to load moderation statistics. Check logs for details.");
+            }
+
+            logger.info("📊 {} viewed moderation stats for the last {} days{}", issuerTag, days,
+                staff != null ? " of " + staff.getAsTag() : "");
+            return hook.sendMessageEmbeds(
+                moderationManager.createStatsEmbed(stats, days, staffId, statsBackfill.isComplete())
+            );
+        });
+    }
+}
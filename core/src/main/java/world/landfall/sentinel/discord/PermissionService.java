@@ -0,0 +1,163 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which command access levels a guild member has.
+ *
+ * Configured staff and note role IDs are kept as sorted primitive arrays, so evaluating a
+ * member is one pass over their roles with a binary search each. The result is cached per
+ * guild and member as a small bit set, so repeat commands from the same member cost a map
+ * lookup. Cached decisions are dropped when the member gains or loses a role or leaves,
+ * and a guild's cache is cleared when a role is deleted or its permissions change.
+ * Role add and remove events need the member to be in JDA's member cache, so a generic
+ * member update, which is sent for uncached members too, also drops the decision.
+ *
+ * JDA delivers gateway events and interactions on the same event thread, so a decision is
+ * never computed from a member's roles while an invalidating event for them is pending.
+ */
+public class PermissionService extends ListenerAdapter {
+    private static final int GRANT_STAFF = 1;
+    private static final int GRANT_NOTES = 1 << 1;
+    private static final int GRANT_BAN_MEMBERS = 1 << 2;
+
+    private final long[] staffRoleIds;
+    private final long[] noteRoleIds;
+    private final Logger logger;
+
+    // guild ID -> member ID -> grant bits
+    private final Map<Long, Map<Long, Integer>> decisions = new ConcurrentHashMap<>();
+
+    public PermissionService(String[] staffRoleIds, String[] noteRoleIds, Logger logger) {
+        this.logger = logger;
+        this.staffRoleIds = toSortedIds(staffRoleIds);
+        this.noteRoleIds = toSortedIds(noteRoleIds);
+    }
+
+    /**
+     * Returns true if the member may run a command with the given access level.
+     * A null member (command used outside a guild) only passes {@link CommandAccess#EVERYONE}.
+     */
+    public boolean hasAccess(Member member, CommandAccess access) {
+        if (access == CommandAccess.EVERYONE) {
+            return true;
+        }
+        if (member == null) {
+            return false;
+        }
+
+        int grants = decisions
+                .computeIfAbsent(member.getGuild().getIdLong(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(member.getIdLong(), k -> evaluate(member));
+
+        return switch (access) {
+            case EVERYONE -> true;
+            case NOTES -> (grants & (GRANT_STAFF | GRANT_NOTES)) != 0;
+            case STAFF -> (grants & GRANT_STAFF) != 0;
+            case STAFF_OR_BAN_MEMBERS -> (grants & (GRANT_STAFF | GRANT_BAN_MEMBERS)) != 0;
+        };
+    }
+
+    private int evaluate(Member member) {
+        int grants = 0;
+        for (Role role : member.getRoles()) {
+            long roleId = role.getIdLong();
+            if (Arrays.binarySearch(staffRoleIds, roleId) >= 0) {
+                grants |= GRANT_STAFF;
+            }
+            if (Arrays.binarySearch(noteRoleIds, roleId) >= 0) {
+                grants |= GRANT_NOTES;
+            }
+        }
+
+        // Staff commands stay disabled until staff roles are configured, even for members
+        // with Discord's own ban permission
+        if (staffRoleIds.length > 0 && member.hasPermission(Permission.BAN_MEMBERS)) {
+            grants |= GRANT_BAN_MEMBERS;
+        }
+        return grants;
+    }
+
+    @Override
+    public void onGuildMemberRoleAdd(@Nonnull GuildMemberRoleAddEvent event) {
+        forget(event.getGuild().getIdLong(), event.getMember().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(@Nonnull GuildMemberRoleRemoveEvent event) {
+        forget(event.getGuild().getIdLong(), event.getMember().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberUpdate(@Nonnull GuildMemberUpdateEvent event) {
+        forget(event.getGuild().getIdLong(), event.getMember().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRemove(@Nonnull GuildMemberRemoveEvent event) {
+        forget(event.getGuild().getIdLong(), event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onRoleDelete(@Nonnull RoleDeleteEvent event) {
+        decisions.remove(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onRoleUpdatePermissions(@Nonnull RoleUpdatePermissionsEvent event) {
+        // Affects Ban Members for everyone holding the role
+        decisions.remove(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+        decisions.remove(event.getGuild().getIdLong());
+    }
+
+    private void forget(long guildId, long memberId) {
+        Map<Long, Integer> guildDecisions = decisions.get(guildId);
+        if (guildDecisions != null) {
+            guildDecisions.remove(memberId);
+        }
+    }
+
+    private long[] toSortedIds(String[] ids) {
+        if (ids == null) {
+            return new long[0];
+        }
+
+        long[] parsed = new long[ids.length];
+        int count = 0;
+        for (String id : ids) {
+            if (id == null || id.isBlank()) {
+                continue;
+            }
+            try {
+                long roleId = Long.parseLong(id.trim());
+                parsed[count++] = roleId;
+            } catch (NumberFormatException e) {
+                logger.warn("🛡️ Ignoring invalid role ID {} in permission config", id);
+            }
+        }
+
+        long[] sorted = Arrays.copyOf(parsed, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -2,14 +2,17 @@ package world.landfall.sentinel.discord;
 
 import world.landfall.sentinel.db.DatabaseManager;
 import world.landfall.sentinel.db.QuarantineInfo;
-import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
 import org.slf4j.Logger;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -19,14 +22,23 @@ import java.util.concurrent.TimeUnit;
  */
 public class QuarantineChecker {
     private final DatabaseManager database;
-    private final JDA jda;
+    private final GuildContext guildContext;
+    private final DiscordRequestScheduler requestScheduler;
     private final String quarantineRoleId;
     private final Logger logger;
     private final ScheduledExecutorService cleanupScheduler;
 
-    public QuarantineChecker(DatabaseManager database, JDA jda, String quarantineRoleId, Logger logger) {
+    private static final long KNOWN_QUARANTINES_REFRESH_MINUTES = 5;
+
+    // Every active quarantine by Discord ID, used at login when the database is unavailable.
+    // Holds only active quarantines, so it is bounded by them rather than by the players seen,
+    // and is null until the first load succeeds so a cold cache is never read as "not quarantined".
+    private volatile Map<String, QuarantineInfo> knownQuarantines;
+
+    public QuarantineChecker(DatabaseManager database, GuildContext guildContext, DiscordRequestScheduler requestScheduler, String quarantineRoleId, Logger logger) {
         this.database = database;
-        this.jda = jda;
+        this.guildContext = guildContext;
+        this.requestScheduler = requestScheduler;
         this.quarantineRoleId = quarantineRoleId;
         this.logger = logger;
 
@@ -38,6 +50,7 @@ public class QuarantineChecker {
         });
 
         cleanupScheduler.scheduleAtFixedRate(this::cleanupExpiredQuarantines, 1, 10, TimeUnit.MINUTES);
+        cleanupScheduler.scheduleAtFixedRate(this::refreshKnownQuarantines, 0, KNOWN_QUARANTINES_REFRESH_MINUTES, TimeUnit.MINUTES);
         logger.info("🧹 Quarantine cleanup scheduler started - will run every 10 minutes");
     }
 
@@ -48,72 +61,77 @@ public class QuarantineChecker {
      *
      * @param discordId The Discord ID to check
      * @return QuarantineInfo if quarantined in database, empty otherwise
+     * @throws SQLException If the database could not be read, so the caller can fall back
+     *         to {@link #getCachedQuarantineInfo} instead of letting the player in
      */
-    public Optional<QuarantineInfo> getQuarantineInfo(String discordId) {
+    public Optional<QuarantineInfo> getQuarantineInfo(String discordId) throws SQLException {
         if (discordId == null) {
             return Optional.empty();
         }
 
-        try {
-            // Only check database for timed quarantines
-            // Discord roles are NOT used for login blocking anymore
-            Optional<QuarantineInfo> dbQuarantine = database.getActiveQuarantine(discordId);
+        // Only check database for timed quarantines
+        // Discord roles are NOT used for login blocking anymore
+        Optional<QuarantineInfo> dbQuarantine = database.findActiveQuarantine(discordId);
+        Map<String, QuarantineInfo> known = knownQuarantines;
+        if (known != null) {
             if (dbQuarantine.isPresent()) {
-                return dbQuarantine;
+                known.put(discordId, dbQuarantine.get());
+            } else {
+                known.remove(discordId);
             }
+        }
+        return dbQuarantine;
+    }
 
-            return Optional.empty();
-
-        } catch (Exception e) {
-            logger.error("🚫 Error checking quarantine status for Discord ID {}", discordId, e);
+    /**
+     * Gets a Discord user's quarantine from the in-memory copy of all active quarantines,
+     * without touching the database. Used as a fallback when the database is unavailable.
+     *
+     * @param discordId The Discord ID to check
+     * @return The quarantine if one is known and still active, empty if there is none, or null
+     *         if the active quarantines have not been loaded since startup and the state is unknown
+     */
+    public Optional<QuarantineInfo> getCachedQuarantineInfo(String discordId) {
+        Map<String, QuarantineInfo> known = knownQuarantines;
+        if (known == null) {
+            return null;
+        }
+        if (discordId == null) {
             return Optional.empty();
         }
+        return Optional.ofNullable(known.get(discordId)).filter(QuarantineInfo::isActive);
     }
 
     /**
      * Checks if a Discord user is quarantined (backwards compatibility method).
      *
      * @param discordId The Discord ID to check
-     * @return true if quarantined, false otherwise
+     * @return true if quarantined, false otherwise or if the database could not be read
      */
     public boolean isQuarantined(String discordId) {
-        return getQuarantineInfo(discordId).isPresent();
+        try {
+            return getQuarantineInfo(discordId).isPresent();
+        } catch (SQLException e) {
+            logger.error("🚫 Error checking quarantine status for Discord ID {}", discordId, e);
+            return false;
+        }
     }
 
     /**
-     * Checks if a Discord user is still in the server (any guild the bot is in).
-     * If the user has left Discord, removes them from the database.
+     * Checks whether a Discord user has left the server, from the mark set on their links when
+     * the bot saw them leave or get banned. Needs no Discord request, so it is cheap at login.
      *
      * @param discordId The Discord ID to check
-     * @return true if the user is still in Discord, false if they left
+     * @return true if the user's links are marked as left
      */
-    public boolean isUserStillInDiscord(String discordId) {
-        if (discordId == null) {
-            return false;
-        }
-
-        try {
-            // Check all guilds the bot is in
-            for (Guild guild : jda.getGuilds()) {
-                try {
-                    guild.retrieveMemberById(discordId).complete();
-                    return true; // Found the user in this guild
-                } catch (Exception e) {
-                    // User not found in this guild, continue to next guild
-                }
-            }
-
-            // User not found in any guild - remove from database
-            boolean removed = database.removeLinkByDiscordId(discordId);
-            if (removed) {
-                logger.info("🔗 Removed user {} from database - no longer in Discord server", discordId);
-            }
-            return false;
+    public boolean hasLeftDiscord(String discordId) {
+        return discordId != null && database.hasLeftGuild(discordId);
+    }
 
-        } catch (Exception e) {
-            logger.error("🔗 Error checking if Discord user {} is still in server", discordId, e);
-            return true; // Default to assuming they're still there on error
-        }
+    private boolean isUnknownMember(Throwable error) {
+        return error instanceof ErrorResponseException e
+                && (e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER
+                    || e.getErrorResponse() == ErrorResponse.UNKNOWN_USER);
     }
 
     /**
@@ -147,52 +165,51 @@ public class QuarantineChecker {
             return; // No role configured
         }
 
-        try {
-            // Find the quarantine role and guild
-            Guild targetGuild = null;
-            Role targetRole = null;
-
-            for (Guild guild : jda.getGuilds()) {
-                Role role = guild.getRoleById(quarantineRoleId);
-                if (role != null) {
-                    targetGuild = guild;
-                    targetRole = role;
-                    break;
-                }
+        Role targetRole = guildContext.getQuarantineRole();
+        if (targetRole == null) {
+            logger.warn("Quarantine role with ID {} not found when trying to remove from Discord ID {}", quarantineRoleId, discordId);
+            return;
+        }
+
+        // Removing a role the member does not have is a no-op, so the member is not fetched first
+        final String roleName = targetRole.getName(); // Final variable for lambda
+        requestScheduler.submit(DiscordRequestScheduler.Priority.BACKGROUND,
+                DiscordRequestScheduler.memberRolesRoute(targetRole.getGuild()),
+                targetRole.getGuild().removeRoleFromMember(UserSnowflake.fromId(discordId), targetRole)
+        ).whenComplete((success, failure) -> {
+            if (failure == null) {
+                logger.info("🧹 Removed Discord quarantine role {} from {}", roleName, discordId);
+            } else if (isUnknownMember(failure)) {
+                // Member left Discord - this is fine, role is effectively removed
+                logger.debug("Member with Discord ID {} not found in guild {} (likely left Discord), considering role removed", discordId, targetRole.getGuild().getName());
+            } else {
+                logger.error("Failed to remove Discord quarantine role {} from {}", roleName, discordId, failure);
             }
+        });
+    }
 
-            if (targetRole == null || targetGuild == null) {
-                logger.warn("Quarantine role with ID {} not found when trying to remove from Discord ID {}", quarantineRoleId, discordId);
+    /**
+     * Reloads every active quarantine into the login fallback. A failed read keeps the
+     * previous copy, since a slightly stale list is safer than none.
+     */
+    private void refreshKnownQuarantines() {
+        try {
+            List<QuarantineInfo> active = database.getAllActiveQuarantines();
+            if (active == null) {
+                logger.warn("🚫 Could not load active quarantines for the login fallback, keeping the previous copy");
                 return;
             }
 
-            // Try to find the member
-            try {
-                Member member = targetGuild.retrieveMemberById(discordId).complete();
-
-                // Remove the role if they have it
-                if (member.getRoles().contains(targetRole)) {
-                    final String roleName = targetRole.getName(); // Final variable for lambda
-                    final String memberName = member.getEffectiveName(); // Final variable for lambda
-                    targetGuild.removeRoleFromMember(member, targetRole).queue(
-                        success -> {
-                            logger.info("🧹 Removed Discord quarantine role {} from {} ({})", roleName, memberName, discordId);
-                        },
-                        failure -> {
-                            logger.error("Failed to remove Discord quarantine role {} from {} ({})", roleName, memberName, discordId, failure);
-                        }
-                    );
-                } else {
-                    logger.debug("Member {} ({}) doesn't have quarantine role {}, skipping removal", member.getEffectiveName(), discordId, targetRole.getName());
-                }
-
-            } catch (Exception e) {
-                // Member not found or left Discord - this is fine, role is effectively removed
-                logger.debug("Member with Discord ID {} not found in guild {} (likely left Discord), considering role removed", discordId, targetGuild.getName());
+            Map<String, QuarantineInfo> known = new ConcurrentHashMap<>();
+            for (QuarantineInfo quarantine : active) {
+                known.put(quarantine.discordId(), quarantine);
             }
-
+            if (knownQuarantines == null) {
+                logger.info("🚫 Loaded {} active quarantines for the login fallback", known.size());
+            }
+            knownQuarantines = known;
         } catch (Exception e) {
-            logger.error("Error removing Discord quarantine role from Discord ID {}", discordId, e);
+            logger.error("🚫 Error loading active quarantines for the login fallback", e);
         }
     }
 
@@ -0,0 +1,213 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Periodically makes the Discord quarantine role match the quarantines table.
+ *
+ * The two drift apart when the role is added or removed by hand, when a role request fails
+ * after a ban or unban, or when quarantines expire while the bot is offline. Each run loads
+ * the role's members once, then the active quarantines, and diffs the two as ID sets. The
+ * database is authoritative: members missing the role get it, and members holding it without
+ * an active quarantine lose it. Fixes are sent as background requests in batches, each
+ * finishing before the next starts, with a cap per run so a large drift is worked off over
+ * several runs. The drift found is logged and kept in sentinel_state.
+ *
+ * Role members are read before the database, so a ban issued during a run can only show up
+ * as a role to add (a no-op), never as a role to remove.
+ */
+public class QuarantineRoleReconciler {
+    private static final int BATCH_SIZE = 25;
+    private static final int MAX_FIXES_PER_RUN = 500;
+    private static final long LOAD_TIMEOUT_SECONDS = 120;
+    private static final long BATCH_TIMEOUT_SECONDS = 300;
+    private static final String LAST_RUN_KEY = "quarantine_reconcile.last_run";
+
+    private final DatabaseManager database;
+    private final GuildContext guildContext;
+    private final MemberDirectory memberDirectory;
+    private final DiscordRequestScheduler requestScheduler;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+
+    public QuarantineRoleReconciler(DatabaseManager database, GuildContext guildContext, MemberDirectory memberDirectory,
+                                    DiscordRequestScheduler requestScheduler, Logger logger) {
+        this.database = database;
+        this.guildContext = guildContext;
+        this.memberDirectory = memberDirectory;
+        this.requestScheduler = requestScheduler;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-QuarantineReconciler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts reconciling every {@code intervalMinutes}, first after a short delay so the
+     * member directory has loaded.
+     */
+    public void start(int intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            logger.info("🔁 Quarantine role reconciliation disabled");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::reconcile, 5, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("🔁 Quarantine role reconciliation will run every {} minutes", intervalMinutes);
+    }
+
+    private void reconcile() {
+        try {
+            Role role = guildContext.getQuarantineRole();
+            if (role == null) {
+                logger.debug("🔁 Quarantine role not resolved, skipping reconciliation");
+                return;
+            }
+            Guild guild = role.getGuild();
+            long startedAt = System.currentTimeMillis();
+
+            List<Member> holders = guild.findMembersWithRoles(role)
+                    .setTimeout(Duration.ofSeconds(LOAD_TIMEOUT_SECONDS))
+                    .get();
+            SnowflakeSet withRole = new SnowflakeSet(holders.size());
+            for (Member member : holders) {
+                withRole.add(member.getIdLong());
+            }
+
+            List<String> activeIds = database.getActiveQuarantineIds();
+            if (activeIds == null) {
+                logger.warn("🔁 Could not read active quarantines, skipping reconciliation");
+                return;
+            }
+            SnowflakeSet active = new SnowflakeSet(activeIds.size());
+
+            List<Long> toAdd = new ArrayList<>();
+            for (String discordId : activeIds) {
+                long id;
+                try {
+                    id = Long.parseLong(discordId);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                active.add(id);
+                // Quarantined users who are not in the guild cannot hold the role
+                if (!withRole.contains(id) && !Boolean.FALSE.equals(memberDirectory.isMember(guild, id))) {
+                    toAdd.add(id);
+                }
+            }
+
+            List<Long> toRemove = new ArrayList<>();
+            for (Member member : holders) {
+                if (!active.contains(member.getIdLong())) {
+                    toRemove.add(member.getIdLong());
+                }
+            }
+
+            int drift = toAdd.size() + toRemove.size();
+            Fixes fixes = new Fixes();
+            int attempted = apply(toAdd, MAX_FIXES_PER_RUN, id -> guild.addRoleToMember(UserSnowflake.fromId(id), role), guild, fixes);
+            attempted += apply(toRemove, MAX_FIXES_PER_RUN - attempted, id -> guild.removeRoleFromMember(UserSnowflake.fromId(id), role), guild, fixes);
+
+            long seconds = Math.max(1, (System.currentTimeMillis() - startedAt) / 1000);
+            String summary = String.format("drift %d (%d missing the role, %d holding it without a quarantine), %d fixed, %d no longer members, %d failed, %d left for the next run",
+                    drift, toAdd.size(), toRemove.size(), fixes.fixed.get(), fixes.gone.get(), fixes.failed.get(),
+                    drift - attempted);
+            if (drift > 0) {
+                logger.warn("🔁 Quarantine role reconciliation: {} in {}s", summary, seconds);
+            } else {
+                logger.info("🔁 Quarantine role reconciliation: no drift across {} quarantines and {} role holders in {}s",
+                        activeIds.size(), holders.size(), seconds);
+            }
+            database.setState(LAST_RUN_KEY, Instant.now() + " " + summary);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("🔁 Error during quarantine role reconciliation", e);
+        }
+    }
+
+    /**
+     * Sends role changes for up to {@code budget} IDs, one batch at a time. Stops early if a
+     * batch does not finish in time.
+     *
+     * @return How many IDs were attempted
+     */
+    private int apply(List<Long> ids, int budget, LongFunction<RestAction<Void>> change,
+                      Guild guild, Fixes fixes) throws InterruptedException {
+        int attempted = Math.min(ids.size(), Math.max(0, budget));
+        for (int start = 0; start < attempted; start += BATCH_SIZE) {
+            List<CompletableFuture<?>> batch = new ArrayList<>();
+            for (long id : ids.subList(start, Math.min(attempted, start + BATCH_SIZE))) {
+                batch.add(requestScheduler.submit(DiscordRequestScheduler.Priority.BACKGROUND,
+                        DiscordRequestScheduler.memberRolesRoute(guild), change.apply(id)
+                ).handle((ok, error) -> {
+                    if (error == null) {
+                        fixes.fixed.incrementAndGet();
+                    } else if (isUnknownMember(error)) {
+                        fixes.gone.incrementAndGet(); // Left the guild; nothing to fix
+                    } else {
+                        fixes.failed.incrementAndGet();
+                        logger.debug("🔁 Could not fix quarantine role of {}", id, error);
+                    }
+                    return null;
+                }));
+            }
+            try {
+                CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).get(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException ie) {
+                    throw ie;
+                }
+                logger.warn("🔁 Quarantine role batch did not finish in time, stopping this run");
+                return Math.min(attempted, start + BATCH_SIZE);
+            }
+        }
+        return attempted;
+    }
+
+    private static boolean isUnknownMember(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof ErrorResponseException e
+                && (e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER
+                    || e.getErrorResponse() == ErrorResponse.UNKNOWN_USER);
+    }
+
+    private static final class Fixes {
+        final AtomicInteger fixed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger gone = new AtomicInteger();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package world.landfall.sentinel.discord;
+
+import world.landfall.sentinel.moderation.ModerationEvent;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Event bus subscriber that applies the Discord roles following from moderation events: the
+ * quarantine role on bans and unbans, and the linked role on new links.
+ *
+ * Role changes go through the {@link DiscordRequestScheduler} at interactive priority, as they
+ * enforce a decision staff just made. Adding a role the member already has, or removing one
+ * they lack, is a no-op on Discord's side, so members are never fetched first.
+ */
+public class RoleEventSubscriber implements Consumer<ModerationEvent> {
+    private final GuildContext guildContext;
+    private final DiscordRequestScheduler requestScheduler;
+    private final String quarantineRoleId;
+    private final Logger logger;
+    private volatile RoleManager roleManager;
+
+    public RoleEventSubscriber(GuildContext guildContext, DiscordRequestScheduler requestScheduler, String quarantineRoleId, Logger logger) {
+        this.guildContext = guildContext;
+        this.requestScheduler = requestScheduler;
+        this.quarantineRoleId = quarantineRoleId;
+        this.logger = logger;
+    }
+
+    /**
+     * Sets the role manager for assigning the linked role, once the bot is ready.
+     */
+    public void setRoleManager(RoleManager roleManager) {
+        this.roleManager = roleManager;
+    }
+
+    @Override
+    public void accept(ModerationEvent event) {
+        if (event instanceof ModerationEvent.Banned banned && banned.quarantined()) {
+            addQuarantineRole(List.of(banned.discordId()));
+        } else if (event instanceof ModerationEvent.MassActioned mass && mass.quarantined()) {
+            addQuarantineRole(mass.discordIds());
+        } else if (event instanceof ModerationEvent.Unbanned unbanned) {
+            removeQuarantineRole(unbanned.discordId());
+        } else if (event instanceof ModerationEvent.Linked linked) {
+            RoleManager manager = roleManager;
+            if (manager != null) {
+                manager.addRoleToLinkedPlayer(linked.discordId());
+            }
+        }
+    }
+
+    /**
+     * Adds the quarantine role to every user and logs the outcome once.
+     */
+    private void addQuarantineRole(List<String> discordIds) {
+        Role targetRole = quarantineRole();
+        if (targetRole == null) {
+            return;
+        }
+
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<?>> additions = new ArrayList<>(discordIds.size());
+        for (String discordId : discordIds) {
+            additions.add(requestScheduler.submit(DiscordRequestScheduler.Priority.INTERACTIVE,
+                    DiscordRequestScheduler.memberRolesRoute(targetRole.getGuild()),
+                    targetRole.getGuild().addRoleToMember(UserSnowflake.fromId(discordId), targetRole)
+            ).whenComplete((success, failure) -> {
+                if (failure != null) {
+                    failed.incrementAndGet();
+                    logger.debug("Failed to apply Discord quarantine role to {}", discordId, failure);
+                }
+            }));
+        }
+
+        CompletableFuture.allOf(additions.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            if (failed.get() == 0) {
+                logger.info("🚫 Discord quarantine role {} applied to {}", targetRole.getName(),
+                        discordIds.size() == 1 ? discordIds.get(0) : discordIds.size() + " users");
+            } else {
+                logger.error("❌ Failed to apply Discord quarantine role {} to {} of {} users",
+                        targetRole.getName(), failed.get(), discordIds.size());
+            }
+        });
+    }
+
+    private void removeQuarantineRole(String discordId) {
+        Role targetRole = quarantineRole();
+        if (targetRole == null) {
+            return;
+        }
+
+        final String roleName = targetRole.getName();
+        requestScheduler.submit(DiscordRequestScheduler.Priority.INTERACTIVE,
+                DiscordRequestScheduler.memberRolesRoute(targetRole.getGuild()),
+                targetRole.getGuild().removeRoleFromMember(UserSnowflake.fromId(discordId), targetRole)
+        ).whenComplete((success, failure) -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (failure == null) {
+                logger.info("✅ Discord quarantine role {} removed from {}", roleName, discordId);
+            } else if (cause instanceof ErrorResponseException e && e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER) {
+                // User might not be in the guild anymore
+                logger.debug("Could not find member {} in guild - may have left", discordId);
+            } else {
+                logger.error("❌ Failed to remove Discord quarantine role {} from {}", roleName, discordId, failure);
+            }
+        });
+    }
+
+    private Role quarantineRole() {
+        if (quarantineRoleId == null || quarantineRoleId.isBlank()) {
+            return null;
+        }
+        Role role = guildContext.getQuarantineRole();
+        if (role == null) {
+            logger.error("Configured quarantine role with ID {} not found in any guild.", quarantineRoleId);
+        }
+        return role;
+    }
+}
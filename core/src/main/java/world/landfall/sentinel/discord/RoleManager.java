@@ -1,13 +1,20 @@
 package world.landfall.sentinel.discord;
 
 import world.landfall.sentinel.db.DatabaseManager;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
 import org.slf4j.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -15,25 +22,54 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Manages Discord roles for linked players.
- * Ensures all linked accounts have the configured role and handles rate limiting.
+ * Ensures all linked accounts have the configured role.
+ *
+ * A sync takes membership from the {@link MemberDirectory} and loads only the members who
+ * already hold the role, works out in memory which linked members are missing it, and only
+ * sends requests for that difference.
+ * Role additions are issued one after another, each waiting for the previous to finish,
+ * so pacing comes from JDA's handling of Discord's per-route rate-limit headers rather
+ * than a fixed delay. They go through the {@link DiscordRequestScheduler} as background
+ * work, so role grants for new links and ban enforcement on the same route go first.
+ *
+ * Progress is checkpointed in sentinel_state as a cursor over linked_accounts ordered by
+ * discord_id, so a restart resumes where the last run stopped instead of starting over.
+ * Accounts whose role was verified within the freshness window are skipped.
+ *
+ * Linked users who are not in the guild are skipped too. Departures are left to the
+ * {@link MembershipReconciler}, which checks every guild and follows the configured mode.
  */
 public class RoleManager {
     private final DatabaseManager database;
-    private final JDA jda;
+    private final GuildContext guildContext;
+    private final DiscordRequestScheduler requestScheduler;
+    private final MemberDirectory memberDirectory;
     private final String roleId;
+    private final int freshnessHours;
     private final Logger logger;
 
     private final ScheduledExecutorService executor;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
 
-    // Rate limiting: process one role assignment every 2 seconds
-    // This means ~1800 roles can be processed in 20 minutes (3600 seconds / 2 = 1800)
-    private static final long RATE_LIMIT_DELAY_SECONDS = 2;
+    // sentinel_state key holding the last Discord ID whose page completed
+    private static final String SYNC_CURSOR_KEY = "role_sync.cursor";
 
-    public RoleManager(DatabaseManager database, JDA jda, String roleId, Logger logger) {
+    // Linked accounts reconciled and checkpointed per page
+    private static final int PAGE_SIZE = 500;
+
+    // Upper bound on loading the role holders through gateway chunking
+    private static final int LOAD_TIMEOUT_SECONDS = 120;
+
+    // Wait before trying again while the member directory is still loading
+    private static final int DIRECTORY_RETRY_SECONDS = 60;
+
+    public RoleManager(DatabaseManager database, GuildContext guildContext, DiscordRequestScheduler requestScheduler, MemberDirectory memberDirectory, String roleId, int freshnessHours, Logger logger) {
         this.database = database;
-        this.jda = jda;
+        this.guildContext = guildContext;
+        this.requestScheduler = requestScheduler;
+        this.memberDirectory = memberDirectory;
         this.roleId = roleId;
+        this.freshnessHours = freshnessHours;
         this.logger = logger;
         this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "Sentinel-RoleManager");
@@ -59,116 +95,206 @@ public class RoleManager {
     }
 
     /**
-     * Adds a role to a newly linked player immediately (with rate limiting).
+     * Adds a role to a newly linked player immediately.
      */
     public void addRoleToLinkedPlayer(String discordId) {
         if (roleId == null || roleId.isBlank()) {
             return;
         }
 
-        executor.schedule(() -> processRoleAssignment(discordId), 0, TimeUnit.SECONDS);
+        Role role = guildContext.getLinkedRole();
+        if (role == null) {
+            logger.warn("🔗 Role with ID {} not found in any guild", roleId);
+            return;
+        }
+
+        // The user has just linked, so this goes ahead of the background sync
+        requestScheduler.submit(DiscordRequestScheduler.Priority.INTERACTIVE,
+                DiscordRequestScheduler.memberRolesRoute(role.getGuild()),
+                role.getGuild().addRoleToMember(UserSnowflake.fromId(discordId), role)
+        ).whenComplete((success, error) -> {
+            if (error == null) {
+                logger.info("🔗 Added role {} to user {}", role.getName(), discordId);
+                executor.execute(() -> database.markRoleVerified(List.of(discordId), Instant.now()));
+            } else {
+                logRoleFailure(role, discordId, error);
+            }
+        });
     }
 
     private void synchronizeRoles() {
         try {
-            List<String> linkedDiscordIds = database.getAllLinkedDiscordIds();
-            logger.info("🔗 Found {} linked accounts to synchronize", linkedDiscordIds.size());
-
-            if (linkedDiscordIds.isEmpty()) {
+            Role role = guildContext.getLinkedRole();
+            if (role == null) {
+                logger.warn("🔗 Role with ID {} not found in any guild", roleId);
                 isRunning.set(false);
                 return;
             }
+            Guild guild = role.getGuild();
 
-            // Calculate total time for rate limiting info
-            long totalTimeMinutes = (linkedDiscordIds.size() * RATE_LIMIT_DELAY_SECONDS) / 60;
-            logger.info("🔗 Role synchronization will take approximately {} minutes", totalTimeMinutes);
-
-            // Process each linked account with rate limiting
-            for (int i = 0; i < linkedDiscordIds.size(); i++) {
-                final String discordId = linkedDiscordIds.get(i);
-                final int index = i;
-
-                executor.schedule(() -> {
-                    processRoleAssignment(discordId);
-
-                    // Log progress every 20 assignments with percentage
-                    if ((index + 1) % 20 == 0) {
-                        double progressPercentage = ((double) (index + 1) / linkedDiscordIds.size()) * 100;
-                        logger.info("🔗 Role sync progress: {}/{} completed ({}%)", index + 1, linkedDiscordIds.size(), String.format("%.2f", progressPercentage));
-                    }
-
-                    // Mark as finished when done
-                    if (index == linkedDiscordIds.size() - 1) {
-                        isRunning.set(false);
-                        logger.info("🔗 Role synchronization completed for all {} linked accounts", linkedDiscordIds.size());
-                    }
-                }, i * RATE_LIMIT_DELAY_SECONDS, TimeUnit.SECONDS);
+            // Membership comes from the directory, which loads each guild once at startup
+            if (memberDirectory.size(guild) < 0) {
+                logger.info("🔗 Guild members not loaded yet, postponing role synchronization");
+                executor.schedule(this::synchronizeRoles, DIRECTORY_RETRY_SECONDS, TimeUnit.SECONDS);
+                return;
             }
 
+            // Only the members already holding the role are fetched
+            long startedAt = System.currentTimeMillis();
+            List<Member> holders = guild.findMembersWithRoles(role)
+                    .setTimeout(Duration.ofSeconds(LOAD_TIMEOUT_SECONDS))
+                    .get();
+            SnowflakeSet membersWithRole = new SnowflakeSet(holders.size());
+            for (Member member : holders) {
+                membersWithRole.add(member.getIdLong());
+            }
+            logger.info("🔗 Loaded {} holders of role {} in {}ms", membersWithRole.size(), role.getName(),
+                    System.currentTimeMillis() - startedAt);
+
+            String cursor = database.getState(SYNC_CURSOR_KEY).orElse("");
+            if (!cursor.isEmpty()) {
+                logger.info("🔗 Resuming role synchronization after Discord ID {}", cursor);
+            }
+
+            Instant verifiedBefore = Instant.now().minus(Duration.ofHours(freshnessHours));
+            processPage(new SyncRun(guild, role, membersWithRole, verifiedBefore, startedAt), cursor);
+
         } catch (Exception e) {
             logger.error("🔗 Error during role synchronization", e);
             isRunning.set(false);
         }
     }
 
-    private void processRoleAssignment(String discordId) {
+    /**
+     * Reconciles one page of linked accounts after the cursor, then checkpoints and moves on.
+     * The cursor is only advanced once the page's role additions have finished, so a restart
+     * repeats at most one page.
+     */
+    private void processPage(SyncRun run, String cursor) {
         try {
-            // Find the role across all guilds the bot is in
-            Role targetRole = null;
-            Guild targetGuild = null;
-            Member targetMember = null;
-
-            // First, find the role in any guild
-            for (Guild guild : jda.getGuilds()) {
-                Role role = guild.getRoleById(roleId);
-                if (role != null) {
-                    targetRole = role;
-                    targetGuild = guild;
-                    break;
-                }
-            }
-
-            if (targetRole == null || targetGuild == null) {
-                logger.warn("🔗 Role with ID {} not found in any guild", roleId);
+            List<String> page = database.getLinkedDiscordIdsPage(cursor, run.verifiedBefore, PAGE_SIZE);
+            if (page.isEmpty()) {
+                database.clearState(SYNC_CURSOR_KEY);
+                long seconds = Math.max(1, (System.currentTimeMillis() - run.startedAt) / 1000);
+                logger.info("🔗 Role synchronization completed: {} accounts checked, {} roles added, {} failed, {} not in the guild, in {}s",
+                        run.checked, run.added, run.failed, run.notMembers, seconds);
+                isRunning.set(false);
                 return;
             }
 
-            // Find the member in the guild where we found the role using direct API call
-            try {
-                targetMember = targetGuild.retrieveMemberById(discordId).complete();
-            } catch (Exception e) {
-                // Member not found - remove from database and log
-                boolean removed = database.removeLinkByDiscordId(discordId);
-                if (removed) {
-                    logger.info("🔗 Removed user {} from database - no longer in Discord server", discordId);
+            List<String> alreadyVerified = new ArrayList<>();
+            List<Long> missingRole = new ArrayList<>();
+            for (String discordId : page) {
+                long id;
+                try {
+                    id = Long.parseLong(discordId);
+                } catch (NumberFormatException e) {
+                    logger.warn("🔗 Skipping invalid Discord ID {} during role sync", discordId);
+                    continue;
                 }
-                return;
-            }
 
-            // Check if member already has the role
-            if (targetMember.getRoles().contains(targetRole)) {
-                return; // Already has the role
+                if (Boolean.FALSE.equals(memberDirectory.isMember(run.guild, id))) {
+                    // Nothing to assign; the membership reconciler decides what happens to departures
+                    run.notMembers++;
+                } else if (run.membersWithRole.contains(id)) {
+                    alreadyVerified.add(discordId);
+                } else {
+                    missingRole.add(id);
+                }
             }
+            run.checked += page.size();
+            database.markRoleVerified(alreadyVerified, Instant.now());
 
-            // Add the role
-            final Role finalRole = targetRole;
-            final Guild finalGuild = targetGuild;
-            final Member finalMember = targetMember;
-
-            finalGuild.addRoleToMember(finalMember, finalRole)
-                    .queue(
-                            success -> logger.info("🔗 Added role {} to user {}", finalRole.getName(), finalMember.getEffectiveName()),
-                            error -> {
-                                if (error.getMessage().contains("Missing Permissions")) {
-                                    logger.warn("🔗 Missing permissions to assign role {} in guild {}", finalRole.getName(), finalGuild.getName());
-                                } else {
-                                    logger.error("🔗 Failed to assign role {} to user {}: {}", finalRole.getName(), finalMember.getEffectiveName(), error.getMessage());
-                                }
-                            }
-                    );
+            String nextCursor = page.get(page.size() - 1);
+            List<String> added = new ArrayList<>();
+            addRolesSequentially(run, missingRole, added).whenComplete((ignored, error) -> executor.execute(() -> {
+                database.markRoleVerified(added, Instant.now());
+                if (error != null) {
+                    // Cursor stays on the previous page so the next sync retries this one
+                    isRunning.set(false);
+                    return;
+                }
+
+                database.setState(SYNC_CURSOR_KEY, nextCursor);
+                logger.info("🔗 Role sync progress: {} accounts checked, {} roles added (cursor {})",
+                        run.checked, run.added, nextCursor);
+                processPage(run, nextCursor);
+            }));
 
         } catch (Exception e) {
-            logger.error("🔗 Error processing role assignment for Discord ID {}", discordId, e);
+            logger.error("🔗 Error during role synchronization", e);
+            isRunning.set(false);
+        }
+    }
+
+    /**
+     * Adds the role to each member once the previous request has completed.
+     * Each request waits behind any more urgent work for the route, then JDA holds it until
+     * Discord's rate-limit bucket allows it.
+     *
+     * @param added Receives the Discord IDs that were given the role
+     * @return Completes when all requests are done, or exceptionally if the sync must stop
+     */
+    private CompletableFuture<Void> addRolesSequentially(SyncRun run, List<Long> discordIds, List<String> added) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+
+        for (long discordId : discordIds) {
+            chain = chain.thenCompose(ignored -> requestScheduler.submit(DiscordRequestScheduler.Priority.BACKGROUND,
+                            DiscordRequestScheduler.memberRolesRoute(run.guild),
+                            run.guild.addRoleToMember(UserSnowflake.fromId(discordId), run.role))
+                    .handle((success, error) -> {
+                        if (error == null) {
+                            added.add(Long.toString(discordId));
+                            run.added++;
+                            return null;
+                        }
+                        run.failed++;
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof ErrorResponseException e && e.getErrorResponse() == ErrorResponse.MISSING_PERMISSIONS) {
+                            // Every remaining request would fail the same way
+                            logger.warn("🔗 Missing permissions to assign role {} in guild {}, stopping role sync",
+                                    run.role.getName(), run.guild.getName());
+                            throw new CompletionException(cause);
+                        }
+                        logRoleFailure(run.role, Long.toString(discordId), cause);
+                        return null;
+                    }));
+        }
+
+        return chain;
+    }
+
+    private void logRoleFailure(Role role, String discordId, Throwable error) {
+        if (error instanceof ErrorResponseException e && e.getErrorResponse() == ErrorResponse.MISSING_PERMISSIONS) {
+            logger.warn("🔗 Missing permissions to assign role {} in guild {}", role.getName(), role.getGuild().getName());
+        } else if (error instanceof ErrorResponseException e && e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER) {
+            logger.debug("🔗 User {} left the server before role {} could be assigned", discordId, role.getName());
+        } else {
+            logger.error("🔗 Failed to assign role {} to user {}: {}", role.getName(), discordId, error.getMessage());
+        }
+    }
+
+    /**
+     * State of one synchronization pass: the role holders it diffs against and its running totals.
+     * Pages are processed one at a time, so the counters are never updated concurrently.
+     */
+    private static final class SyncRun {
+        final Guild guild;
+        final Role role;
+        final SnowflakeSet membersWithRole;
+        final Instant verifiedBefore;
+        final long startedAt;
+        int checked;
+        int added;
+        int failed;
+        int notMembers;
+
+        SyncRun(Guild guild, Role role, SnowflakeSet membersWithRole, Instant verifiedBefore, long startedAt) {
+            this.guild = guild;
+            this.role = role;
+            this.membersWithRole = membersWithRole;
+            this.verifiedBefore = verifiedBefore;
+            this.startedAt = startedAt;
         }
     }
 
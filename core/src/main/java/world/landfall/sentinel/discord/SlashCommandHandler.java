@@ -0,0 +1,35 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+
+/**
+ * A slash command registered with the {@link SlashCommandRouter}.
+ * The router only calls {@link #handle} for this command's name, after the access check passed.
+ */
+public interface SlashCommandHandler {
+
+    /**
+     * The command definition registered with Discord. Its name is the routing key.
+     */
+    SlashCommandData getCommandData();
+
+    /**
+     * Who may run the command. Checked once by the router before {@link #handle} is called.
+     */
+    default CommandAccess getAccess() {
+        return CommandAccess.EVERYONE;
+    }
+
+    void handle(SlashCommandInteractionEvent event);
+
+    /**
+     * Suggests values for an option declared with autocomplete. Runs on the JDA event thread
+     * and must answer within Discord's 3 second window, so it should only read memory.
+     * Only called after the same access check as {@link #handle}.
+     */
+    default void handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
+        event.replyChoices().queue();
+    }
+}
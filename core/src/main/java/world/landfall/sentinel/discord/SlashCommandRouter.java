@@ -0,0 +1,146 @@
+package world.landfall.sentinel.discord;
+
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Single JDA listener for slash commands and buttons.
+ *
+ * Commands are routed by name and buttons by component ID prefix through maps built at
+ * registration time, so each interaction reaches exactly one handler instead of being
+ * offered to every listener. Access is checked here once for all commands through the {@link PermissionService}.
+ * Invocations and handler errors are counted in the shared {@link CommandMetrics}, which
+ * the {@link CommandExecutor} also feeds with defer-to-response latency.
+ */
+public class SlashCommandRouter extends ListenerAdapter {
+    private final Map<String, SlashCommandHandler> commands = new LinkedHashMap<>();
+    private final TreeMap<String, ButtonHandler> buttons = new TreeMap<>();
+    private final PermissionService permissionService;
+    private final CommandMetrics metrics;
+    private final Logger logger;
+
+    public SlashCommandRouter(PermissionService permissionService, CommandMetrics metrics, Logger logger) {
+        this.permissionService = permissionService;
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    /**
+     * Registers a command under the name in its command data.
+     * Must be called before the router is added to JDA.
+     */
+    public void register(SlashCommandHandler handler) {
+        String name = handler.getCommandData().getName();
+        if (commands.putIfAbsent(name, handler) != null) {
+            throw new IllegalStateException("Slash command /" + name + " is already registered");
+        }
+    }
+
+    /**
+     * Registers a handler for buttons whose component ID starts with the prefix.
+     * Prefixes must not be prefixes of one another. Must be called before the router is added to JDA.
+     */
+    public void registerButton(String prefix, ButtonHandler handler) {
+        if (buttons.putIfAbsent(prefix, handler) != null) {
+            throw new IllegalStateException("Button prefix " + prefix + " is already registered");
+        }
+    }
+
+    /**
+     * Returns the command definitions of all registered handlers, in registration order.
+     */
+    public List<SlashCommandData> getCommandData() {
+        List<SlashCommandData> data = new ArrayList<>();
+        for (SlashCommandHandler handler : commands.values()) {
+            data.add(handler.getCommandData());
+        }
+        return data;
+    }
+
+    @Override
+    public void onSlashCommandInteraction(@Nonnull SlashCommandInteractionEvent event) {
+        String name = event.getName();
+        SlashCommandHandler handler = commands.get(name);
+        if (handler == null) {
+            logger.debug("Ignoring unknown slash command /{}", name);
+            return;
+        }
+
+        metrics.recordInvocation(name);
+
+        if (!permissionService.hasAccess(event.getMember(), handler.getAccess())) {
+            event.reply("❌ You don't have permission to use this command.")
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
+        try {
+            handler.handle(event);
+        } catch (Exception e) {
+            metrics.recordError(name);
+            logger.error("❌ Error in /{} command", name, e);
+            if (!event.isAcknowledged()) {
+                event.reply("❌ An error occurred while processing the command.")
+                    .setEphemeral(true)
+                    .queue();
+            }
+        }
+    }
+
+    @Override
+    public void onCommandAutoCompleteInteraction(@Nonnull CommandAutoCompleteInteractionEvent event) {
+        SlashCommandHandler handler = commands.get(event.getName());
+        if (handler == null) {
+            return;
+        }
+
+        // Suggestions can reveal linked usernames, so they follow the command's access
+        if (!permissionService.hasAccess(event.getMember(), handler.getAccess())) {
+            event.replyChoices().queue();
+            return;
+        }
+
+        try {
+            handler.handleAutoComplete(event);
+        } catch (Exception e) {
+            logger.error("❌ Error in /{} autocomplete", event.getName(), e);
+        }
+    }
+
+    @Override
+    public void onButtonInteraction(@Nonnull ButtonInteractionEvent event) {
+        String componentId = event.getComponentId();
+
+        // The only candidate is the greatest registered prefix that sorts at or before the ID
+        Map.Entry<String, ButtonHandler> entry = buttons.floorEntry(componentId);
+        if (entry == null || !componentId.startsWith(entry.getKey())) {
+            return;
+        }
+
+        String prefix = entry.getKey();
+        metrics.recordInvocation(prefix);
+        try {
+            entry.getValue().handle(event);
+        } catch (Exception e) {
+            metrics.recordError(prefix);
+            logger.error("❌ Error handling button {}", componentId, e);
+            if (!event.isAcknowledged()) {
+                event.reply("❌ An error occurred while processing the button.")
+                    .setEphemeral(true)
+                    .queue();
+            }
+        }
+    }
+}
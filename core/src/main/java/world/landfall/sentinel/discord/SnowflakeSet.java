@@ -0,0 +1,127 @@
+package world.landfall.sentinel.discord;
+
+/**
+ * A set of Discord snowflake IDs stored as primitive longs.
+ *
+ * Open addressing over a single long array, so 100k members take about 1.6 MB instead of
+ * the boxed Long, map entry and node objects of a HashSet. Zero is never a valid snowflake
+ * and marks an empty slot. Not thread-safe; callers synchronize.
+ */
+final class SnowflakeSet {
+    private static final double MAX_LOAD = 0.6;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] slots;
+    private int size;
+
+    SnowflakeSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    boolean add(long id) {
+        if (id == 0) {
+            throw new IllegalArgumentException("0 is not a valid snowflake");
+        }
+        if (size + 1 > slots.length * MAX_LOAD) {
+            resize(slots.length * 2);
+        }
+
+        int mask = slots.length - 1;
+        int i = slot(id, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == id) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = id;
+        size++;
+        return true;
+    }
+
+    boolean contains(long id) {
+        if (id == 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int i = slot(id, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == id) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    boolean remove(long id) {
+        if (id == 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int gap = slot(id, mask);
+        while (slots[gap] != id) {
+            if (slots[gap] == 0) {
+                return false;
+            }
+            gap = (gap + 1) & mask;
+        }
+
+        // Shift later entries of the probe run back into the gap, so lookups never stop early
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            long candidate = slots[i];
+            if (candidate == 0) {
+                break;
+            }
+            int home = slot(candidate, mask);
+            boolean canMove = i > gap
+                    ? home <= gap || home > i
+                    : home <= gap && home > i;
+            if (canMove) {
+                slots[gap] = candidate;
+                gap = i;
+            }
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap taken by the set, for logging.
+     */
+    long sizeInBytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        size = 0;
+        for (long id : old) {
+            if (id != 0) {
+                add(id);
+            }
+        }
+    }
+
+    private static int slot(long id, int mask) {
+        // Snowflakes share their high (timestamp) bits and count up in their low bits; mix both
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -1,14 +1,13 @@
 package world.landfall.sentinel.discord;
 
 import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.moderation.ModerationEvent;
+import world.landfall.sentinel.moderation.ModerationEventBus;
 import world.landfall.sentinel.tos.TosManager;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
@@ -24,95 +23,89 @@ import java.util.List;
 /**
  * Handles the /tos command for viewing and accepting Terms of Service.
  */
-public class TosCommandListener extends ListenerAdapter {
+public class TosCommandListener implements SlashCommandHandler {
+    public static final String AGREE_BUTTON_PREFIX = "tos_agree_";
+
     private final DatabaseManager db;
     private final TosManager tosManager;
-    private final String auditChannelId;
+    private final CommandExecutor commandExecutor;
+    private final ModerationEventBus eventBus;
     private final Logger logger;
 
     private final SlashCommandData commandData = Commands
             .slash("tos", "View and accept the Terms of Service");
 
-    public TosCommandListener(DatabaseManager db, TosManager tosManager, String auditChannelId, Logger logger) {
+    public TosCommandListener(DatabaseManager db, TosManager tosManager, CommandExecutor commandExecutor, ModerationEventBus eventBus, Logger logger) {
         this.db = db;
         this.tosManager = tosManager;
-        this.auditChannelId = auditChannelId;
+        this.commandExecutor = commandExecutor;
+        this.eventBus = eventBus;
         this.logger = logger;
     }
 
+    @Override
     public SlashCommandData getCommandData() {
         return commandData;
     }
 
     @Override
-    public void onSlashCommandInteraction(@Nonnull SlashCommandInteractionEvent event) {
-        if (!"tos".equals(event.getName())) return;
-
+    public void handle(@Nonnull SlashCommandInteractionEvent event) {
         String userId = event.getUser().getId();
 
-        // Defer reply (ephemeral - ToS status is personal)
-        InteractionHook hook;
-        try {
-            hook = event.deferReply(true).complete();
-        } catch (Exception ex) {
-            logger.error("❌ Failed to defer /tos interaction", ex);
-            return;
-        }
-
         // Check if ToS enforcement is enabled
         if (!tosManager.isEnforced()) {
-            hook.sendMessage("ℹ️ Terms of Service acceptance is not currently required.").queue();
+            event.reply("ℹ️ Terms of Service acceptance is not currently required.")
+                .setEphemeral(true)
+                .queue();
             return;
         }
 
-        // Check current attestation status
-        String agreedVersion = tosManager.getUserAgreedVersion(userId);
-        String currentVersion = tosManager.getCurrentVersion();
-        boolean hasAgreedToCurrent = agreedVersion != null && agreedVersion.equals(currentVersion);
-        boolean hasAgreedToOlder = agreedVersion != null && !agreedVersion.equals(currentVersion);
-
-        // Build the ToS embed
-        MessageEmbed embed = buildTosEmbed(hasAgreedToCurrent, hasAgreedToOlder, agreedVersion, currentVersion);
-
-        // Build action rows with buttons
-        List<ActionRow> actionRows = new ArrayList<>();
-
-        // Show "I Agree" button if they haven't agreed to the current version
-        if (!hasAgreedToCurrent) {
-            List<Button> buttons = new ArrayList<>();
-            buttons.add(Button.success("tos_agree_" + userId, "✅ I Agree to v" + currentVersion));
-
-            if (!tosManager.getTosUrl().isBlank()) {
-                buttons.add(Button.link(tosManager.getTosUrl(), "📄 View Full Terms"));
+        // Ephemeral - ToS status is personal
+        commandExecutor.deferAndRun("tos", event, true, hook -> {
+            // Check current attestation status
+            String agreedVersion = tosManager.getUserAgreedVersion(userId);
+            String currentVersion = tosManager.getCurrentVersion();
+            boolean hasAgreedToCurrent = agreedVersion != null && agreedVersion.equals(currentVersion);
+            boolean hasAgreedToOlder = agreedVersion != null && !agreedVersion.equals(currentVersion);
+
+            // Build the ToS embed
+            MessageEmbed embed = buildTosEmbed(hasAgreedToCurrent, hasAgreedToOlder, agreedVersion, currentVersion);
+
+            // Build action rows with buttons
+            List<ActionRow> actionRows = new ArrayList<>();
+
+            // Show "I Agree" button if they haven't agreed to the current version
+            if (!hasAgreedToCurrent) {
+                List<Button> buttons = new ArrayList<>();
+                buttons.add(Button.success(AGREE_BUTTON_PREFIX + userId, "✅ I Agree to v" + currentVersion));
+
+                if (!tosManager.getTosUrl().isBlank()) {
+                    buttons.add(Button.link(tosManager.getTosUrl(), "📄 View Full Terms"));
+                }
+
+                actionRows.add(ActionRow.of(buttons));
+            } else if (!tosManager.getTosUrl().isBlank()) {
+                // Only show link if they've already agreed
+                actionRows.add(ActionRow.of(
+                    Button.link(tosManager.getTosUrl(), "📄 View Full Terms")
+                ));
             }
 
-            actionRows.add(ActionRow.of(buttons));
-        } else if (!tosManager.getTosUrl().isBlank()) {
-            // Only show link if they've already agreed
-            actionRows.add(ActionRow.of(
-                Button.link(tosManager.getTosUrl(), "📄 View Full Terms")
-            ));
-        }
-
-        // Send the response
-        if (actionRows.isEmpty()) {
-            hook.sendMessageEmbeds(embed).queue();
-        } else {
-            hook.sendMessageEmbeds(embed)
-                .setComponents(actionRows)
-                .queue();
-        }
+            // Send the response
+            if (actionRows.isEmpty()) {
+                return hook.sendMessageEmbeds(embed);
+            }
+            return hook.sendMessageEmbeds(embed)
+                .setComponents(actionRows);
+        });
     }
 
-    @Override
-    public void onButtonInteraction(@Nonnull ButtonInteractionEvent event) {
-        String buttonId = event.getComponentId();
-
-        // Check if this is a ToS agreement button
-        if (!buttonId.startsWith("tos_agree_")) return;
-
+    /**
+     * Handles clicks on the "I Agree" button. Routed here for IDs starting with {@link #AGREE_BUTTON_PREFIX}.
+     */
+    public void handleAgreeButton(@Nonnull ButtonInteractionEvent event) {
         // Extract the user ID from the button ID
-        String expectedUserId = buttonId.substring("tos_agree_".length());
+        String expectedUserId = event.getComponentId().substring(AGREE_BUTTON_PREFIX.length());
         String actualUserId = event.getUser().getId();
 
         // Verify the user clicking is the one who initiated the command
@@ -123,8 +116,13 @@ public class TosCommandListener extends ListenerAdapter {
             return;
         }
 
-        // Record the attestation
-        if (tosManager.recordAttestation(actualUserId)) {
+        // Record the attestation off the event thread, then edit the original message in place
+        commandExecutor.deferEditAndRun(AGREE_BUTTON_PREFIX, event, hook -> {
+            if (!tosManager.recordAttestation(actualUserId)) {
+                return hook.sendMessage("❌ Failed to record your agreement. Please try again or contact an administrator.")
+                    .setEphemeral(true);
+            }
+
             // Update the original message to show success
             MessageEmbed successEmbed = new EmbedBuilder()
                 .setTitle("🎉 Success! Terms Accepted")
@@ -143,19 +141,13 @@ public class TosCommandListener extends ListenerAdapter {
                 .setTimestamp(Instant.now())
                 .build();
 
-            event.editMessageEmbeds(successEmbed)
-                .setComponents() // Remove buttons
-                .queue();
-
-            // Send audit embed if channel is configured
-            sendAuditEmbed(event, actualUserId, tosManager.getCurrentVersion());
+            // The audit embed is sent by the event bus's audit subscriber
+            eventBus.publish(new ModerationEvent.TosAccepted(actualUserId, event.getUser().getAsTag(), tosManager.getCurrentVersion()));
 
             logger.info("✅ User {} agreed to ToS version {}", actualUserId, tosManager.getCurrentVersion());
-        } else {
-            event.reply("❌ Failed to record your agreement. Please try again or contact an administrator.")
-                .setEphemeral(true)
-                .queue();
-        }
+            return hook.editOriginalEmbeds(successEmbed)
+                .setComponents(); // Remove buttons
+        });
     }
 
     /**
@@ -244,7 +236,7 @@ public class TosCommandListener extends ListenerAdapter {
      */
     public ActionRow createTosButtons(String userId) {
         List<Button> buttons = new ArrayList<>();
-        buttons.add(Button.success("tos_agree_" + userId, "✅ I Agree to the Terms"));
+        buttons.add(Button.success(AGREE_BUTTON_PREFIX + userId, "✅ I Agree to the Terms"));
 
         if (!tosManager.getTosUrl().isBlank()) {
             buttons.add(Button.link(tosManager.getTosUrl(), "📄 View Full Terms"));
@@ -254,43 +246,19 @@ public class TosCommandListener extends ListenerAdapter {
     }
 
     /**
-     * Sends a ToS agreement audit embed to the configured channel.
+     * Creates the ToS agreement embed for the ToS audit channel.
      */
-    private void sendAuditEmbed(ButtonInteractionEvent event, String userId, String version) {
-        if (auditChannelId == null || auditChannelId.isBlank()) {
-            return; // No audit channel configured
-        }
-
-        try {
-            TextChannel auditChannel = event.getJDA().getTextChannelById(auditChannelId);
-            if (auditChannel == null) {
-                logger.warn("ToS audit channel {} not found", auditChannelId);
-                return;
-            }
-
-            // Get user info
-            String username = event.getUser().getAsTag();
-            String userMention = "<@" + userId + ">";
-
-            // Create audit embed
-            MessageEmbed auditEmbed = new EmbedBuilder()
-                .setTitle("✅  **TERMS ACCEPTED**")
-                .setColor(new Color(87, 242, 135)) // Green
-                .addField("User", userMention, true)
-                .addField("Username", username, true)
-                .addField("Discord ID", userId, true)
-                .addField("Version", "v" + version, true)
-                .addField("Accepted", "<t:" + Instant.now().getEpochSecond() + ":F>", true)
-                .setTimestamp(Instant.now())
-                .setFooter("Sentinel ToS Audit", null)
-                .build();
-
-            auditChannel.sendMessageEmbeds(auditEmbed).queue(
-                success -> logger.debug("ToS audit embed sent for user {}", userId),
-                error -> logger.error("Failed to send ToS audit embed", error)
-            );
-        } catch (Exception e) {
-            logger.error("Error sending ToS audit embed", e);
-        }
+    static MessageEmbed createAuditEmbed(String userId, String username, String version) {
+        return new EmbedBuilder()
+            .setTitle("✅  **TERMS ACCEPTED**")
+            .setColor(new Color(87, 242, 135)) // Green
+            .addField("User", "<@" + userId + ">", true)
+            .addField("Username", username, true)
+            .addField("Discord ID", userId, true)
+            .addField("Version", "v" + version, true)
+            .addField("Accepted", "<t:" + Instant.now().getEpochSecond() + ":F>", true)
+            .setTimestamp(Instant.now())
+            .setFooter("Sentinel ToS Audit", null)
+            .build();
     }
 }
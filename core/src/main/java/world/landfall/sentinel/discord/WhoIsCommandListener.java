@@ -3,73 +3,72 @@ package world.landfall.sentinel.discord;
 import world.landfall.sentinel.context.GamePlatform;
 import world.landfall.sentinel.db.DatabaseManager;
 import world.landfall.sentinel.db.LinkInfo;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import org.slf4j.Logger;
 
+import javax.annotation.Nonnull;
+
 import java.util.List;
 
-public class WhoIsCommandListener extends ListenerAdapter {
+public class WhoIsCommandListener implements SlashCommandHandler {
     private final DatabaseManager db;
+    private final CommandExecutor commandExecutor;
     private final Logger logger;
 
     private final SlashCommandData commandData = Commands.slash("whois", "Lookup a link")
             .addOption(OptionType.USER,   "discord",   "Mention a Discord user",      false)
-            .addOption(OptionType.STRING, "minecraft", "Minecraft username (cached)", false)
-            .addOption(OptionType.STRING, "hytale",    "Hytale username (cached)",    false);
+            .addOption(OptionType.STRING, "minecraft", "Minecraft username (cached)", false, true)
+            .addOption(OptionType.STRING, "hytale",    "Hytale username (cached)",    false, true);
 
-    public WhoIsCommandListener(DatabaseManager db, Logger logger) {
+    public WhoIsCommandListener(DatabaseManager db, CommandExecutor commandExecutor, Logger logger) {
         this.db = db;
+        this.commandExecutor = commandExecutor;
         this.logger = logger;
     }
 
+    @Override
     public SlashCommandData getCommandData() {
         return commandData;
     }
 
     @Override
-    public void onSlashCommandInteraction(SlashCommandInteractionEvent evt) {
-        if (!evt.getName().equals("whois")) return;
-
+    public void handle(@Nonnull SlashCommandInteractionEvent evt) {
         OptionMapping discordOpt   = evt.getOption("discord");
         OptionMapping minecraftOpt = evt.getOption("minecraft");
         OptionMapping hytaleOpt    = evt.getOption("hytale");
 
-        // block til defer is sent to make sure we make it within 3s
-        InteractionHook hook;
-        try {
-            hook = evt.deferReply(true).complete();
-        } catch (Exception e) {
-            logger.error("❌ Failed to defer interaction for /whois", e);
-            return;
-        }
-
         // Count how many options were provided
         int optionCount = (discordOpt != null ? 1 : 0) + (minecraftOpt != null ? 1 : 0) + (hytaleOpt != null ? 1 : 0);
         if (optionCount != 1) {
-            hook.sendMessage("❗️ You must specify exactly one of: a Discord user, a Minecraft username, or a Hytale username.").queue();
+            evt.reply("❗️ You must specify exactly one of: a Discord user, a Minecraft username, or a Hytale username.")
+                .setEphemeral(true)
+                .queue();
             return;
         }
 
-        if (discordOpt != null) {
-            // Discord lookup — show all platforms
-            List<LinkInfo> links = db.findByDiscordId(discordOpt.getAsUser().getId());
-            if (links.isEmpty()) {
-                hook.sendMessage("❌ No link found for that Discord user.").queue();
-                return;
-            }
-            StringBuilder msg = new StringBuilder();
-            msg.append("**Discord:** <@").append(links.get(0).discordId()).append(">");
-            for (LinkInfo link : links) {
-                msg.append(String.format("%n**%s:** %s (`%s`)", link.platform().displayName(), link.username(), link.uuid()));
+        String discordId = discordOpt != null ? discordOpt.getAsUser().getId() : null;
+
+        commandExecutor.deferAndRun("whois", evt, true, hook -> {
+            if (discordId != null) {
+                // Discord lookup — show all platforms
+                List<LinkInfo> links = db.findByDiscordId(discordId);
+                if (links.isEmpty()) {
+                    return hook.sendMessage("❌ No link found for that Discord user.");
+                }
+                StringBuilder msg = new StringBuilder();
+                msg.append("**Discord:** <@").append(links.get(0).discordId()).append(">");
+                for (LinkInfo link : links) {
+                    msg.append(String.format("%n**%s:** %s (`%s`)", link.platform().displayName(), link.username(), link.uuid()));
+                }
+                return hook.sendMessage(msg.toString());
             }
-            hook.sendMessage(msg.toString()).queue();
-        } else {
+
             // Username lookup — use platform-aware overload to avoid cross-platform ambiguity
             String username;
             GamePlatform lookupPlatform;
@@ -82,8 +81,7 @@ public class WhoIsCommandListener extends ListenerAdapter {
             }
             LinkInfo info = db.findByUsername(username, lookupPlatform).orElse(null);
             if (info == null) {
-                hook.sendMessage("❌ No link found for that username.").queue();
-                return;
+                return hook.sendMessage("❌ No link found for that username.");
             }
             // Also fetch all links for that Discord ID to show full picture
             List<LinkInfo> allLinks = db.findByDiscordId(info.discordId());
@@ -92,7 +90,14 @@ public class WhoIsCommandListener extends ListenerAdapter {
             for (LinkInfo link : allLinks) {
                 msg.append(String.format("%n**%s:** %s (`%s`)", link.platform().displayName(), link.username(), link.uuid()));
             }
-            hook.sendMessage(msg.toString()).queue();
-        }
+            return hook.sendMessage(msg.toString());
+        });
+    }
+
+    @Override
+    public void handleAutoComplete(@Nonnull CommandAutoCompleteInteractionEvent evt) {
+        GamePlatform platform = "hytale".equals(evt.getFocusedOption().getName()) ? GamePlatform.HYTALE : GamePlatform.MINECRAFT;
+        evt.replyChoiceStrings(db.getUsernameIndex().complete(platform, evt.getFocusedOption().getValue(), OptionData.MAX_CHOICES))
+            .queue();
     }
 }
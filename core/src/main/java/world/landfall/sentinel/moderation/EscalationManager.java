@@ -0,0 +1,199 @@
+package world.landfall.sentinel.moderation;
+
+import world.landfall.sentinel.config.SentinelConfig;
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.util.DurationParser;
+import org.slf4j.Logger;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Decides when a warning escalates to an automatic ban, following the configured policies
+ * such as "3 warnings in 30 days leads to a 7 day ban".
+ *
+ * Warnings are counted per UTC day. The database keeps those counts in moderation_counters,
+ * updated in the same transaction as each action, and this class keeps the days inside the
+ * longest window for recently warned users in memory. Evaluating a warning therefore costs at
+ * most one small counter read and never a scan of the moderation history.
+ *
+ * A policy is reached when a warning brings the count in its window to exactly its threshold,
+ * so it fires once per crossing rather than again on every later warning.
+ */
+public class EscalationManager {
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    private final DatabaseManager db;
+    private final Logger logger;
+    private final List<Policy> policies = new ArrayList<>();
+    private final int maxWindowDays;
+
+    // Least recently warned users are evicted first; guarded by itself
+    private final Map<String, TreeMap<LocalDate, Integer>> warnings = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TreeMap<LocalDate, Integer>> eldest) {
+            return size() > MAX_CACHED_USERS;
+        }
+    };
+
+    /**
+     * @param quarantineAvailable Whether a quarantine role is configured; escalation bans are
+     *                            enforced by quarantine, so without one escalation stays off
+     */
+    public EscalationManager(DatabaseManager db, SentinelConfig.Escalation config, boolean quarantineAvailable, Logger logger) {
+        this.db = db;
+        this.logger = logger;
+
+        if (config.enabled && !quarantineAvailable) {
+            logger.warn("⚖️ Escalation is enabled but no quarantine role is configured - escalation disabled");
+        } else if (config.enabled && config.policies != null) {
+            for (SentinelConfig.Escalation.Policy policy : config.policies) {
+                String duration = policy.duration != null ? policy.duration.trim() : "";
+                if (policy.warnings < 1 || policy.days < 1) {
+                    logger.error("Ignoring escalation policy with {} warnings in {} days, both must be at least 1",
+                            policy.warnings, policy.days);
+                } else if (!duration.isEmpty() && !DurationParser.isValidDuration(duration)) {
+                    logger.error("Ignoring escalation policy with invalid duration '{}'", policy.duration);
+                } else {
+                    policies.add(new Policy(policy.warnings, policy.days,
+                            duration.isEmpty() ? -1 : DurationParser.parseDurationToSeconds(duration)));
+                }
+            }
+            logger.info("⚖️ Escalation enabled with {} policies: {}", policies.size(),
+                    policies.stream().map(Policy::describe).toList());
+        }
+
+        this.maxWindowDays = policies.stream().mapToInt(Policy::days).max().orElse(0);
+    }
+
+    public boolean isEnabled() {
+        return !policies.isEmpty();
+    }
+
+    /**
+     * Loads a user's recent warning counts before a warning is recorded, so that
+     * {@link #recordWarning} only has to add the new warning once it has committed.
+     */
+    public void preload(String discordId) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (warnings) {
+            if (warnings.containsKey(discordId)) {
+                return;
+            }
+        }
+        TreeMap<LocalDate, Integer> days = load(discordId, LocalDate.now(ZoneOffset.UTC));
+        if (days != null) {
+            synchronized (warnings) {
+                warnings.putIfAbsent(discordId, days);
+            }
+        }
+    }
+
+    /**
+     * Counts a committed warning and returns the most severe policy it reached, if any.
+     */
+    public Optional<Policy> recordWarning(String discordId) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        synchronized (warnings) {
+            TreeMap<LocalDate, Integer> days = warnings.get(discordId);
+            if (days != null) {
+                days.merge(today, 1, Integer::sum);
+                return evaluate(days, today);
+            }
+        }
+
+        // Not preloaded, or evicted since: the counters read now already include this warning
+        TreeMap<LocalDate, Integer> days = load(discordId, today);
+        if (days == null) {
+            logger.warn("Could not read warning counts for {}, escalation skipped for this warning", discordId);
+            return Optional.empty();
+        }
+        synchronized (warnings) {
+            warnings.put(discordId, days);
+            return evaluate(days, today);
+        }
+    }
+
+    /**
+     * Drops cached counts for users warned outside {@link #recordWarning}, such as by a mass
+     * warning, so they are read again from the database the next time they are needed.
+     */
+    public void invalidate(Collection<String> discordIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (warnings) {
+            for (String discordId : discordIds) {
+                warnings.remove(discordId);
+            }
+        }
+    }
+
+    private TreeMap<LocalDate, Integer> load(String discordId, LocalDate today) {
+        Map<LocalDate, Integer> counts = db.getModerationCounts(discordId, "WARN", today.minusDays(maxWindowDays - 1));
+        return counts != null ? new TreeMap<>(counts) : null;
+    }
+
+    private Optional<Policy> evaluate(TreeMap<LocalDate, Integer> days, LocalDate today) {
+        // Days outside every window will never count again
+        days.headMap(today.minusDays(maxWindowDays - 1)).clear();
+
+        Policy reached = null;
+        for (Policy policy : policies) {
+            int count = 0;
+            for (int perDay : days.tailMap(today.minusDays(policy.days() - 1), true).values()) {
+                count += perDay;
+            }
+            if (count == policy.warnings() && (reached == null || policy.severity() > reached.severity())) {
+                reached = policy;
+            }
+        }
+        return Optional.ofNullable(reached);
+    }
+
+    /**
+     * An escalation policy.
+     *
+     * @param warnings Warnings within the window that trigger the ban
+     * @param days Window length in days, including today
+     * @param durationSeconds Length of the ban, or -1 for permanent
+     */
+    public record Policy(int warnings, int days, long durationSeconds) {
+        public boolean isPermanent() {
+            return durationSeconds <= 0;
+        }
+
+        /**
+         * When a ban issued now under this policy expires, or null for permanent.
+         */
+        public Instant expiresAt() {
+            return isPermanent() ? null : Instant.now().plusSeconds(durationSeconds);
+        }
+
+        public String displayDuration() {
+            return isPermanent() ? "Permanent" : DurationParser.formatDuration(durationSeconds);
+        }
+
+        public String describe() {
+            return warnings + " warnings in " + days + " days";
+        }
+
+        private long severity() {
+            return isPermanent() ? Long.MAX_VALUE : durationSeconds;
+        }
+    }
+}
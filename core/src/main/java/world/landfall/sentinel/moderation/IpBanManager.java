@@ -0,0 +1,243 @@
+package world.landfall.sentinel.moderation;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.IpBanInfo;
+import world.landfall.sentinel.util.CidrRange;
+import world.landfall.sentinel.util.IpPrefixTrie;
+import org.slf4j.Logger;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Evaluates connecting IPs against IP and subnet bans.
+ *
+ * Bans are held in one prefix trie per address family, so a login check is a
+ * single walk over at most 32 (IPv4) or 128 (IPv6) bits no matter how many
+ * ranges are banned, and the most specific matching range wins. The database is
+ * the source of truth; changes made on this instance are applied to the trie
+ * immediately, and a periodic sync picks up changes made elsewhere by patching
+ * only the entries that differ.
+ */
+public class IpBanManager {
+    private final DatabaseManager db;
+    private final Logger logger;
+    private final ScheduledExecutorService syncScheduler;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IpPrefixTrie<IpBanInfo> ipv4Bans = new IpPrefixTrie<>();
+    private final IpPrefixTrie<IpBanInfo> ipv6Bans = new IpPrefixTrie<>();
+    private final Map<CidrRange, IpBanInfo> bansByRange = new HashMap<>();
+
+    // Ranges added or removed on this instance, with the version of the change; guarded by lock
+    private final Map<CidrRange, Long> localChanges = new HashMap<>();
+    private long version;
+
+    public IpBanManager(DatabaseManager db, Logger logger) {
+        this.db = db;
+        this.logger = logger;
+
+        this.syncScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-IpBanSync");
+            t.setDaemon(true);
+            return t;
+        });
+
+        syncScheduler.scheduleAtFixedRate(this::sync, 0, 1, TimeUnit.MINUTES);
+        logger.info("🌐 IP ban sync scheduler started - will run every minute");
+    }
+
+    /**
+     * Finds the most specific active ban covering an IP address.
+     *
+     * @param ipAddress The address literal reported by the platform
+     * @return The matching ban, or empty if the address is not banned or cannot be parsed
+     */
+    public Optional<IpBanInfo> findBan(String ipAddress) {
+        byte[] address = CidrRange.parseAddress(ipAddress);
+        if (address == null) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            IpPrefixTrie<IpBanInfo> trie = address.length == 4 ? ipv4Bans : ipv6Bans;
+            return Optional.ofNullable(trie.findMostSpecific(address, IpBanInfo::isActive));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bans an IP range and applies it to the in-memory trie.
+     *
+     * @param range The range to ban
+     * @param reason The reason for the ban
+     * @param expiresAt When the ban expires (null for permanent)
+     * @param createdBy Discord ID of who created the ban
+     * @return The stored ban, or empty if the database write failed
+     */
+    public Optional<IpBanInfo> addBan(CidrRange range, String reason, Instant expiresAt, String createdBy) {
+        String cidr = range.toString();
+        if (!db.addIpBan(cidr, reason, expiresAt, createdBy)) {
+            return Optional.empty();
+        }
+
+        IpBanInfo ban = new IpBanInfo(cidr, reason, expiresAt, Instant.now(), createdBy);
+        lock.writeLock().lock();
+        try {
+            put(range, ban);
+            localChanges.put(range, ++version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return Optional.of(ban);
+    }
+
+    /**
+     * Removes the ban on exactly this range. The trie is only changed once the database row
+     * is gone; a stale entry for a range the database no longer has is left to the sync.
+     *
+     * @param range The banned range
+     * @return The removed ban as stored in the database, or empty if the range was not banned
+     * @throws SQLException If the delete failed, in which case the ban is still enforced
+     */
+    public Optional<IpBanInfo> removeBan(CidrRange range) throws SQLException {
+        Optional<IpBanInfo> removed = db.removeIpBan(range.toString());
+        if (removed.isEmpty()) {
+            return removed;
+        }
+
+        lock.writeLock().lock();
+        try {
+            remove(range);
+            localChanges.put(range, ++version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed;
+    }
+
+    /**
+     * Gets all active bans, most recently created first.
+     */
+    public List<IpBanInfo> getActiveBans() {
+        lock.readLock().lock();
+        try {
+            return bansByRange.values().stream()
+                .filter(IpBanInfo::isActive)
+                .sorted((a, b) -> b.createdAt().compareTo(a.createdAt()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the trie in line with the database, touching only entries that changed,
+     * and removes expired rows.
+     *
+     * Ranges added or removed on this instance after the database was read are left
+     * alone, so a snapshot taken just before a local ban committed cannot undo it.
+     */
+    public void sync() {
+        try {
+            db.cleanupExpiredIpBans();
+
+            long readVersion;
+            lock.readLock().lock();
+            try {
+                readVersion = version;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            List<IpBanInfo> active = db.getActiveIpBans();
+            if (active == null) {
+                return; // Keep enforcing what we have until the database answers again
+            }
+
+            Map<CidrRange, IpBanInfo> stored = new HashMap<>();
+            for (IpBanInfo ban : active) {
+                try {
+                    stored.put(CidrRange.parse(ban.cidr()), ban);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping invalid IP ban range '{}' in database", ban.cidr());
+                }
+            }
+
+            int added = 0;
+            int removed = 0;
+            lock.writeLock().lock();
+            try {
+                // Changes made here since the read are newer than the snapshot
+                Set<CidrRange> newer = new HashSet<>();
+                localChanges.forEach((range, changedAt) -> {
+                    if (changedAt > readVersion) {
+                        newer.add(range);
+                    }
+                });
+                localChanges.keySet().retainAll(newer);
+
+                Set<CidrRange> gone = new HashSet<>(bansByRange.keySet());
+                gone.removeAll(stored.keySet());
+                gone.removeAll(newer);
+                for (CidrRange range : gone) {
+                    remove(range);
+                    removed++;
+                }
+
+                for (Map.Entry<CidrRange, IpBanInfo> entry : stored.entrySet()) {
+                    if (newer.contains(entry.getKey())) {
+                        continue;
+                    }
+                    if (!entry.getValue().equals(bansByRange.get(entry.getKey()))) {
+                        put(entry.getKey(), entry.getValue());
+                        added++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (added > 0 || removed > 0) {
+                logger.debug("IP ban sync: {} added/updated, {} removed, {} active", added, removed, stored.size());
+            }
+        } catch (Exception e) {
+            logger.error("🌐 Error syncing IP bans", e);
+        }
+    }
+
+    public void shutdown() {
+        syncScheduler.shutdown();
+        try {
+            if (!syncScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                syncScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            syncScheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(CidrRange range, IpBanInfo ban) {
+        bansByRange.put(range, ban);
+        (range.isIpv4() ? ipv4Bans : ipv6Bans).put(range, ban);
+    }
+
+    private IpBanInfo remove(CidrRange range) {
+        bansByRange.remove(range);
+        return (range.isIpv4() ? ipv4Bans : ipv6Bans).remove(range);
+    }
+}
@@ -0,0 +1,56 @@
+package world.landfall.sentinel.moderation;
+
+import world.landfall.sentinel.context.PlatformAdapter;
+import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.BulkTargets;
+import world.landfall.sentinel.db.LinkInfo;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Event bus subscriber that kicks banned users from every linked platform they are online on.
+ * Their links are looked up here, off the command thread, with one query per event.
+ */
+public class KickEventSubscriber implements Consumer<ModerationEvent> {
+    private final DatabaseManager db;
+    private final PlatformAdapter platformAdapter;
+    private final Logger logger;
+
+    public KickEventSubscriber(DatabaseManager db, PlatformAdapter platformAdapter, Logger logger) {
+        this.db = db;
+        this.platformAdapter = platformAdapter;
+        this.logger = logger;
+    }
+
+    @Override
+    public void accept(ModerationEvent event) {
+        if (event instanceof ModerationEvent.Banned banned && banned.quarantined()) {
+            kick(db.findByDiscordId(banned.discordId()), banned.reason());
+        } else if (event instanceof ModerationEvent.MassActioned mass && "BAN".equals(mass.actionType())) {
+            BulkTargets targets = db.getBulkTargets(mass.discordIds(), false);
+            if (targets == null) {
+                logger.error("Could not look up linked accounts of {} mass banned users, online players were not kicked",
+                        mass.discordIds().size());
+                return;
+            }
+            for (List<LinkInfo> links : targets.links().values()) {
+                kick(links, mass.reason());
+            }
+        }
+    }
+
+    private void kick(List<LinkInfo> links, String reason) {
+        for (LinkInfo link : links) {
+            try {
+                if (platformAdapter.getPlayer(link.uuid()).isPresent()) {
+                    platformAdapter.kickPlayer(link.uuid(), "BANNED FROM SERVER\n\nReason: " + reason);
+                    logger.info("Kicked player {} ({}) from server due to ban", link.uuid(), link.platform().displayName());
+                }
+            } catch (Exception e) {
+                logger.error("Error while trying to kick banned player {} ({})", link.uuid(), link.discordId(), e);
+            }
+        }
+    }
+}
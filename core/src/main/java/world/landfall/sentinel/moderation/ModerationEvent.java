@@ -0,0 +1,56 @@
+package world.landfall.sentinel.moderation;
+
+import world.landfall.sentinel.context.GamePlatform;
+import world.landfall.sentinel.db.IpBanInfo;
+import world.landfall.sentinel.db.QuarantineInfo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Something that changed a user's standing or links, published on the {@link ModerationEventBus}
+ * once it has been committed to the database. Subscribers carry out the side effects.
+ */
+public sealed interface ModerationEvent {
+
+    record Noted(String discordId, long actionId, String note, String issuedBy) implements ModerationEvent { }
+
+    record Warned(String discordId, long actionId, String reason, String issuedBy) implements ModerationEvent { }
+
+    /**
+     * @param duration The display duration, or null for permanent
+     * @param expiresAt When the quarantine expires, or null for permanent
+     * @param quarantined Whether a quarantine was written, which needs a quarantine role to be configured
+     * @param automated Whether an escalation policy issued the ban, on a warning from {@code issuedBy}
+     */
+    record Banned(String discordId, long actionId, String reason, String issuedBy, String duration,
+                  Instant expiresAt, boolean quarantined, boolean automated) implements ModerationEvent { }
+
+    record Unbanned(String discordId, long actionId, String reason, String issuedBy,
+                    QuarantineInfo previousBan) implements ModerationEvent { }
+
+    /**
+     * The same warning or ban recorded against many users at once.
+     *
+     * @param actionType WARN or BAN
+     * @param actionIds The recorded action IDs in the same order as {@code discordIds}; generated keys
+     *                  come back in insertion order, so if any are missing it is the last ones
+     * @param expiresAt When the quarantines expire, or null for permanent
+     */
+    record MassActioned(String actionType, List<String> discordIds, List<Long> actionIds, String reason,
+                        String issuedBy, String duration, Instant expiresAt, boolean quarantined) implements ModerationEvent { }
+
+    record IpBanned(IpBanInfo ban, String duration) implements ModerationEvent { }
+
+    record IpUnbanned(IpBanInfo previousBan, String issuedBy) implements ModerationEvent { }
+
+    record Linked(String discordId, UUID uuid, GamePlatform platform, String username) implements ModerationEvent { }
+
+    /**
+     * A departed user's links were removed. Links kept for moderation history do not count.
+     */
+    record Unlinked(String discordId) implements ModerationEvent { }
+
+    record TosAccepted(String discordId, String username, String version) implements ModerationEvent { }
+}
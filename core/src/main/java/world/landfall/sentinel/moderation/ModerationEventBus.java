@@ -0,0 +1,209 @@
+package world.landfall.sentinel.moderation;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Delivers {@link ModerationEvent}s to the side effects of a moderation action: the audit
+ * embed, the login deny index, Discord roles, kicks, DMs and metrics.
+ *
+ * Each subscriber has its own bounded queue and worker thread, so a slow or failing
+ * subscriber only delays itself. Events reach each subscriber in the order they were published.
+ *
+ * What happens when a subscriber falls behind depends on how it subscribed. For
+ * {@link #subscribe} subscribers the event is dropped for that subscriber alone and the drop
+ * is logged, which suits side effects that are stored elsewhere or can be rebuilt, such as
+ * the audit outbox and pending DMs. For {@link #subscribeBlocking} subscribers, whose effect
+ * exists nowhere else, publishing waits for room instead, and once the bus is shutting down
+ * the handler runs on the publishing thread.
+ */
+public class ModerationEventBus {
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Logger logger;
+    private volatile boolean shuttingDown;
+
+    public ModerationEventBus(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Starts delivering events to {@code handler} on a thread of its own.
+     *
+     * @param name Short name used for the thread and in logs
+     * @param capacity Events that may wait for this subscriber before new ones are dropped
+     */
+    public void subscribe(String name, int capacity, Consumer<ModerationEvent> handler) {
+        add(new Subscriber(name, Math.max(1, capacity), false, handler));
+    }
+
+    /**
+     * Like {@link #subscribe}, but the subscriber never misses an event: when its queue is full
+     * {@link #publish} waits for room, and once the bus is shutting down the handler runs on
+     * the publishing thread.
+     */
+    public void subscribeBlocking(String name, int capacity, Consumer<ModerationEvent> handler) {
+        add(new Subscriber(name, Math.max(1, capacity), true, handler));
+    }
+
+    private void add(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        subscriber.thread.start();
+    }
+
+    /**
+     * Queues an event for every subscriber. Only waits if a blocking subscriber's queue is full.
+     */
+    public void publish(ModerationEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            Queued queued = new Queued(event, System.nanoTime());
+            if (subscriber.blocking) {
+                publishBlocking(subscriber, queued);
+            } else if (shuttingDown) {
+                subscriber.dropped.increment();
+                logger.warn("📨 Shutting down, {} not delivered to {}", event.getClass().getSimpleName(), subscriber.name);
+            } else if (!subscriber.queue.offer(queued)) {
+                subscriber.dropped.increment();
+                logger.error("📨 {} subscriber has {} events waiting, dropping {}",
+                        subscriber.name, subscriber.queue.size(), event);
+            }
+        }
+    }
+
+    private void publishBlocking(Subscriber subscriber, Queued queued) {
+        try {
+            while (!shuttingDown) {
+                if (subscriber.queue.offer(queued, 1, TimeUnit.SECONDS)) {
+                    // The worker may have stopped between the check and the offer
+                    if (!shuttingDown || !subscriber.queue.remove(queued)) {
+                        return;
+                    }
+                    break;
+                }
+                subscriber.waited.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handle(subscriber, queued);
+    }
+
+    /**
+     * Returns a one-line summary per subscriber since the last drain and resets its counters,
+     * or an empty string if nothing was delivered or dropped.
+     */
+    public String drainSummary() {
+        List<String> lines = new ArrayList<>();
+        for (Subscriber s : subscribers) {
+            long handled = s.handled.sumThenReset();
+            long failed = s.failed.sumThenReset();
+            long dropped = s.dropped.sumThenReset();
+            long waited = s.waited.sumThenReset();
+            long maxLagNanos = s.maxLagNanos.getAndSet(0);
+            if (handled == 0 && failed == 0 && dropped == 0 && waited == 0) {
+                continue;
+            }
+            lines.add(String.format("%s n=%d maxLag=%dms failed=%d %s=%d waiting=%d",
+                    s.name, handled, TimeUnit.NANOSECONDS.toMillis(maxLagNanos), failed,
+                    s.blocking ? "publisherWaits" : "dropped", s.blocking ? waited : dropped, s.queue.size()));
+        }
+        return String.join(", ", lines);
+    }
+
+    /**
+     * Stops queueing events and gives the subscribers a few seconds to work off their queues.
+     * Whatever a blocking subscriber has left after that is handled on the calling thread.
+     */
+    public void shutdown() {
+        shuttingDown = true;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_WAIT_MILLIS;
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.thread.isAlive()) {
+                continue;
+            }
+            subscriber.thread.interrupt();
+            if (!subscriber.blocking) {
+                logger.warn("📨 {} subscriber stopped with {} events undelivered", subscriber.name, subscriber.queue.size());
+                continue;
+            }
+            logger.warn("📨 {} subscriber still has {} events, handling them before shutdown", subscriber.name, subscriber.queue.size());
+            Queued queued;
+            while ((queued = subscriber.queue.poll()) != null) {
+                handle(subscriber, queued);
+            }
+        }
+    }
+
+    private void run(Subscriber subscriber) {
+        while (true) {
+            Queued queued;
+            try {
+                queued = subscriber.queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (queued == null) {
+                if (shuttingDown) {
+                    return;
+                }
+                continue;
+            }
+
+            handle(subscriber, queued);
+        }
+    }
+
+    private void handle(Subscriber subscriber, Queued queued) {
+        subscriber.maxLagNanos.accumulateAndGet(System.nanoTime() - queued.publishedAt(), Math::max);
+        try {
+            subscriber.handler.accept(queued.event());
+            subscriber.handled.increment();
+        } catch (Exception e) {
+            subscriber.failed.increment();
+            logger.error("📨 {} subscriber failed on {}", subscriber.name, queued.event(), e);
+        }
+    }
+
+    private record Queued(ModerationEvent event, long publishedAt) { }
+
+    private final class Subscriber {
+        final String name;
+        final BlockingQueue<Queued> queue;
+        final boolean blocking;
+        final Consumer<ModerationEvent> handler;
+        final Thread thread;
+        final LongAdder handled = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        // Seconds publishers spent waiting for room in a blocking subscriber's queue
+        final LongAdder waited = new LongAdder();
+        final AtomicLong maxLagNanos = new AtomicLong();
+
+        Subscriber(String name, int capacity, boolean blocking, Consumer<ModerationEvent> handler) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.blocking = blocking;
+            this.handler = handler;
+            this.thread = new Thread(() -> ModerationEventBus.this.run(this), "Sentinel-Events-" + name);
+            this.thread.setDaemon(true);
+        }
+    }
+}
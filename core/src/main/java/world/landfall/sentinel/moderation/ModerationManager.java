@@ -2,139 +2,220 @@ package world.landfall.sentinel.moderation;
 
 import world.landfall.sentinel.context.GamePlatform;
 import world.landfall.sentinel.db.DatabaseManager;
+import world.landfall.sentinel.db.DatabaseManager.ActionOutbox;
+import world.landfall.sentinel.db.IpBanInfo;
 import world.landfall.sentinel.db.LinkInfo;
 import world.landfall.sentinel.db.QuarantineInfo;
+import world.landfall.sentinel.discord.DirectMessageQueue;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.slf4j.Logger;
 
 import java.awt.Color;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Manages moderation actions including notes, warnings, bans, and audit logging.
+ *
+ * Each action is written to the database and then published on the {@link ModerationEventBus},
+ * whose subscribers send the audit embed and carry out any role changes, kicks and DMs, so
+ * callers can reply as soon as the write has committed. The audit embed and the pending DM
+ * of a warning are stored in the same transaction as the action, so the subscribers that
+ * deliver them only need to be told to look, and nothing is lost if they never hear of it.
  */
 public class ModerationManager {
+    // Prefixed to the reason of bans issued by an escalation policy, so /history shows them as automated
+    private static final String AUTOMATED_REASON_PREFIX = "[Automated] ";
+
     private final DatabaseManager db;
-    private final String auditChannelId;
+    private final ModerationEventBus eventBus;
+    private final EscalationManager escalation;
+    // Audit outbox channel for moderation embeds, or null if no moderation audit channel is configured
+    private final String auditChannel;
     private final Logger logger;
-    private JDA jda;
 
-    public ModerationManager(DatabaseManager db, String auditChannelId, Logger logger) {
+    public ModerationManager(DatabaseManager db, ModerationEventBus eventBus, EscalationManager escalation,
+                             String auditChannel, Logger logger) {
         this.db = db;
-        this.auditChannelId = auditChannelId;
+        this.eventBus = eventBus;
+        this.escalation = escalation;
+        this.auditChannel = auditChannel;
         this.logger = logger;
     }
 
     /**
-     * Sets the JDA instance for sending audit messages.
-     */
-    public void setJDA(JDA jda) {
-        this.jda = jda;
-    }
-
-    /**
-     * Records a staff note (internal, not visible to user) and sends audit embed.
+     * Records a staff note (internal, not visible to user) and publishes it.
      */
     public long recordNote(String discordId, String note, String issuedBy) {
-        // Look up linked Minecraft account if exists
-        List<LinkInfo> links = db.findByDiscordId(discordId);
-        String minecraftUuid = links.stream()
-                .filter(l -> l.platform() == GamePlatform.MINECRAFT)
-                .findFirst().map(l -> l.uuid().toString()).orElse(null);
-
-        // Store in database
-        long actionId = db.addModerationAction(discordId, minecraftUuid, "NOTE", note, issuedBy);
+        // Store in database; the linked Minecraft UUID is resolved by the insert
+        long actionId = db.addModerationAction(discordId, "NOTE", note, issuedBy, null,
+                outbox(ids -> createNoteEmbed(discordId, note, issuedBy, ids.get(0)), null));
 
         if (actionId > 0) {
             logger.info("Staff note #{} added to Discord ID {} by {}: {}", actionId, discordId, issuedBy, note);
-
-            // Send audit embed
-            sendAuditEmbed(createNoteEmbed(discordId, note, issuedBy, actionId));
+            eventBus.publish(new ModerationEvent.Noted(discordId, actionId, note, issuedBy));
         }
 
         return actionId;
     }
 
     /**
-     * Records a warning and sends audit embed.
+     * Records a warning and publishes it, then bans the user if the warning reached an
+     * escalation policy.
      */
     public long recordWarning(String discordId, String reason, String issuedBy) {
-        // Look up linked Minecraft account if exists
-        List<LinkInfo> links = db.findByDiscordId(discordId);
-        String minecraftUuid = links.stream()
-                .filter(l -> l.platform() == GamePlatform.MINECRAFT)
-                .findFirst().map(l -> l.uuid().toString()).orElse(null);
+        escalation.preload(discordId);
 
-        // Store in database
-        long actionId = db.addModerationAction(discordId, minecraftUuid, "WARN", reason, issuedBy);
+        // Store in database; the linked Minecraft UUID is resolved by the insert
+        long actionId = db.addModerationAction(discordId, "WARN", reason, issuedBy, null,
+                outbox(ids -> createWarningEmbed(discordId, reason, issuedBy, ids.get(0)), DirectMessageQueue.STATUS_PENDING));
 
         if (actionId > 0) {
             logger.info("Warning #{} issued to Discord ID {} by {}: {}", actionId, discordId, issuedBy, reason);
-
-            // Send audit embed
-            sendAuditEmbed(createWarningEmbed(discordId, reason, issuedBy, actionId));
+            eventBus.publish(new ModerationEvent.Warned(discordId, actionId, reason, issuedBy));
+            escalation.recordWarning(discordId).ifPresent(policy -> escalate(discordId, policy, issuedBy, actionId));
         }
 
         return actionId;
     }
 
     /**
-     * Records a ban and sends audit embed.
+     * Bans a user whose warning reached an escalation policy, through the same path as /ban.
+     * The ban is attributed to the staff member who issued the warning and marked as automated.
      */
-    public long recordBan(String discordId, String reason, String issuedBy) {
-        return recordBan(discordId, reason, issuedBy, null);
+    private void escalate(String discordId, EscalationManager.Policy policy, String issuedBy, long warningId) {
+        if (db.getActiveQuarantine(discordId).isPresent()) {
+            logger.info("Warning #{} reached escalation policy ({}), but Discord ID {} is already banned",
+                    warningId, policy.describe(), discordId);
+            return;
+        }
+
+        String reason = AUTOMATED_REASON_PREFIX + policy.describe() + " (warning #" + warningId + ")";
+        long banId = recordBan(discordId, reason, issuedBy, policy.displayDuration(), true, policy.expiresAt(), true);
+        if (banId > 0) {
+            logger.info("⚖️ Warning #{} escalated to ban #{} for Discord ID {} ({})", warningId, banId, discordId, policy.describe());
+        } else {
+            logger.error("❌ Failed to record escalation ban for Discord ID {} after warning #{}", discordId, warningId);
+        }
     }
 
     /**
-     * Records a ban and sends audit embed with optional duration.
+     * Records a ban, and the quarantine that enforces it if {@code quarantine} is set, in one
+     * transaction and publishes it.
+     *
+     * @param duration The display duration (nullable)
+     * @param quarantine Whether to write a quarantine as well (only with a quarantine role)
+     * @param expiresAt When the quarantine expires, or null for permanent
      */
-    public long recordBan(String discordId, String reason, String issuedBy, String duration) {
-        // Look up linked Minecraft account if exists
-        List<LinkInfo> links = db.findByDiscordId(discordId);
-        String minecraftUuid = links.stream()
-                .filter(l -> l.platform() == GamePlatform.MINECRAFT)
-                .findFirst().map(l -> l.uuid().toString()).orElse(null);
+    public long recordBan(String discordId, String reason, String issuedBy, String duration, boolean quarantine, Instant expiresAt) {
+        return recordBan(discordId, reason, issuedBy, duration, quarantine, expiresAt, false);
+    }
 
-        // Store in database with duration
-        long actionId = db.addModerationAction(discordId, minecraftUuid, "BAN", reason, issuedBy, duration);
+    private long recordBan(String discordId, String reason, String issuedBy, String duration, boolean quarantine,
+                           Instant expiresAt, boolean automated) {
+        long actionId = db.addBan(discordId, reason, issuedBy, duration, quarantine, expiresAt,
+                outbox(ids -> createBanEmbed(discordId, reason, issuedBy, ids.get(0), duration, automated), null));
 
         if (actionId > 0) {
             logger.info("Ban #{} issued to Discord ID {} by {}: {}", actionId, discordId, issuedBy, reason);
-
-            // Send audit embed with duration
-            sendAuditEmbed(createBanEmbed(discordId, reason, issuedBy, actionId, duration));
+            eventBus.publish(new ModerationEvent.Banned(discordId, actionId, reason, issuedBy, duration, expiresAt,
+                    quarantine, automated));
         }
 
         return actionId;
     }
 
     /**
-     * Records an unban and sends audit embed.
+     * Removes a quarantine and records the unban in one transaction, then publishes it.
+     *
+     * @param previousBan The quarantine being lifted, shown in the audit embed
+     * @return The action ID, or -1 if there was no quarantine to remove or the write failed
      */
-    public long recordUnban(String discordId, String reason, String issuedBy) {
-        // Look up linked Minecraft account if exists
-        List<LinkInfo> links = db.findByDiscordId(discordId);
-        String minecraftUuid = links.stream()
-                .filter(l -> l.platform() == GamePlatform.MINECRAFT)
-                .findFirst().map(l -> l.uuid().toString()).orElse(null);
-
-        // Store in database
-        long actionId = db.addModerationAction(discordId, minecraftUuid, "UNBAN", reason, issuedBy);
+    public long recordUnban(String discordId, String reason, String issuedBy, QuarantineInfo previousBan) {
+        long actionId = db.addUnban(discordId, reason, issuedBy,
+                outbox(ids -> createUnbanEmbed(discordId, reason, issuedBy, ids.get(0), previousBan), null));
 
         if (actionId > 0) {
             logger.info("Unban #{} issued to Discord ID {} by {}: {}", actionId, discordId, issuedBy, reason);
-
-            // Send audit embed
-            sendAuditEmbed(createUnbanEmbed(discordId, reason, issuedBy, actionId, null));
+            eventBus.publish(new ModerationEvent.Unbanned(discordId, actionId, reason, issuedBy, previousBan));
         }
 
         return actionId;
     }
 
+    /**
+     * Records the same warning or ban against many users in one transaction and publishes it
+     * as a single event, so the audit channel gets one summary instead of one embed per user.
+     *
+     * @param discordIds The users, in the order to record them
+     * @param links Linked accounts of the users, keyed by Discord ID
+     * @param actionType WARN or BAN
+     * @param duration The display duration for bans (nullable)
+     * @param quarantine Whether to write quarantines as well (bans with a quarantine role)
+     * @param expiresAt When the quarantines expire, or null for permanent
+     * @return The IDs of the recorded actions in user order, or an empty list if nothing was recorded
+     */
+    public List<Long> recordMassAction(List<String> discordIds, Map<String, List<LinkInfo>> links, String actionType,
+                                       String reason, String issuedBy, String duration, boolean quarantine, Instant expiresAt) {
+        List<DatabaseManager.BulkModerationTarget> targets = new ArrayList<>(discordIds.size());
+        for (String discordId : discordIds) {
+            String minecraftUuid = links.getOrDefault(discordId, List.of()).stream()
+                    .filter(l -> l.platform() == GamePlatform.MINECRAFT)
+                    .findFirst().map(l -> l.uuid().toString()).orElse(null);
+            targets.add(new DatabaseManager.BulkModerationTarget(discordId, minecraftUuid));
+        }
+
+        List<Long> actionIds = db.addBulkModerationActions(targets, actionType, reason, issuedBy, duration, quarantine, expiresAt,
+                outbox(ids -> createMassActionEmbed(discordIds, actionType, reason, issuedBy, ids, duration),
+                        "WARN".equals(actionType) ? DirectMessageQueue.STATUS_PENDING : null));
+
+        if (!actionIds.isEmpty()) {
+            if ("WARN".equals(actionType)) {
+                // Mass warnings are counted but do not trigger escalation
+                escalation.invalidate(discordIds);
+            }
+            logger.info("Mass {} #{}-#{} issued to {} Discord IDs by {}: {}",
+                    actionType, actionIds.get(0), actionIds.get(actionIds.size() - 1), actionIds.size(), issuedBy, reason);
+
+            eventBus.publish(new ModerationEvent.MassActioned(actionType, List.copyOf(discordIds), List.copyOf(actionIds),
+                    reason, issuedBy, duration, expiresAt, quarantine));
+        }
+
+        return actionIds;
+    }
+
+    /**
+     * What to store alongside an action: its audit embed, if there is an audit channel, and its initial DM status.
+     */
+    private ActionOutbox outbox(Function<List<Long>, MessageEmbed> auditEmbed, String dmStatus) {
+        return new ActionOutbox(auditChannel, ids -> auditEmbed.apply(ids).toData().toString(), dmStatus);
+    }
+
+    /**
+     * Publishes a new IP ban.
+     * IP bans are not tied to a Discord user, so they are not stored as moderation actions.
+     */
+    public void recordIpBan(IpBanInfo ban, String duration) {
+        logger.info("IP ban on {} issued by {}: {}", ban.cidr(), ban.createdBy(), ban.reason());
+        eventBus.publish(new ModerationEvent.IpBanned(ban, duration));
+    }
+
+    /**
+     * Publishes a removed IP ban.
+     */
+    public void recordIpUnban(IpBanInfo previousBan, String issuedBy) {
+        logger.info("IP ban on {} removed by {}", previousBan.cidr(), issuedBy);
+        eventBus.publish(new ModerationEvent.IpUnbanned(previousBan, issuedBy));
+    }
+
     /**
      * Creates a note embed with blue theme.
      */
@@ -182,6 +263,14 @@ public class ModerationManager {
      * Creates a ban embed with red theme and optional duration.
      */
     public MessageEmbed createBanEmbed(String discordId, String reason, String issuedBy, long actionId, String duration) {
+        return createBanEmbed(discordId, reason, issuedBy, actionId, duration, false);
+    }
+
+    /**
+     * Creates a ban embed with red theme, marking bans issued by an escalation policy as automated.
+     */
+    public MessageEmbed createBanEmbed(String discordId, String reason, String issuedBy, long actionId, String duration,
+                                       boolean automated) {
         EmbedBuilder builder = new EmbedBuilder()
             .setTitle("**USER BANNED**")
             .setColor(new Color(237, 66, 69)) // Red
@@ -195,10 +284,10 @@ public class ModerationManager {
         }
 
         builder.addField("Reason", reason, false)
-            .addField("Issued by", "<@" + issuedBy + ">", true)
+            .addField(automated ? "Triggered by warning from" : "Issued by", "<@" + issuedBy + ">", true)
             .addField("Time", "<t:" + Instant.now().getEpochSecond() + ":F>", true)
             .setTimestamp(Instant.now())
-            .setFooter("Sentinel Moderation", null);
+            .setFooter(automated ? "Sentinel Moderation - Automated Escalation" : "Sentinel Moderation", null);
 
         return builder.build();
     }
@@ -232,6 +321,86 @@ public class ModerationManager {
         return builder.build();
     }
 
+    /**
+     * Creates a summary embed for a mass warning (yellow) or mass ban (red).
+     */
+    public MessageEmbed createMassActionEmbed(List<String> discordIds, String actionType, String reason, String issuedBy,
+                                              List<Long> actionIds, String duration) {
+        boolean ban = "BAN".equals(actionType);
+
+        // Mentions up to the field limit, then a count of the rest
+        StringBuilder users = new StringBuilder();
+        int listed = 0;
+        for (String discordId : discordIds) {
+            String mention = "<@" + discordId + ">";
+            if (users.length() + mention.length() + 32 > MessageEmbed.VALUE_MAX_LENGTH) {
+                break;
+            }
+            users.append(users.length() == 0 ? "" : " ").append(mention);
+            listed++;
+        }
+        if (listed < discordIds.size()) {
+            users.append(" and ").append(discordIds.size() - listed).append(" more");
+        }
+
+        EmbedBuilder builder = new EmbedBuilder()
+            .setTitle(ban ? "**MASS BAN**" : "**MASS WARNING**")
+            .setColor(ban ? new Color(237, 66, 69) : new Color(255, 204, 0)) // Red or yellow
+            .addField("Users (" + discordIds.size() + ")", users.toString(), false)
+            .addField("Audit Numbers", actionIds.get(0) + " - " + actionIds.get(actionIds.size() - 1), true);
+
+        if (ban) {
+            builder.addField("Duration", duration != null && !duration.isEmpty() ? duration : "Permanent", true);
+        }
+
+        builder.addField("Reason", reason, false)
+            .addField("Issued by", "<@" + issuedBy + ">", true)
+            .addField("Time", "<t:" + Instant.now().getEpochSecond() + ":F>", true)
+            .setTimestamp(Instant.now())
+            .setFooter("Sentinel Moderation", null);
+
+        return builder.build();
+    }
+
+    /**
+     * Creates an IP ban embed with red theme.
+     */
+    public MessageEmbed createIpBanEmbed(IpBanInfo ban, String duration) {
+        return new EmbedBuilder()
+            .setTitle("**IP RANGE BANNED**")
+            .setColor(new Color(237, 66, 69)) // Red
+            .addField("Range", "`" + ban.cidr() + "`", true)
+            .addField("Duration", duration != null && !duration.isEmpty() ? duration : "Permanent", true)
+            .addField("Reason", ban.reason(), false)
+            .addField("Issued by", "<@" + ban.createdBy() + ">", true)
+            .addField("Time", "<t:" + Instant.now().getEpochSecond() + ":F>", true)
+            .setTimestamp(Instant.now())
+            .setFooter("Sentinel Moderation", null)
+            .build();
+    }
+
+    /**
+     * Creates an IP unban embed with green theme.
+     */
+    public MessageEmbed createIpUnbanEmbed(IpBanInfo previousBan, String issuedBy) {
+        EmbedBuilder builder = new EmbedBuilder()
+            .setTitle("**IP RANGE UNBANNED**")
+            .setColor(new Color(87, 242, 135)) // Green
+            .addField("Range", "`" + previousBan.cidr() + "`", true)
+            .addField("Original Ban Reason", previousBan.reason(), false);
+
+        if (!previousBan.isPermanent()) {
+            builder.addField("Time Remaining", previousBan.getFormattedTimeRemaining(), true);
+        }
+
+        builder.addField("Unbanned by", "<@" + issuedBy + ">", true)
+            .addField("Time", "<t:" + Instant.now().getEpochSecond() + ":F>", true)
+            .setTimestamp(Instant.now())
+            .setFooter("Sentinel Moderation", null);
+
+        return builder.build();
+    }
+
     /**
      * Creates a history embed for a user's moderation actions.
      */
@@ -299,26 +468,88 @@ public class ModerationManager {
     }
 
     /**
-     * Sends an embed to the audit channel if configured.
+     * Creates a statistics embed from the daily rollups: totals, the most active staff and a
+     * weekly trend, oldest week first.
+     *
+     * @param days The period covered, ending today (UTC)
+     * @param staffId The staff member the stats are limited to, or null for everyone
+     * @param backfillComplete Whether the rollups cover the history recorded before they existed
      */
-    private void sendAuditEmbed(MessageEmbed embed) {
-        if (jda == null || auditChannelId == null || auditChannelId.isBlank()) {
-            return;
+    public MessageEmbed createStatsEmbed(List<DatabaseManager.DailyStat> stats, int days, String staffId, boolean backfillComplete) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        int weeks = (days + 6) / 7;
+
+        Map<String, Integer> totals = new HashMap<>();
+        Map<String, Map<String, Integer>> byStaff = new HashMap<>();
+        List<Map<String, Integer>> byWeek = new ArrayList<>(weeks); // Index 0 is the last 7 days
+        for (int i = 0; i < weeks; i++) {
+            byWeek.add(new HashMap<>());
+        }
+        for (DatabaseManager.DailyStat stat : stats) {
+            totals.merge(stat.actionType(), stat.count(), Integer::sum);
+            byStaff.computeIfAbsent(stat.issuedBy(), k -> new HashMap<>()).merge(stat.actionType(), stat.count(), Integer::sum);
+            int week = (int) (ChronoUnit.DAYS.between(stat.day(), today) / 7);
+            if (week >= 0 && week < weeks) {
+                byWeek.get(week).merge(stat.actionType(), stat.count(), Integer::sum);
+            }
         }
 
-        try {
-            TextChannel channel = jda.getTextChannelById(auditChannelId);
-            if (channel != null) {
-                channel.sendMessageEmbeds(embed).queue(
-                    success -> logger.debug("Audit embed sent to channel {}", auditChannelId),
-                    error -> logger.error("Failed to send audit embed to channel {}", auditChannelId, error)
-                );
-            } else {
-                logger.warn("Audit channel {} not found", auditChannelId);
+        EmbedBuilder builder = new EmbedBuilder()
+            .setTitle("**MODERATION STATS**")
+            .setColor(new Color(88, 101, 242)) // Discord blurple
+            .setDescription("Last " + days + " days" + (staffId != null ? " for <@" + staffId + ">" : ""));
+
+        if (totals.isEmpty()) {
+            builder.addField("Totals", "No moderation actions in this period.", false);
+        } else {
+            builder.addField("Totals", formatCounts(totals), false);
+
+            if (staffId == null) {
+                List<Map.Entry<String, Map<String, Integer>>> staff = new ArrayList<>(byStaff.entrySet());
+                staff.sort((a, b) -> Integer.compare(total(b.getValue()), total(a.getValue())));
+                StringBuilder lines = new StringBuilder();
+                for (int i = 0; i < Math.min(10, staff.size()); i++) {
+                    lines.append("<@").append(staff.get(i).getKey()).append(">: ")
+                        .append(formatCounts(staff.get(i).getValue())).append("\n");
+                }
+                if (staff.size() > 10) {
+                    lines.append("And ").append(staff.size() - 10).append(" more");
+                }
+                builder.addField("Most Active Staff", lines.toString(), false);
             }
-        } catch (Exception e) {
-            logger.error("Error sending audit embed", e);
+
+            StringBuilder trend = new StringBuilder();
+            for (int week = weeks - 1; week >= 0; week--) {
+                // The oldest week is cut short when the period is not a whole number of weeks
+                int weekDays = Math.min(7, days - week * 7);
+                LocalDate start = today.minusDays(week * 7L + weekDays - 1);
+                int warnings = byWeek.get(week).getOrDefault("WARN", 0);
+                trend.append("<t:").append(start.atStartOfDay(ZoneOffset.UTC).toEpochSecond()).append(":d>: ")
+                    .append(byWeek.get(week).isEmpty() ? "none" : formatCounts(byWeek.get(week)))
+                    .append(String.format(" (%.1f warnings/day)", warnings / (double) weekDays))
+                    .append("\n");
+            }
+            builder.addField("Weekly Trend", trend.toString(), false);
         }
+
+        builder.setFooter("Sentinel Moderation - Statistics" + (backfillComplete ? "" : " (older history is still being counted)"), null)
+            .setTimestamp(Instant.now());
+        return builder.build();
+    }
+
+    private static String formatCounts(Map<String, Integer> counts) {
+        List<String> parts = new ArrayList<>();
+        for (String[] type : new String[][] {{"NOTE", "notes"}, {"WARN", "warnings"}, {"BAN", "bans"}, {"UNBAN", "unbans"}}) {
+            int count = counts.getOrDefault(type[0], 0);
+            if (count > 0) {
+                parts.add(count + " " + type[1]);
+            }
+        }
+        return String.join(", ", parts);
+    }
+
+    private static int total(Map<String, Integer> counts) {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
     }
 
     /**
@@ -0,0 +1,61 @@
+package world.landfall.sentinel.moderation;
+
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Event bus subscriber that counts moderation events by type, and logs those counts together
+ * with each subscriber's throughput, lag and drops every 10 minutes.
+ */
+public class ModerationMetrics implements Consumer<ModerationEvent> {
+    private static final int METRICS_INTERVAL_MINUTES = 10;
+
+    private final ModerationEventBus eventBus;
+    private final Logger logger;
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public ModerationMetrics(ModerationEventBus eventBus, Logger logger) {
+        this.eventBus = eventBus;
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-ModerationMetrics");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::logMetrics, METRICS_INTERVAL_MINUTES, METRICS_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void accept(ModerationEvent event) {
+        int users = event instanceof ModerationEvent.MassActioned mass ? mass.discordIds().size() : 1;
+        counts.computeIfAbsent(event.getClass().getSimpleName(), k -> new LongAdder()).add(users);
+    }
+
+    private void logMetrics() {
+        Map<String, Long> events = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                events.put(entry.getKey(), count);
+            }
+        }
+        String subscribers = eventBus.drainSummary();
+        if (!events.isEmpty() || !subscribers.isEmpty()) {
+            logger.info("📨 Moderation events (last {}m): {} | subscribers: {}", METRICS_INTERVAL_MINUTES,
+                    events.isEmpty() ? "none" : events, subscribers.isEmpty() ? "idle" : subscribers);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package world.landfall.sentinel.moderation;
+
+import world.landfall.sentinel.db.DatabaseManager;
+import org.slf4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills moderation_daily_stats from the moderation history recorded before the table existed.
+ *
+ * New actions are counted as they are inserted, so this only ever runs once. It works through
+ * the old actions in batches of IDs on a background thread with a pause between batches, and
+ * its progress is kept in sentinel_state, so a restart resumes where it stopped.
+ */
+public class ModerationStatsBackfill {
+    private static final int BATCH_SIZE = 5000;
+    private static final long BATCH_DELAY_MILLIS = 250;
+    private static final long RETRY_DELAY_SECONDS = 60;
+
+    private final DatabaseManager db;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean complete;
+    private long startedAt;
+    private long batches;
+
+    public ModerationStatsBackfill(DatabaseManager db, Logger logger) {
+        this.db = db;
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-StatsBackfill");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(this::runBatch);
+    }
+
+    /**
+     * Whether moderation_daily_stats covers the whole history yet.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private void runBatch() {
+        if (startedAt == 0) {
+            startedAt = System.nanoTime();
+        }
+
+        long remaining = db.backfillDailyStats(BATCH_SIZE);
+        if (remaining < 0) {
+            logger.warn("📊 Moderation stats backfill batch failed, retrying in {}s", RETRY_DELAY_SECONDS);
+            scheduler.schedule(this::runBatch, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+            return;
+        }
+        if (remaining == 0) {
+            complete = true;
+            if (batches > 0) {
+                logger.info("📊 Moderation stats backfill complete: {} batches in {}s", batches,
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt));
+            }
+            scheduler.shutdown();
+            return;
+        }
+
+        if (batches++ % 20 == 0) {
+            logger.info("📊 Backfilling moderation stats, {} action IDs left", remaining);
+        }
+        scheduler.schedule(this::runBatch, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
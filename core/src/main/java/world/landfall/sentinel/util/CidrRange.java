@@ -0,0 +1,150 @@
+package world.landfall.sentinel.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * An IPv4 or IPv6 network in CIDR notation, e.g. "203.0.113.0/24" or "2001:db8::/32".
+ * A bare address is treated as a single-host range (/32 or /128).
+ *
+ * The network bytes are always stored with host bits cleared, so two ranges
+ * describing the same network compare and print identically.
+ */
+public record CidrRange(byte[] network, int prefixLength) {
+
+    private static final Pattern IPV4_LITERAL = Pattern.compile("^\\d{1,3}(\\.\\d{1,3}){3}$");
+    private static final Pattern IPV6_LITERAL = Pattern.compile("^[0-9a-fA-F:.]*:[0-9a-fA-F:.]*$");
+
+    public CidrRange {
+        network = mask(network, prefixLength);
+    }
+
+    /**
+     * Parses a CIDR string or bare address.
+     *
+     * Only IP literals are accepted, so this never triggers a DNS lookup: IPv4 octets
+     * are range-checked here, and anything containing a colon is parsed as IPv6.
+     *
+     * @param value The range to parse
+     * @return The parsed range
+     * @throws IllegalArgumentException if the value is not a valid IPv4/IPv6 range
+     */
+    public static CidrRange parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Empty IP range");
+        }
+
+        String trimmed = value.trim();
+        String addressPart = trimmed;
+        Integer prefix = null;
+
+        int slash = trimmed.indexOf('/');
+        if (slash >= 0) {
+            addressPart = trimmed.substring(0, slash);
+            try {
+                prefix = Integer.parseInt(trimmed.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length in " + value);
+            }
+        }
+
+        byte[] address = parseAddress(addressPart);
+        if (address == null) {
+            throw new IllegalArgumentException("Not an IP address: " + addressPart);
+        }
+
+        int maxBits = address.length * 8;
+        int prefixLength = prefix != null ? prefix : maxBits;
+        if (prefixLength < 0 || prefixLength > maxBits) {
+            throw new IllegalArgumentException("Prefix length must be between 0 and " + maxBits);
+        }
+
+        return new CidrRange(address, prefixLength);
+    }
+
+    /**
+     * Parses an IP literal into its raw bytes (4 for IPv4, 16 for IPv6).
+     * IPv4-mapped IPv6 addresses are returned as IPv4.
+     *
+     * @param address The address literal
+     * @return The address bytes, or null if the value is not an IP literal
+     */
+    public static byte[] parseAddress(String address) {
+        if (address == null) {
+            return null;
+        }
+        String trimmed = address.trim();
+        // Strip an IPv6 zone index such as "%eth0"
+        int zone = trimmed.indexOf('%');
+        if (zone >= 0) {
+            trimmed = trimmed.substring(0, zone);
+        }
+        if (IPV4_LITERAL.matcher(trimmed).matches()) {
+            // Out of range octets are not a literal, and InetAddress would resolve them as a hostname
+            for (String octet : trimmed.split("\\.")) {
+                if (Integer.parseInt(octet) > 255) {
+                    return null;
+                }
+            }
+        } else if (!IPV6_LITERAL.matcher(trimmed).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(trimmed).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if this is an IPv4 range.
+     */
+    public boolean isIpv4() {
+        return network.length == 4;
+    }
+
+    /**
+     * Returns true if the given address bytes fall inside this range.
+     */
+    public boolean contains(byte[] address) {
+        if (address == null || address.length != network.length) {
+            return false;
+        }
+        return Arrays.equals(mask(address, prefixLength), network);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CidrRange other
+                && prefixLength == other.prefixLength
+                && Arrays.equals(network, other.network);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(network) + prefixLength;
+    }
+
+    /**
+     * Canonical string form, e.g. "203.0.113.0/24".
+     */
+    @Override
+    public String toString() {
+        try {
+            return InetAddress.getByAddress(network).getHostAddress() + "/" + prefixLength;
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Invalid network bytes", e);
+        }
+    }
+
+    private static byte[] mask(byte[] address, int prefixLength) {
+        byte[] masked = address.clone();
+        for (int i = 0; i < masked.length; i++) {
+            int bitsInByte = Math.max(0, Math.min(8, prefixLength - i * 8));
+            masked[i] &= (byte) (0xFF << (8 - bitsInByte));
+        }
+        return masked;
+    }
+}
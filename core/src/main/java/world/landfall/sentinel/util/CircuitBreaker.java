@@ -0,0 +1,120 @@
+package world.landfall.sentinel.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive-failure circuit breaker for a slow or unavailable dependency.
+ *
+ * CLOSED lets every call through and counts consecutive failures. After the configured
+ * number it trips to OPEN, where calls are rejected immediately so callers can use their
+ * fallback instead of waiting on a dependency that is already known to be stuck. Once the
+ * open period has elapsed a single trial call is let through (HALF_OPEN); success closes
+ * the breaker, failure opens it again.
+ *
+ * Thread-safe. State transitions are logged, along with how often the breaker has opened
+ * and how many calls it has rejected.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Logger logger;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final AtomicLong timesOpened = new AtomicLong();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    /**
+     * @param name Dependency name used in log messages
+     * @param failureThreshold Consecutive failures before the breaker opens
+     * @param openMillis How long the breaker stays open before allowing a trial call
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, Logger logger) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns true if a call may go through. Callers that get false should use their fallback.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                rejectedCalls.incrementAndGet();
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                rejectedCalls.incrementAndGet();
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Records a call that completed in time.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a call that timed out or failed.
+     */
+    public synchronized void recordFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = System.currentTimeMillis();
+            transition(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void transition(State next) {
+        State previous = state;
+        state = next;
+
+        switch (next) {
+            case OPEN -> {
+                timesOpened.incrementAndGet();
+                logger.warn("⚡ Circuit breaker '{}' {} -> OPEN after {} consecutive failures (opened {} times)",
+                        name, previous, consecutiveFailures, timesOpened.get());
+            }
+            case HALF_OPEN -> {
+                logger.info("⚡ Circuit breaker '{}' OPEN -> HALF_OPEN, allowing a trial call", name);
+            }
+            case CLOSED -> {
+                logger.info("⚡ Circuit breaker '{}' {} -> CLOSED ({} calls rejected while open so far)",
+                        name, previous, rejectedCalls.get());
+            }
+        }
+    }
+}
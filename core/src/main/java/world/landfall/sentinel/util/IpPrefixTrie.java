@@ -0,0 +1,256 @@
+package world.landfall.sentinel.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compressed binary radix (Patricia) trie keyed by IP network prefixes.
+ *
+ * Each node stores a masked network and its prefix length; single-child chains are
+ * collapsed, so a lookup visits at most one node per branching bit and costs
+ * O(address bits) regardless of how many prefixes are stored. Inserts and removals
+ * touch only the path to the affected prefix, which lets callers keep the trie in
+ * sync with ban changes incrementally instead of rebuilding it.
+ *
+ * All keys in one trie must have the same length (use one trie per address family).
+ * Not thread-safe; callers guard access.
+ *
+ * @param <V> The value attached to each stored prefix
+ */
+public class IpPrefixTrie<V> {
+
+    private static final class Node<V> {
+        final byte[] key;
+        final int prefixLength;
+        V value;
+        Node<V> zero;
+        Node<V> one;
+
+        Node(byte[] key, int prefixLength, V value) {
+            this.key = key;
+            this.prefixLength = prefixLength;
+            this.value = value;
+        }
+
+        Node<V> child(int bit) {
+            return bit == 0 ? zero : one;
+        }
+
+        void setChild(int bit, Node<V> child) {
+            if (bit == 0) {
+                zero = child;
+            } else {
+                one = child;
+            }
+        }
+
+        int childCount() {
+            return (zero != null ? 1 : 0) + (one != null ? 1 : 0);
+        }
+
+        Node<V> onlyChild() {
+            return zero != null ? zero : one;
+        }
+    }
+
+    private Node<V> root;
+    private int size;
+
+    /**
+     * Stores a value for a prefix, replacing any existing value for the same prefix.
+     *
+     * @return The previous value, or null if the prefix was not present
+     */
+    public V put(CidrRange range, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        byte[] key = range.network();
+        int length = range.prefixLength();
+
+        if (root == null) {
+            root = new Node<>(key, length, value);
+            size++;
+            return null;
+        }
+
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (true) {
+            int common = commonPrefixLength(node.key, key, Math.min(node.prefixLength, length));
+
+            if (common == node.prefixLength && common == length) {
+                V old = node.value;
+                node.value = value;
+                if (old == null) {
+                    size++;
+                }
+                return old;
+            }
+
+            if (common == node.prefixLength) {
+                // Existing node is a prefix of the new key: descend
+                int bit = bit(key, node.prefixLength);
+                Node<V> child = node.child(bit);
+                if (child == null) {
+                    node.setChild(bit, new Node<>(key, length, value));
+                    size++;
+                    return null;
+                }
+                parent = node;
+                node = child;
+                continue;
+            }
+
+            Node<V> replacement;
+            if (common == length) {
+                // New key is a prefix of the existing node: insert above it
+                replacement = new Node<>(key, length, value);
+                replacement.setChild(bit(node.key, length), node);
+            } else {
+                // Keys diverge below both: add a valueless branch node
+                replacement = new Node<>(truncate(key, common), common, null);
+                replacement.setChild(bit(node.key, common), node);
+                replacement.setChild(bit(key, common), new Node<>(key, length, value));
+            }
+            replaceChild(parent, node, replacement);
+            size++;
+            return null;
+        }
+    }
+
+    /**
+     * Removes the value stored for exactly this prefix and re-compresses the path.
+     *
+     * @return The removed value, or null if the prefix was not present
+     */
+    public V remove(CidrRange range) {
+        byte[] key = range.network();
+        int length = range.prefixLength();
+
+        Node<V> grandparent = null;
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null) {
+            if (node.prefixLength > length
+                    || commonPrefixLength(node.key, key, node.prefixLength) < node.prefixLength) {
+                return null;
+            }
+            if (node.prefixLength == length) {
+                break;
+            }
+            grandparent = parent;
+            parent = node;
+            node = node.child(bit(key, node.prefixLength));
+        }
+
+        if (node == null || node.value == null) {
+            return null;
+        }
+
+        V old = node.value;
+        node.value = null;
+        size--;
+
+        if (node.childCount() == 2) {
+            return old; // Still needed as a branch point
+        }
+
+        if (node.childCount() == 1) {
+            replaceChild(parent, node, node.onlyChild());
+            return old;
+        }
+
+        replaceChild(parent, node, null);
+        // A valueless branch left with one child is no longer needed
+        if (parent != null && parent.value == null && parent.childCount() == 1) {
+            replaceChild(grandparent, parent, parent.onlyChild());
+        }
+        return old;
+    }
+
+    /**
+     * Finds the most specific stored prefix containing the address whose value passes the filter.
+     *
+     * @param address Raw address bytes, same length as the stored keys
+     * @param filter Values failing this test are skipped (e.g. expired entries)
+     * @return The matching value, or null if no stored prefix matches
+     */
+    public V findMostSpecific(byte[] address, Predicate<V> filter) {
+        int maxBits = address.length * 8;
+        V best = null;
+        Node<V> node = root;
+        while (node != null) {
+            if (node.prefixLength > maxBits
+                    || node.key.length != address.length
+                    || commonPrefixLength(node.key, address, node.prefixLength) < node.prefixLength) {
+                break;
+            }
+            if (node.value != null && filter.test(node.value)) {
+                best = node.value;
+            }
+            if (node.prefixLength == maxBits) {
+                break;
+            }
+            node = node.child(bit(address, node.prefixLength));
+        }
+        return best;
+    }
+
+    /**
+     * Returns all stored values in key order.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        collect(root, values);
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void collect(Node<V> node, List<V> out) {
+        if (node == null) {
+            return;
+        }
+        if (node.value != null) {
+            out.add(node.value);
+        }
+        collect(node.zero, out);
+        collect(node.one, out);
+    }
+
+    private void replaceChild(Node<V> parent, Node<V> oldChild, Node<V> newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.zero == oldChild) {
+            parent.zero = newChild;
+        } else {
+            parent.one = newChild;
+        }
+    }
+
+    private static int bit(byte[] key, int index) {
+        return (key[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b, int maxBits) {
+        int bits = 0;
+        for (int i = 0; i < a.length && bits < maxBits; i++) {
+            int diff = (a[i] ^ b[i]) & 0xFF;
+            if (diff == 0) {
+                bits += 8;
+            } else {
+                bits += Integer.numberOfLeadingZeros(diff) - 24;
+                break;
+            }
+        }
+        return Math.min(bits, maxBits);
+    }
+
+    private static byte[] truncate(byte[] key, int prefixLength) {
+        return new CidrRange(key, prefixLength).network();
+    }
+}
@@ -4,18 +4,25 @@ import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import org.slf4j.Logger;
 
 /**
- * Bridges Hytale's PlayerDisconnectEvent. Placeholder for disconnect handling.
+ * Bridges Hytale's PlayerDisconnectEvent. Releases the connection's pending login hold so a
+ * late login decision is not applied to a player who already left.
  * No impersonation cleanup needed on Hytale (feature not supported).
  */
 public class HytaleDisconnectListener {
 
+    private final HytalePendingLogins pendingLogins;
     private final Logger logger;
 
-    public HytaleDisconnectListener(Logger logger) {
+    public HytaleDisconnectListener(HytalePendingLogins pendingLogins, Logger logger) {
+        this.pendingLogins = pendingLogins;
         this.logger = logger;
     }
 
     public void onPlayerDisconnect(PlayerDisconnectEvent event) {
+        if (pendingLogins.resolve(event.getPlayerRef())) {
+            logger.debug("Player {} disconnected before their login decision completed", event.getPlayerRef().getUsername());
+            return;
+        }
         logger.debug("Player {} disconnected", event.getPlayerRef().getUsername());
     }
 }
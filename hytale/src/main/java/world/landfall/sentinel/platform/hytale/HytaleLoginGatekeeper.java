@@ -11,19 +11,33 @@ import world.landfall.sentinel.context.LoginGatekeeper;
  * Hytale has no cancellable login event. Instead, we kick the player
  * after they connect via playerRef.getPacketHandler().disconnect().
  *
+ * Decisions arrive asynchronously from the login executor, so both allow and deny
+ * first release the connection from {@link HytalePendingLogins}. A decision for a connection
+ * that is no longer pending (disconnected, already timed out or replaced by a reconnect) is ignored.
+ *
  * Denial messages are rendered as plain ASCII text (no Adventure Components).
  * Hytale's disconnect handler only supports basic ASCII — no Unicode box-drawing or emoji.
  */
 public class HytaleLoginGatekeeper implements LoginGatekeeper {
 
+    private final HytalePendingLogins pendingLogins;
+
+    public HytaleLoginGatekeeper(HytalePendingLogins pendingLogins) {
+        this.pendingLogins = pendingLogins;
+    }
+
     @Override
     public void allowLogin(LoginContext ctx) {
-        // No-op: Hytale connections proceed by default
+        // Hytale connections proceed by default; just lift the pending hold
+        pendingLogins.resolve(((HytaleLoginContext) ctx).getPlayerRef());
     }
 
     @Override
     public void denyLogin(LoginContext ctx, DenialReason reason) {
         HytaleLoginContext hCtx = (HytaleLoginContext) ctx;
+        if (!pendingLogins.resolve(hCtx.getPlayerRef())) {
+            return; // Connection already left, was timed out or was replaced by a reconnect
+        }
         String message = renderDenialMessage(reason);
         hCtx.getPlayerRef().getPacketHandler().disconnect(message);
     }
@@ -38,6 +52,8 @@ public class HytaleLoginGatekeeper implements LoginGatekeeper {
             return renderNotLinked(r.linkCode());
         } else if (reason instanceof DenialReason.Quarantined r) {
             return renderQuarantined(r.reason(), r.timeRemaining(), r.permanent());
+        } else if (reason instanceof DenialReason.IpBanned r) {
+            return renderIpBanned(r.reason(), r.timeRemaining(), r.permanent());
         } else if (reason instanceof DenialReason.TosNotAccepted r) {
             return renderTosNotAccepted(r.version());
         } else if (reason instanceof DenialReason.DiscordLeft r) {
@@ -74,6 +90,21 @@ public class HytaleLoginGatekeeper implements LoginGatekeeper {
         return sb.toString();
     }
 
+    private String renderIpBanned(String reason, String timeRemaining, boolean permanent) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("NETWORK BANNED\n\n");
+        sb.append("Reason: ").append(reason).append("\n");
+
+        if (permanent) {
+            sb.append("Duration: Permanent\n");
+        } else {
+            sb.append("Time remaining: ").append(timeRemaining).append("\n");
+        }
+
+        sb.append("\nContact an administrator for assistance.");
+        return sb.toString();
+    }
+
     private String renderTosNotAccepted(String version) {
         return "TERMS OF SERVICE UPDATE\n\n" +
                 "We have updated our Terms of Service.\n" +
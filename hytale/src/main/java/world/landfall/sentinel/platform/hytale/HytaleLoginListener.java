@@ -1,23 +1,98 @@
 package world.landfall.sentinel.platform.hytale;
 
+import world.landfall.sentinel.DenialReason;
 import world.landfall.sentinel.LoginHandler;
 import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
+import org.slf4j.Logger;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Bridges Hytale's PlayerConnectEvent to the platform-independent LoginHandler.
+ *
+ * The login decision runs on a dedicated virtual-thread executor so JDBC and Discord
+ * calls never block the thread processing connections. While the decision is in flight
+ * the player is held in {@link HytalePendingLogins}; if no decision arrives within the
+ * login deadline plus {@link #DECISION_TIMEOUT_MARGIN_MILLIS} the player is disconnected
+ * with a server error. Every database call LoginHandler makes before deciding is bounded by
+ * the deadline and its record writes happen afterwards on their own thread, so the timeout
+ * only fires if the decision itself is stuck.
  */
 public class HytaleLoginListener {
 
+    private static final long DECISION_TIMEOUT_MARGIN_MILLIS = 2000;
+
     private final LoginHandler loginHandler;
+    private final long decisionTimeoutMillis;
+    private final HytalePendingLogins pendingLogins;
     private final HytaleLoginGatekeeper gatekeeper;
+    private final Logger logger;
+    private final ExecutorService loginExecutor;
+    private final ScheduledExecutorService timeoutScheduler;
 
-    public HytaleLoginListener(LoginHandler loginHandler) {
+    public HytaleLoginListener(LoginHandler loginHandler, HytalePendingLogins pendingLogins, long loginDeadlineMillis, Logger logger) {
         this.loginHandler = loginHandler;
-        this.gatekeeper = new HytaleLoginGatekeeper();
+        this.decisionTimeoutMillis = loginDeadlineMillis + DECISION_TIMEOUT_MARGIN_MILLIS;
+        this.pendingLogins = pendingLogins;
+        this.gatekeeper = new HytaleLoginGatekeeper(pendingLogins);
+        this.logger = logger;
+        this.loginExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("Sentinel-Login-", 0).factory());
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Sentinel-LoginTimeout");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     public void onPlayerConnect(PlayerConnectEvent event) {
         HytaleLoginContext ctx = new HytaleLoginContext(event.getPlayerRef());
-        loginHandler.handleLogin(ctx, gatekeeper);
+        UUID uuid = ctx.getPlayerUuid();
+        pendingLogins.add(ctx.getPlayerRef());
+
+        try {
+            loginExecutor.execute(() -> {
+                try {
+                    loginHandler.handleLogin(ctx, gatekeeper);
+                } catch (Exception e) {
+                    logger.error("Unexpected error during async login for {} ({})", ctx.getPlayerUsername(), uuid, e);
+                    gatekeeper.denyLogin(ctx, new DenialReason.ServerError());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.error("Login executor rejected login for {} ({}) - shutting down?", ctx.getPlayerUsername(), uuid);
+            gatekeeper.denyLogin(ctx, new DenialReason.ServerError());
+            return;
+        }
+
+        timeoutScheduler.schedule(() -> {
+            // Only this connection's hold; a reconnect has its own timeout
+            if (pendingLogins.isPending(ctx.getPlayerRef())) {
+                logger.warn("Login decision for {} ({}) did not complete within {}ms. Disconnecting.",
+                        ctx.getPlayerUsername(), uuid, decisionTimeoutMillis);
+                gatekeeper.denyLogin(ctx, new DenialReason.ServerError());
+            }
+        }, decisionTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting new login work and waits briefly for in-flight decisions.
+     */
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+        loginExecutor.shutdown();
+        try {
+            if (!loginExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                loginExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            loginExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 }
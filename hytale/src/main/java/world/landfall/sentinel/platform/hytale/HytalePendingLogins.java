@@ -0,0 +1,62 @@
+package world.landfall.sentinel.platform.hytale;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks Hytale players that have connected but whose login decision has not come back yet.
+ *
+ * Hytale has no cancellable login event, so a player is already connected while
+ * LoginHandler runs on the login executor. Until the decision resolves the player is
+ * held here; the gatekeeper only acts on players that are still pending, so a result
+ * arriving after the player disconnected (or after the deadline kick) is dropped.
+ *
+ * Holds are per connection, keyed by UUID but matched on the connection's {@link PlayerRef}.
+ * A player who reconnects quickly replaces their earlier hold, so a late decision, timeout
+ * or disconnect from the earlier connection never resolves the new one.
+ *
+ * This only tracks the decision. It does not restrict the player: until a deny arrives,
+ * which is bounded by the login deadline, a pending player can act like any other.
+ */
+public class HytalePendingLogins {
+
+    private final Map<UUID, PlayerRef> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Marks a connection as awaiting a login decision, replacing any earlier connection of the same player.
+     */
+    public void add(PlayerRef playerRef) {
+        pending.put(playerRef.getUuid(), playerRef);
+    }
+
+    /**
+     * Releases a connection from the pending state.
+     *
+     * @return true if this connection was still pending
+     */
+    public boolean resolve(PlayerRef playerRef) {
+        boolean[] resolved = {false};
+        pending.computeIfPresent(playerRef.getUuid(), (uuid, current) -> {
+            if (current != playerRef) {
+                return current; // A newer connection of the same player
+            }
+            resolved[0] = true;
+            return null;
+        });
+        return resolved[0];
+    }
+
+    /**
+     * Checks if a connection is still awaiting a login decision.
+     */
+    public boolean isPending(PlayerRef playerRef) {
+        return pending.get(playerRef.getUuid()) == playerRef;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+}
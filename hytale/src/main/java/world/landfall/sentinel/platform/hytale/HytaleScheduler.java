@@ -27,6 +27,11 @@ public class HytaleScheduler implements PlatformScheduler {
         executor.execute(task);
     }
 
+    @Override
+    public void runLater(Runnable task, long delay, TimeUnit unit) {
+        executor.schedule(task, delay, unit);
+    }
+
     @Override
     public void runRepeating(Runnable task, long delay, long period, TimeUnit unit) {
         executor.scheduleAtFixedRate(task, delay, period, unit);
@@ -27,6 +27,8 @@ public class HytaleSentinel extends JavaPlugin {
     private DatabaseManager database;
     private DiscordManager discord;
     private HytalePlatformAdapter platformAdapter;
+    private HytaleLoginListener loginListener;
+    private LoginHandler loginHandler;
 
     public HytaleSentinel(@Nonnull JavaPluginInit init) {
         super(init);
@@ -86,13 +88,14 @@ public class HytaleSentinel extends JavaPlugin {
         }
 
         // Create the platform-independent login handler (null ImpersonationManager)
-        LoginHandler loginHandler = new LoginHandler(database, config, discord, null, tosManager, ipLogger, logger);
+        loginHandler = new LoginHandler(database, config, discord, null, tosManager, ipLogger, logger);
 
-        // Register event listeners
-        HytaleLoginListener loginListener = new HytaleLoginListener(loginHandler);
+        // Register event listeners (login decisions run off the connect thread)
+        HytalePendingLogins pendingLogins = new HytalePendingLogins();
+        loginListener = new HytaleLoginListener(loginHandler, pendingLogins, config.login.deadlineMillis, logger);
         this.getEventRegistry().registerGlobal(PlayerConnectEvent.class, loginListener::onPlayerConnect);
 
-        HytaleDisconnectListener disconnectListener = new HytaleDisconnectListener(logger);
+        HytaleDisconnectListener disconnectListener = new HytaleDisconnectListener(pendingLogins, logger);
         this.getEventRegistry().registerGlobal(PlayerDisconnectEvent.class, disconnectListener::onPlayerDisconnect);
 
         logger.info("Sentinel up and running.");
@@ -102,6 +105,12 @@ public class HytaleSentinel extends JavaPlugin {
     protected void shutdown() {
         logger.info("Shutting down Sentinel...");
 
+        if (loginListener != null) {
+            loginListener.shutdown();
+        }
+        if (loginHandler != null) {
+            loginHandler.shutdown();
+        }
         if (platformAdapter != null) {
             platformAdapter.getScheduler().shutdown();
         }
@@ -33,11 +33,16 @@ public class VelocityLoginGatekeeper implements LoginGatekeeper {
         return true;
     }
 
-    private Component renderDenialMessage(DenialReason reason) {
+    /**
+     * Renders a denial reason. Package-private so the pre-login listener shows the same screen.
+     */
+    Component renderDenialMessage(DenialReason reason) {
         if (reason instanceof DenialReason.NotLinked r) {
             return renderNotLinked(r.linkCode());
         } else if (reason instanceof DenialReason.Quarantined r) {
             return renderQuarantined(r.reason(), r.timeRemaining(), r.permanent());
+        } else if (reason instanceof DenialReason.IpBanned r) {
+            return renderIpBanned(r.reason(), r.timeRemaining(), r.permanent());
         } else if (reason instanceof DenialReason.TosNotAccepted r) {
             return renderTosNotAccepted(r.version());
         } else if (reason instanceof DenialReason.DiscordLeft r) {
@@ -109,6 +114,33 @@ public class VelocityLoginGatekeeper implements LoginGatekeeper {
         return builder.build();
     }
 
+    private Component renderIpBanned(String reason, String timeRemaining, boolean permanent) {
+        var builder = Component.text();
+        builder.append(Component.text("🚫 Connections from your network are banned\n\n")
+                        .color(NamedTextColor.RED)
+                        .decorate(TextDecoration.BOLD))
+                .append(Component.text("Reason: ").color(NamedTextColor.YELLOW))
+                .append(Component.text(reason + "\n").color(NamedTextColor.WHITE));
+
+        if (permanent) {
+            builder.append(Component.text("Duration: ")
+                            .color(NamedTextColor.YELLOW))
+                    .append(Component.text("Permanent\n")
+                            .color(NamedTextColor.RED)
+                            .decorate(TextDecoration.BOLD));
+        } else {
+            builder.append(Component.text("Time remaining: ")
+                            .color(NamedTextColor.YELLOW))
+                    .append(Component.text(timeRemaining + "\n")
+                            .color(NamedTextColor.GREEN));
+        }
+
+        builder.append(Component.text("\nContact an administrator for assistance.")
+                .color(NamedTextColor.GRAY));
+
+        return builder.build();
+    }
+
     private Component renderTosNotAccepted(String version) {
         return Component.text()
                 .append(Component.text("⚠  TERMS OF SERVICE UPDATE\n")
@@ -13,9 +13,9 @@ public class VelocityLoginListener {
     private final LoginHandler loginHandler;
     private final VelocityLoginGatekeeper gatekeeper;
 
-    public VelocityLoginListener(LoginHandler loginHandler) {
+    public VelocityLoginListener(LoginHandler loginHandler, VelocityLoginGatekeeper gatekeeper) {
         this.loginHandler = loginHandler;
-        this.gatekeeper = new VelocityLoginGatekeeper();
+        this.gatekeeper = gatekeeper;
     }
 
     @Subscribe(order = PostOrder.NORMAL)
@@ -0,0 +1,65 @@
+package world.landfall.sentinel.platform.velocity;
+
+import world.landfall.sentinel.LoginDenyIndex;
+import world.landfall.sentinel.db.DatabaseManager.QuarantinedLink;
+import world.landfall.sentinel.db.IpBanInfo;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent.PreLoginComponentResult;
+import org.slf4j.Logger;
+
+import java.util.Optional;
+
+/**
+ * Rejects banned addresses and known-quarantined accounts at PreLoginEvent, before Velocity spends a
+ * Mojang session-server round trip and encryption setup on them.
+ *
+ * Only consults the in-memory LoginDenyIndex. VelocityLoginListener remains the
+ * authoritative check for every connection that gets past this point.
+ *
+ * Nothing is written to the database here: the player is not authenticated yet, so the
+ * claimed UUID or username cannot be trusted for login_ips, and a flood of rejected
+ * connections must not take database connections away from real logins.
+ */
+public class VelocityPreLoginListener {
+
+    private final LoginDenyIndex denyIndex;
+    private final VelocityLoginGatekeeper gatekeeper;
+    private final Logger logger;
+
+    public VelocityPreLoginListener(LoginDenyIndex denyIndex, VelocityLoginGatekeeper gatekeeper, Logger logger) {
+        this.denyIndex = denyIndex;
+        this.gatekeeper = gatekeeper;
+        this.logger = logger;
+    }
+
+    @Subscribe(order = PostOrder.EARLY)
+    public void onPreLogin(PreLoginEvent event) {
+        if (!event.getResult().isAllowed()) {
+            return; // Already rejected by someone else
+        }
+
+        String ipAddress = event.getConnection().getRemoteAddress().getAddress().getHostAddress();
+
+        Optional<IpBanInfo> ipBan = denyIndex.findIpBan(ipAddress);
+        if (ipBan.isPresent()) {
+            logger.debug("Connection from {} rejected at pre-login: matches IP ban {}", ipAddress, ipBan.get().cidr());
+            event.setResult(PreLoginComponentResult.denied(
+                    gatekeeper.renderDenialMessage(LoginDenyIndex.toDenialReason(ipBan.get()))));
+            return;
+        }
+
+        Optional<QuarantinedLink> hit = denyIndex.find(event.getUniqueId(), event.getUsername());
+        if (hit.isEmpty()) {
+            return;
+        }
+
+        QuarantinedLink entry = hit.get();
+
+        // The name or UUID is only claimed at this point, so the log names the address alone
+        logger.debug("Connection from {} rejected at pre-login: claimed a quarantined account", ipAddress);
+        event.setResult(PreLoginComponentResult.denied(
+                gatekeeper.renderDenialMessage(LoginDenyIndex.toDenialReason(entry))));
+    }
+}
@@ -18,6 +18,13 @@ public class VelocityScheduler implements PlatformScheduler {
         server.getScheduler().buildTask(server, task).schedule();
     }
 
+    @Override
+    public void runLater(Runnable task, long delay, TimeUnit unit) {
+        server.getScheduler().buildTask(server, task)
+                .delay(delay, unit)
+                .schedule();
+    }
+
     @Override
     public void runRepeating(Runnable task, long delay, long period, TimeUnit unit) {
         server.getScheduler().buildTask(server, task)
@@ -1,10 +1,12 @@
 package world.landfall.sentinel.platform.velocity;
 
 import world.landfall.sentinel.BuildConstants;
+import world.landfall.sentinel.LoginDenyIndex;
 import world.landfall.sentinel.LoginHandler;
 import world.landfall.sentinel.SentinelCore;
 import world.landfall.sentinel.config.ConfigLoader;
 import world.landfall.sentinel.config.SentinelConfig;
+import world.landfall.sentinel.context.GamePlatform;
 import world.landfall.sentinel.db.DatabaseManager;
 import world.landfall.sentinel.discord.DiscordManager;
 import world.landfall.sentinel.impersonation.ImpersonationManager;
@@ -21,6 +23,7 @@ import org.slf4j.Logger;
 
 import javax.security.auth.login.LoginException;
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 @Plugin(id = "sentinel", name = "Sentinel", version = BuildConstants.VERSION)
 public class VelocitySentinel {
@@ -32,6 +35,7 @@ public class VelocitySentinel {
     private DiscordManager discord;
     private ImpersonationManager impersonationManager;
     private VelocityPlatformAdapter platformAdapter;
+    private LoginHandler loginHandler;
 
     @Subscribe
     public void onProxyInitialization(ProxyInitializeEvent event) {
@@ -50,11 +54,16 @@ public class VelocitySentinel {
             return;
         }
 
+        // In-memory index of quarantined accounts for PreLoginEvent fast-reject
+        LoginDenyIndex denyIndex = new LoginDenyIndex(database, GamePlatform.MINECRAFT, logger);
+        platformAdapter.getScheduler().runRepeating(denyIndex::refresh, 0, 1, TimeUnit.MINUTES);
+
         // Start Discord if we have a token
         if (config.discord.token != null && !config.discord.token.isBlank()) {
             try {
                 discord = new DiscordManager(database, config.discord.token, config.discord.linkedRole,
                         config.discord.quarantineRole, config.discord.staffRoles, platformAdapter, config, logger);
+                discord.setLoginDenyIndex(denyIndex);
                 discord.start();
             } catch (LoginException e) {
                 logger.error("Failed to start Discord bot", e);
@@ -94,16 +103,20 @@ public class VelocitySentinel {
         }
 
         // Create the platform-independent login handler
-        LoginHandler loginHandler = new LoginHandler(database, config, discord, impersonationManager, tosManager, ipLogger, logger);
+        loginHandler = new LoginHandler(database, config, discord, impersonationManager, tosManager, ipLogger, logger);
 
-        // Register the Velocity login listener (after Discord, ToS, and impersonation are initialized)
-        server.getEventManager().register(this, new VelocityLoginListener(loginHandler));
+        // Register the Velocity login listeners (after Discord, ToS, and impersonation are initialized).
+        // PreLoginEvent only fast-rejects from the deny index; LoginEvent stays authoritative.
+        VelocityLoginGatekeeper gatekeeper = new VelocityLoginGatekeeper();
+        server.getEventManager().register(this, new VelocityPreLoginListener(denyIndex, gatekeeper, logger));
+        server.getEventManager().register(this, new VelocityLoginListener(loginHandler, gatekeeper));
 
         logger.info("Sentinel up and running.");
     }
 
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (loginHandler != null) loginHandler.shutdown();
         if (discord != null) discord.shutdown();
         if (database != null) {
             database.close();